@@ -0,0 +1,85 @@
+/**
+ * Picks the MST engine expected to be fastest for each graph: heap-based Prim, dense
+ * (array) Prim or Kruskal. The pick minimises a cost model, estimated time = rate × work:
+ * <ul>
+ *   <li>Prim: 2E + V log V (every slot is scanned, every vertex is pushed and popped).</li>
+ *   <li>Dense Prim: V²/2 key reads plus the slots, which cost a few key reads each. As E/V²
+ *       grows this overtakes the heap.</li>
+ *   <li>Kruskal: the radix sort, unless the graph has sorted its edges already, plus the
+ *       scan, which stops once the tree is complete (after about V ln V / 2 edges on dense
+ *       random graphs, all of them on sparse ones).</li>
+ * </ul>
+ * The rates start from benchmark figures and follow the measured time of every untraced
+ * run this engine makes, so the choice adapts to the machine.
+ */
+public class AdaptiveMstEngine implements MstEngine {
+
+    private static final int MIN_MEASURED_WORK = 50_000;   // smaller runs are too noisy to learn from
+    private static final double LEARNING_RATE = 0.2;
+    private static final double DENSE_SLOT_COST = 4.0;     // one adjacency slot, in key reads
+    private static final double SORT_COST = 4.0;           // sorting one edge, in scanned edges
+
+    private final MstEngine[] engines = { MstEngine.PRIM, MstEngine.DENSE_PRIM, MstEngine.KRUSKAL };
+    private final double[] nanosPerUnit = { 20.0, 1.0, 25.0 };   // guarded by this
+
+    @Override
+    public String getName() {
+        return "Auto";
+    }
+
+    @Override
+    public MstEngine selectFor(Graph graph) {
+        double[] work = work(graph);
+        int best = 0;
+        synchronized (this) {
+            for (int i = 1; i < engines.length; i++) {
+                if (nanosPerUnit[i] * work[i] < nanosPerUnit[best] * work[best]) best = i;
+            }
+        }
+        return engines[best];
+    }
+
+    @Override
+    public int[] run(Graph graph, int source) {
+        MstEngine engine = selectFor(graph);
+        double[] work = work(graph);   // before the run, which may sort the edges
+        long start = System.nanoTime();
+        int[] result = engine.run(graph, source);
+        learn(engine, work, System.nanoTime() - start);
+        return result;
+    }
+
+    // Tracing slows the engines down, so traced runs aren't learned from
+    @Override
+    public int[] run(Graph graph, int source, MstTrace trace) {
+        return selectFor(graph).run(graph, source, trace);
+    }
+
+    // Estimated nanoseconds of each engine on graph, at the current rates
+    public synchronized double[] estimate(Graph graph) {
+        double[] work = work(graph);
+        for (int i = 0; i < work.length; i++) {
+            work[i] *= nanosPerUnit[i];
+        }
+        return work;
+    }
+
+    private synchronized void learn(MstEngine engine, double[] work, long nanos) {
+        for (int i = 0; i < engines.length; i++) {
+            if (engines[i] != engine || work[i] < MIN_MEASURED_WORK) continue;
+            // Clamped so one GC pause can't swing the choice
+            double measured = Math.max(nanosPerUnit[i] / 8, Math.min(nanosPerUnit[i] * 8, nanos / work[i]));
+            nanosPerUnit[i] += LEARNING_RATE * (measured - nanosPerUnit[i]);
+        }
+    }
+
+    private static double[] work(Graph graph) {
+        double n = graph.vertexCount();
+        double m = graph.edgeCount();
+        double log = Math.log(Math.max(n, 2));
+        double heap = 2 * m + n * log / Math.log(2);
+        double dense = n * n / 2 + DENSE_SLOT_COST * 2 * m;
+        double kruskal = (graph.hasEdgesByWeight() ? 0 : SORT_COST * m) + Math.min(m, n * log);
+        return new double[] { heap, dense, kruskal };
+    }
+}
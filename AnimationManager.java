@@ -1,102 +1,281 @@
-import java.util.List;
-import java.util.Map;
-import javafx.animation.KeyFrame;
-import javafx.animation.Timeline;
-import javafx.util.Duration;
-import java.util.Set;
-import java.util.HashSet;
+import java.util.function.DoubleConsumer;
+import java.util.function.IntFunction;
+import javafx.animation.AnimationTimer;
 
+/**
+ * Plays back the step trace of an MST run ({@link MstTrace}) with a single {@link AnimationTimer}.
+ * Every frame applies as many steps as the delay allows, within a fixed time budget so the
+ * FX thread stays responsive. Playback can be paused, stepped in both directions and seeked:
+ * the style each step overwrote is kept (one byte per step), so any step can be undone.
+ * Once the last step is applied the edges left out of the tree are faded, and they come back
+ * when playback moves away from the end again.
+ */
 public class AnimationManager {
+
+    private static final long FRAME_BUDGET_NANOS = 8_000_000;   // at most 8 ms of steps per frame
+    private static final int LOG_DELAY = 50;                      // log each step only at this delay or slower
+
+    /**
+     * Where the styles of a playback go: the editor's scene nodes or the canvas.
+     * Styles are the {@link GraphCanvas} EDGE_ and VERTEX_ constants.
+     */
+    public interface StyleTarget {
+        void styleEdge(int edge, byte style);
+        void styleVertex(int vertex, byte style);
+    }
+
     private GraphController controller; // To update the UI and log progress
-    private Timeline timeline;         // To manage animation steps
-    private int delay = 700;           // Delay between steps in milliseconds
+    private int delay = 700;           // Delay between steps in milliseconds, 0 for as fast as frames allow
+
+    // Current playback
+    private Graph graph;
+    private MstTrace trace;
+    private StyleTarget target;
+    private IntFunction<String> vertexName;
+    private byte[] undo;               // style each step replaced
+    private byte[] finalEdgeStyle;     // style of each edge after the last step
+    private boolean faded = false;     // edges outside the tree are faded (only at the end)
+    private int position = 0;          // steps applied so far
+    private double totalCost = 0.0;
+    private boolean playing = false;
+    private long lastFrame = -1;
+    private double stepCredit = 0.0;   // steps earned by elapsed time but not applied yet
+    private DoubleConsumer onProgress;
+
+    private final AnimationTimer timer = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            frame(now);
+        }
+    };
 
     public AnimationManager(GraphController controller) {
         this.controller = controller;
     }
 
-    // Allow changing the delay speed
+    // Allow changing the delay speed, also while playing
     public void setDelay(int delay) {
-        this.delay = delay;
+        this.delay = Math.max(delay, 0);
+    }
+
+    // Called with the playback position (0 to 1) whenever it changes
+    public void setOnProgress(DoubleConsumer listener) {
+        this.onProgress = listener;
     }
 
     /**
-     * Animate the Prim's Minimum Spanning Tree (MST) algorithm
-     * @param sourceLabel label of the starting vertex
+     * Styles for the editor's {@link Edge} and {@link Vertex} nodes, by their ids in view.
      */
-    public void animateMST(Map<String, Vertex> vertices, List<Edge> edges, String sourceLabel) {
-        // Run Prim’s algorithm and get the list of edges that form the MST
-        List<Edge> mstEdges = PrimMST.runPrim(vertices, edges, sourceLabel);
-
-        // Reset styles of all edges and vertices before starting the animation
-        edges.forEach(Edge::resetStyle);
-        vertices.values().forEach(Vertex::resetStyle);
-
-        this.timeline = new Timeline(); // Create a new animation timeline
-        final double[] totalCost = {0.0}; // To keep track of MST total cost
-        Set<String> visited = new HashSet<>(); // To keep track of visited vertices
-        visited.add(sourceLabel);
-        vertices.get(sourceLabel).markVisited(); // Mark the starting vertex as visited
-
-        int stepIndex = 0;
-
-        // Loop through all edges to animate their evaluation
-        for (Edge edge : edges) {
-            Vertex u = edge.getStart();
-            Vertex v = edge.getEnd();
-
-            // First keyframe: show that we are evaluating this edge
-            KeyFrame evaluateFrame = new KeyFrame(Duration.millis(delay * (stepIndex * 2 + 1)), e -> {
-                edge.highlight("evaluating");   // Highlight the edge as being evaluated
-                u.markActive();                // Mark both vertices as active
-                v.markActive();
-                controller.log("Evaluating: " + u.getLabel() + " → " + v.getLabel() + " (" + edge.getWeight() + ")");
-            });
-
-            // Second keyframe: decide if the edge is part of the MST or not
-            KeyFrame decisionFrame = new KeyFrame(Duration.millis(delay * (stepIndex * 2 + 2)), e -> {
-                u.resetStyle(); // Reset vertices to default style
-                v.resetStyle();
-
-                if (mstEdges.contains(edge)) {
-                    // If the edge is part of MST, accept it
-                    edge.highlight("accepted");
-                    totalCost[0] += edge.getWeight();
-                    controller.updateTotalCost(totalCost[0]);
-
-                    // Mark both vertices as visited if they weren't already
-                    if (!visited.contains(u.getLabel())) {
-                        u.markVisited();
-                        visited.add(u.getLabel());
-                    }
-                    if (!visited.contains(v.getLabel())) {
-                        v.markVisited();
-                        visited.add(v.getLabel());
-                    }
-
-                    controller.log("Added to MST: " + u.getLabel() + " → " + v.getLabel());
-                } else {
-                    // Otherwise, discard it
-                    edge.highlight("discarded");
-                    controller.log("Discarded edge");
+    public static StyleTarget editorTarget(GraphView view) {
+        return new StyleTarget() {
+            @Override
+            public void styleEdge(int edge, byte style) {
+                Edge e = view.edge(edge);
+                switch (style) {
+                    case GraphCanvas.EDGE_EVALUATING -> e.highlight("evaluating");
+                    case GraphCanvas.EDGE_ACCEPTED -> e.highlight("accepted");
+                    case GraphCanvas.EDGE_DISCARDED -> e.highlight("discarded");
+                    case GraphCanvas.EDGE_FADED -> e.fade();
+                    default -> e.resetStyle();
                 }
-            });
+            }
 
-            // Add both keyframes to the timeline
-            this.timeline.getKeyFrames().addAll(evaluateFrame, decisionFrame);
-            stepIndex++;
+            @Override
+            public void styleVertex(int vertex, byte style) {
+                Vertex v = view.vertex(vertex);
+                switch (style) {
+                    case GraphCanvas.VERTEX_SOURCE -> v.markAsSource();
+                    case GraphCanvas.VERTEX_VISITED -> v.markVisited();
+                    case GraphCanvas.VERTEX_ACTIVE -> v.markActive();
+                    case GraphCanvas.VERTEX_HIGHLIGHTED -> v.highlight(true);
+                    default -> v.resetStyle();
+                }
+            }
+        };
+    }
+
+    /**
+     * Start playing a trace from the beginning. All edges and vertices of the graph are
+     * reset to the default style first.
+     */
+    public void play(Graph graph, MstTrace trace, StyleTarget target, IntFunction<String> vertexName) {
+        stop();
+        this.graph = graph;
+        this.trace = trace;
+        this.target = target;
+        this.vertexName = vertexName;
+        this.finalEdgeStyle = new byte[graph.edgeCount()];
+        this.undo = undoStyles(graph, trace, finalEdgeStyle);
+        this.faded = false;
+        this.position = 0;
+        this.totalCost = 0.0;
+
+        for (int e = 0; e < graph.edgeCount(); e++) target.styleEdge(e, GraphCanvas.EDGE_DEFAULT);
+        for (int v = 0; v < graph.vertexCount(); v++) target.styleVertex(v, GraphCanvas.VERTEX_DEFAULT);
+        controller.updateTotalCost(0.0);
+        resume();
+    }
+
+    // Replay the trace once on plain style arrays to find what each step overwrites
+    private static byte[] undoStyles(Graph graph, MstTrace trace, byte[] edgeStyle) {
+        byte[] vertexStyle = new byte[graph.vertexCount()];
+        byte[] undo = new byte[trace.size()];
+        for (int i = 0; i < trace.size(); i++) {
+            int id = trace.id(i);
+            if (trace.type(i) == MstTrace.VISIT) {
+                undo[i] = vertexStyle[id];
+                vertexStyle[id] = GraphCanvas.VERTEX_VISITED;
+            } else {
+                undo[i] = edgeStyle[id];
+                edgeStyle[id] = styleOf(trace.type(i));
+            }
         }
+        return undo;
+    }
+
+    private static byte styleOf(int type) {
+        return switch (type) {
+            case MstTrace.EVALUATE -> GraphCanvas.EDGE_EVALUATING;
+            case MstTrace.ACCEPT -> GraphCanvas.EDGE_ACCEPTED;
+            case MstTrace.DISCARD -> GraphCanvas.EDGE_DISCARDED;
+            default -> GraphCanvas.VERTEX_VISITED;
+        };
+    }
 
-        // Final keyframe: clean up and show completion message
-        KeyFrame doneFrame = new KeyFrame(Duration.millis(delay * (stepIndex * 2 + 1)), e -> {
-            controller.removeEdgesOutsideMST(mstEdges); // Remove edges that are not in the MST
-            controller.log("MST completed. Total cost: " + totalCost[0]);
-        });
+    public boolean isPlaying() {
+        return playing;
+    }
+
+    public boolean hasTrace() {
+        return trace != null;
+    }
 
-        // Add the final keyframe to the timeline
-        this.timeline.getKeyFrames().add(doneFrame);
+    public void pause() {
+        playing = false;
+        timer.stop();
+    }
 
-        // Start playing the animation
-        this.timeline.play();
+    public void resume() {
+        if (trace == null || position == trace.size()) return;
+        playing = true;
+        lastFrame = -1;
+        stepCredit = 0.0;
+        timer.start();
+    }
+
+    // Stop and forget the current trace, e.g. when the graph it refers to is edited
+    public void stop() {
+        pause();
+        trace = null;
+        graph = null;
+        target = null;
+        undo = null;
+        finalEdgeStyle = null;
+    }
+
+    // Pause and move one step forward or back
+    public void step(int direction) {
+        if (trace == null) return;
+        pause();
+        if (direction > 0 && position < trace.size()) {
+            apply(true);
+        } else if (direction < 0 && position > 0) {
+            unapply();
+        }
+        progressChanged();
+    }
+
+    /**
+     * Jump to a point of the trace (0 = start, 1 = end) without logging the steps in between.
+     */
+    public void seek(double fraction) {
+        if (trace == null) return;
+        int goal = (int) Math.round(Math.max(0, Math.min(1, fraction)) * trace.size());
+        while (position < goal) apply(false);
+        while (position > goal) unapply();
+        progressChanged();
+    }
+
+    private void frame(long now) {
+        if (!playing) return;
+        if (lastFrame < 0) lastFrame = now;
+        long due;
+        if (delay == 0) {
+            due = Long.MAX_VALUE;
+        } else {
+            stepCredit += (now - lastFrame) / 1e6 / delay;
+            due = (long) stepCredit;
+            stepCredit -= due;
+        }
+        lastFrame = now;
+        if (due == 0) return;
+
+        boolean log = delay >= LOG_DELAY;
+        long deadline = System.nanoTime() + FRAME_BUDGET_NANOS;
+        for (long applied = 0; applied < due && position < trace.size(); applied++) {
+            apply(log);
+            if ((applied & 255) == 255 && System.nanoTime() > deadline) break;
+        }
+        progressChanged();
+
+        if (position == trace.size()) {
+            pause();
+            controller.log("MST completed. Total cost: " + String.format("%.1f", totalCost));
+        }
+    }
+
+    // Fade the edges outside the tree, or give them back the style the last step left them in
+    private void setFaded(boolean fade) {
+        if (fade == faded) return;
+        faded = fade;
+        for (int e = 0; e < graph.edgeCount(); e++) {
+            if (finalEdgeStyle[e] != GraphCanvas.EDGE_ACCEPTED) {
+                target.styleEdge(e, fade ? GraphCanvas.EDGE_FADED : finalEdgeStyle[e]);
+            }
+        }
+    }
+
+    private void apply(boolean log) {
+        int type = trace.type(position);
+        int id = trace.id(position);
+        position++;
+        if (type == MstTrace.VISIT) {
+            target.styleVertex(id, GraphCanvas.VERTEX_VISITED);
+            return;
+        }
+        target.styleEdge(id, styleOf(type));
+        if (type == MstTrace.ACCEPT) totalCost += graph.edgeWeight(id);
+        if (log) logStep(type, id);
+    }
+
+    private void unapply() {
+        setFaded(false);
+        position--;
+        int type = trace.type(position);
+        int id = trace.id(position);
+        if (type == MstTrace.VISIT) {
+            target.styleVertex(id, undo[position]);
+        } else {
+            target.styleEdge(id, undo[position]);
+            if (type == MstTrace.ACCEPT) totalCost -= graph.edgeWeight(id);
+        }
+    }
+
+    private void logStep(int type, int edge) {
+        String u = vertexName.apply(graph.edgeFrom(edge));
+        String v = vertexName.apply(graph.edgeTo(edge));
+        switch (type) {
+            case MstTrace.EVALUATE -> controller.log("Evaluating: " + u + " → " + v + " (" + graph.edgeWeight(edge) + ")");
+            case MstTrace.ACCEPT -> controller.log("Added to MST: " + u + " → " + v);
+            default -> controller.log("Discarded edge: " + u + " → " + v);
+        }
+    }
+
+    private void progressChanged() {
+        setFaded(position == trace.size());
+        controller.updateTotalCost(position == 0 ? 0.0 : totalCost);
+        if (onProgress != null) {
+            onProgress.accept(trace.size() == 0 ? 1.0 : (double) position / trace.size());
+        }
     }
 }
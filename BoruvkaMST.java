@@ -0,0 +1,213 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Parallel Borůvka MST on a {@link ForkJoinPool}. Every phase
+ * <ol>
+ *   <li>scans all edges in parallel and lets each component keep its cheapest outgoing edge
+ *       through a compare-and-set on a shared array (lock-free),</li>
+ *   <li>hooks each component onto the component at the other end of that edge,</li>
+ *   <li>contracts the hooked components by parallel pointer jumping and relabels the vertices.</li>
+ * </ol>
+ * Edges are ordered by (weight, edge id), so ties are broken deterministically and the
+ * tree is the same one Prim's algorithm finds whenever the weights are distinct.
+ */
+public class BoruvkaMST implements MstEngine {
+
+    private static final int GRAIN = 4096;   // smallest range a task splits off
+
+    private final ForkJoinPool pool;
+
+    public BoruvkaMST() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public BoruvkaMST(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    @Override
+    public String getName() {
+        return "Borůvka";
+    }
+
+    @Override
+    public boolean usesSource() {
+        return false;
+    }
+
+    @Override
+    public int[] run(Graph graph, int source) {
+        int n = graph.vertexCount();
+        if (source < 0 || source >= n) {
+            throw new IllegalArgumentException("Invalid source node: " + source);
+        }
+
+        int[] mstEdges = new int[n - 1];
+        int mstSize = 0;
+
+        int[] comp = new int[n];       // vertex -> component label (the root vertex id)
+        int[] parent = new int[n];     // component -> component it is hooked onto
+        int[] next = new int[n];       // pointer-jumping buffer
+        int[] chosen = new int[n];     // component -> edge it adds to the tree this phase, or -1
+        AtomicIntegerArray best = new AtomicIntegerArray(n);  // component -> cheapest outgoing edge
+
+        int[] active = new int[n];     // labels of the current components
+        int activeCount = n;
+        for (int v = 0; v < n; v++) {
+            comp[v] = v;
+            active[v] = v;
+        }
+
+        ProgressMonitor monitor = ProgressMonitor.current();
+        while (activeCount > 1) {
+            monitor.step(mstSize, n - 1);
+            long roundStarted = Metrics.start();
+            final int[] roots = active;
+            final int rootCount = activeCount;
+
+            // 1. Cheapest outgoing edge per component
+            forRange(0, rootCount, (lo, hi) -> {
+                for (int i = lo; i < hi; i++) best.set(roots[i], -1);
+            });
+            forRange(0, graph.edgeCount(), (lo, hi) -> {
+                monitor.checkCancelled();
+                for (int e = lo; e < hi; e++) {
+                    int cu = comp[graph.edgeFrom(e)];
+                    int cv = comp[graph.edgeTo(e)];
+                    if (cu == cv) continue;
+                    offerBest(graph, best, cu, e);
+                    offerBest(graph, best, cv, e);
+                }
+            });
+
+            // 2. Hook every component onto its neighbour. The only cycles are pairs that chose
+            //    the same edge; the smaller label of such a pair becomes the root.
+            forRange(0, rootCount, (lo, hi) -> {
+                for (int i = lo; i < hi; i++) {
+                    int c = roots[i];
+                    int e = best.get(c);
+                    if (e < 0) {
+                        parent[c] = c;
+                        chosen[c] = -1;
+                        continue;
+                    }
+                    int other = comp[graph.edgeFrom(e)] == c ? comp[graph.edgeTo(e)] : comp[graph.edgeFrom(e)];
+                    boolean mutual = best.get(other) == e;
+                    parent[c] = (mutual && c < other) ? c : other;
+                    chosen[c] = (mutual && c > other) ? -1 : e;
+                }
+            });
+
+            // Collect the new tree edges in label order so the output is deterministic
+            int added = 0;
+            for (int i = 0; i < rootCount; i++) {
+                int e = chosen[roots[i]];
+                if (e >= 0) {
+                    mstEdges[mstSize++] = e;
+                    added++;
+                }
+            }
+            if (added == 0) {
+                throw new IllegalArgumentException("Graph is disconnected. MST cannot be run.");
+            }
+
+            // 3. Contract: pointer jumping until every component points at its root
+            AtomicBoolean changed = new AtomicBoolean(true);
+            int[] from = parent;
+            int[] to = next;
+            while (changed.get()) {
+                changed.set(false);
+                final int[] src = from;
+                final int[] dst = to;
+                forRange(0, rootCount, (lo, hi) -> {
+                    boolean any = false;
+                    for (int i = lo; i < hi; i++) {
+                        int c = roots[i];
+                        int grand = src[src[c]];
+                        dst[c] = grand;
+                        if (grand != src[c]) any = true;
+                    }
+                    if (any) changed.set(true);
+                });
+                from = dst;
+                to = src;
+            }
+            final int[] root = from;
+            forRange(0, n, (lo, hi) -> {
+                for (int v = lo; v < hi; v++) comp[v] = root[comp[v]];
+            });
+
+            // The surviving labels are the roots
+            int[] nextActive = new int[rootCount];
+            int nextCount = 0;
+            for (int i = 0; i < rootCount; i++) {
+                int c = roots[i];
+                if (root[c] == c) nextActive[nextCount++] = c;
+            }
+            active = nextActive;
+            activeCount = nextCount;
+
+            Metrics.add(Metrics.Counter.BORUVKA_ROUNDS, 1);
+            Metrics.add(Metrics.Counter.EDGES_SCANNED, graph.edgeCount());
+            Metrics.add(Metrics.Counter.UNIONS, added);
+            Metrics.stop(Metrics.Phase.BORUVKA_ROUND, roundStarted);
+        }
+
+        return mstEdges;
+    }
+
+    // Lock-free "keep the lighter edge" update of best[c]
+    private static void offerBest(Graph graph, AtomicIntegerArray best, int c, int e) {
+        while (true) {
+            int current = best.get(c);
+            if (current >= 0 && !lighter(graph, e, current)) return;
+            if (best.compareAndSet(c, current, e)) return;
+        }
+    }
+
+    // Total order on edges: by weight, then by edge id
+    private static boolean lighter(Graph graph, int a, int b) {
+        double wa = graph.edgeWeight(a);
+        double wb = graph.edgeWeight(b);
+        return wa < wb || (wa == wb && a < b);
+    }
+
+    // Body of a parallel loop over [lo, hi)
+    private interface RangeBody {
+        void run(int lo, int hi);
+    }
+
+    private void forRange(int lo, int hi, RangeBody body) {
+        if (hi - lo <= GRAIN) {
+            body.run(lo, hi);
+        } else {
+            pool.invoke(new RangeTask(lo, hi, body));
+        }
+    }
+
+    @SuppressWarnings("serial")   // never serialized, only forked
+    private static class RangeTask extends RecursiveAction {
+        private final int lo;
+        private final int hi;
+        private final RangeBody body;
+
+        RangeTask(int lo, int hi, RangeBody body) {
+            this.lo = lo;
+            this.hi = hi;
+            this.body = body;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo <= GRAIN) {
+                body.run(lo, hi);
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            invokeAll(new RangeTask(lo, mid, body), new RangeTask(mid, hi, body));
+        }
+    }
+}
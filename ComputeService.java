@@ -0,0 +1,186 @@
+import java.util.Locale;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyBooleanProperty;
+import javafx.beans.property.ReadOnlyBooleanWrapper;
+import javafx.beans.property.ReadOnlyDoubleProperty;
+import javafx.beans.property.ReadOnlyDoubleWrapper;
+import javafx.beans.property.ReadOnlyObjectProperty;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.beans.property.ReadOnlyStringProperty;
+import javafx.beans.property.ReadOnlyStringWrapper;
+
+/**
+ * Runs MST and routing computations on worker threads so the FX thread keeps drawing frames.
+ * <ul>
+ *   <li>Work gets an immutable {@link Graph} snapshot and must not touch the scene graph.</li>
+ *   <li>One job runs at a time: submitting a new one cancels the current one, through its
+ *       {@link ProgressMonitor} and by interrupting its thread.</li>
+ *   <li>Progress is read from the monitor once per pulse, so however often the algorithm
+ *       reports, the property changes at most once per frame.</li>
+ *   <li>The result is handed to the UI in a single FX event, and only if the job is still
+ *       the current one; results of cancelled or superseded jobs are dropped.</li>
+ *   <li>Each finished job leaves the {@link Metrics} it added behind in {@link #lastRunProperty()}.
+ *       A cancelled job still winding down can add to the next job's numbers.</li>
+ * </ul>
+ * Submit, cancel and the properties are FX thread only.
+ */
+public class ComputeService {
+
+    // Two workers, so a cancelled job that is still winding down never delays the next one
+    private static final int WORKERS = 2;
+
+    /**
+     * A computation to run off the FX thread.
+     */
+    public interface Work<T> {
+        T compute(ProgressMonitor monitor) throws Exception;
+    }
+
+    /**
+     * Metrics added while one job ran, and its wall time.
+     */
+    public record RunMetrics(String task, long elapsedNanos, Metrics.Snapshot metrics) {
+        public double elapsedMillis() {
+            return elapsedNanos / 1e6;
+        }
+
+        public String toJson() {
+            return "{\"task\":\"" + task.replace("\\", "\\\\").replace("\"", "\\\"") + "\",\"elapsedMs\":"
+                    + String.format(Locale.ROOT, "%.3f", elapsedMillis()) + ",\"metrics\":" + metrics.toJson() + "}";
+        }
+    }
+
+    private final ExecutorService workers;
+    private final ReadOnlyDoubleWrapper progress = new ReadOnlyDoubleWrapper(0.0);
+    private final ReadOnlyBooleanWrapper running = new ReadOnlyBooleanWrapper(false);
+    private final ReadOnlyStringWrapper taskName = new ReadOnlyStringWrapper("");
+    private final ReadOnlyObjectWrapper<RunMetrics> lastRun = new ReadOnlyObjectWrapper<>();
+    private Job current = null;
+
+    private final AnimationTimer pulse = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            if (current != null) {
+                progress.set(current.monitor.getFraction());
+            }
+        }
+    };
+
+    private static final class Job {
+        private final String name;
+        private final ProgressMonitor monitor = new ProgressMonitor();
+        private Future<?> future;
+
+        Job(String name) {
+            this.name = name;
+        }
+    }
+
+    public ComputeService() {
+        AtomicInteger threadCount = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(WORKERS, task -> {
+            Thread thread = new Thread(task, "compute-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setPriority(Thread.NORM_PRIORITY - 1);   // the FX thread wins when they compete
+            return thread;
+        });
+    }
+
+    /**
+     * Run work on a worker thread, cancelling whatever is running now.
+     * @param onSuccess receives the result on the FX thread
+     * @param onFailure receives what work threw on the FX thread; not called for cancelled jobs
+     */
+    public <T> void submit(String name, Work<T> work, Consumer<T> onSuccess, Consumer<Throwable> onFailure) {
+        cancel();
+        Job job = new Job(name);
+        current = job;
+        taskName.set(name);
+        progress.set(-1.0);
+        running.set(true);
+        pulse.start();
+
+        job.future = workers.submit(() -> {
+            T result = null;
+            Throwable failure = null;
+            Metrics.Snapshot before = Metrics.snapshot();
+            long started = System.nanoTime();
+            try {
+                result = job.monitor.call(() -> work.compute(job.monitor));
+            } catch (Throwable t) {
+                failure = t;
+            }
+            RunMetrics metrics = new RunMetrics(name, System.nanoTime() - started, Metrics.snapshot().since(before));
+            T value = result;
+            Throwable error = failure;
+            Platform.runLater(() -> finish(job, value, error, metrics, onSuccess, onFailure));
+        });
+    }
+
+    private <T> void finish(Job job, T result, Throwable failure, RunMetrics metrics,
+                            Consumer<T> onSuccess, Consumer<Throwable> onFailure) {
+        if (job != current) return;   // cancelled or superseded
+        current = null;
+        pulse.stop();
+        progress.set(failure == null ? 1.0 : 0.0);
+        running.set(false);
+        lastRun.set(metrics);
+        if (failure == null) {
+            onSuccess.accept(result);
+        } else if (!(failure instanceof CancellationException)) {
+            onFailure.accept(failure);
+        }
+    }
+
+    /**
+     * Cancel the running job, if any. Its result will not be delivered.
+     * @return true if a job was running
+     */
+    public boolean cancel() {
+        Job job = current;
+        if (job == null) return false;
+        current = null;
+        job.monitor.cancel();
+        job.future.cancel(true);
+        pulse.stop();
+        progress.set(0.0);
+        running.set(false);
+        return true;
+    }
+
+    // Progress of the running job (0 to 1), -1 while it hasn't reported any
+    public ReadOnlyDoubleProperty progressProperty() {
+        return progress.getReadOnlyProperty();
+    }
+
+    public ReadOnlyBooleanProperty runningProperty() {
+        return running.getReadOnlyProperty();
+    }
+
+    // Name of the running or last job
+    public ReadOnlyStringProperty taskNameProperty() {
+        return taskName.getReadOnlyProperty();
+    }
+
+    // Metrics of the last job that finished, null before the first one
+    public ReadOnlyObjectProperty<RunMetrics> lastRunProperty() {
+        return lastRun.getReadOnlyProperty();
+    }
+
+    public boolean isRunning() {
+        return current != null;
+    }
+
+    // Stop the workers, e.g. when the window closes
+    public void shutdown() {
+        cancel();
+        workers.shutdownNow();
+    }
+}
@@ -0,0 +1,149 @@
+import java.util.Arrays;
+
+/**
+ * Keeps track of whether a graph that is edited one element at a time is connected.
+ * Adding a vertex or an edge updates a union-find in near O(1). Removing an edge or a
+ * vertex cannot be undone in a union-find, so it only marks the structure stale and the
+ * next query rebuilds it once from the live edges (lazy rebuild).
+ * <p>
+ * The ids of removed vertices and edges are reused, newest first, so a long editing session
+ * doesn't grow the arrays past the largest graph it had. A caller must drop its handle when it
+ * removes an element.
+ */
+public class ConnectivityTracker {
+
+    private final DisjointSet sets = new DisjointSet(0);
+
+    // Vertex slots, and the removed ones waiting to be reused
+    private boolean[] vertexAlive = new boolean[16];
+    private int vertexSlots = 0;
+    private int liveVertices = 0;
+    private final IdPool freeVertices = new IdPool();
+
+    // Edge slots, and the removed ones waiting to be reused
+    private int[] edgeFrom = new int[16];
+    private int[] edgeTo = new int[16];
+    private boolean[] edgeAlive = new boolean[16];
+    private int edgeSlots = 0;
+    private final IdPool freeEdges = new IdPool();
+
+    private boolean stale = false;   // a removal happened since the last rebuild
+    private int deadSets = 0;        // singleton sets left behind by removed vertices
+
+    /**
+     * Register a new isolated vertex and return its id.
+     */
+    public int addVertex() {
+        if (!freeVertices.isEmpty()) {
+            int v = freeVertices.pop();
+            vertexAlive[v] = true;
+            liveVertices++;
+            // Since the last rebuild its set is a dead singleton; otherwise the rebuild recounts
+            if (!stale) deadSets--;
+            return v;
+        }
+        if (vertexSlots == vertexAlive.length) {
+            vertexAlive = Arrays.copyOf(vertexAlive, vertexSlots * 2);
+        }
+        vertexAlive[vertexSlots] = true;
+        liveVertices++;
+        sets.add();
+        return vertexSlots++;
+    }
+
+    /**
+     * Register an edge between two live vertices and return its id.
+     */
+    public int addEdge(int u, int v) {
+        checkVertex(u);
+        checkVertex(v);
+        int e = freeEdges.isEmpty() ? edgeSlots++ : freeEdges.pop();
+        if (e == edgeFrom.length) {
+            edgeFrom = Arrays.copyOf(edgeFrom, e * 2);
+            edgeTo = Arrays.copyOf(edgeTo, e * 2);
+            edgeAlive = Arrays.copyOf(edgeAlive, e * 2);
+        }
+        edgeFrom[e] = u;
+        edgeTo[e] = v;
+        edgeAlive[e] = true;
+        if (!stale) {
+            sets.union(u, v);
+        }
+        return e;
+    }
+
+    public void removeEdge(int e) {
+        if (e < 0 || e >= edgeSlots || !edgeAlive[e]) {
+            throw new IllegalArgumentException("Unknown edge id: " + e);
+        }
+        edgeAlive[e] = false;
+        freeEdges.push(e);
+        stale = true;
+    }
+
+    /**
+     * Remove a vertex. Its incident edges must have been removed first.
+     */
+    public void removeVertex(int v) {
+        checkVertex(v);
+        vertexAlive[v] = false;
+        liveVertices--;
+        freeVertices.push(v);
+        stale = true;
+    }
+
+    public void clear() {
+        sets.reset(0);
+        vertexSlots = 0;
+        liveVertices = 0;
+        edgeSlots = 0;
+        freeVertices.clear();
+        freeEdges.clear();
+        stale = false;
+        deadSets = 0;
+    }
+
+    public int vertexCount() {
+        return liveVertices;
+    }
+
+    /**
+     * True when every live vertex can reach every other one (an empty graph counts as connected).
+     */
+    public boolean isConnected() {
+        return componentCount() <= 1;
+    }
+
+    // Number of connected components among the live vertices
+    public int componentCount() {
+        rebuildIfStale();
+        return sets.count() - deadSets;
+    }
+
+    public boolean connected(int u, int v) {
+        checkVertex(u);
+        checkVertex(v);
+        rebuildIfStale();
+        return sets.connected(u, v);
+    }
+
+    private void rebuildIfStale() {
+        if (!stale) return;
+
+        // Replay the surviving edges into a fresh union-find
+        sets.reset(vertexSlots);
+        for (int e = 0; e < edgeSlots; e++) {
+            if (edgeAlive[e]) {
+                sets.union(edgeFrom[e], edgeTo[e]);
+            }
+        }
+        deadSets = vertexSlots - liveVertices;
+        stale = false;
+    }
+
+    private void checkVertex(int v) {
+        if (v < 0 || v >= vertexSlots || !vertexAlive[v]) {
+            throw new IllegalArgumentException("Unknown vertex id: " + v);
+        }
+    }
+}
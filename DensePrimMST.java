@@ -0,0 +1,129 @@
+/**
+ * Prim's algorithm without a heap, for dense graphs: the keys of the vertices outside the tree
+ * live in a flat double[] and the next vertex is found by a linear scan. That is O(V² + E),
+ * which beats O(E log V) once E grows towards V² (full meshes), and does no heap pushes at all.
+ * <p>
+ * The keys are kept packed: a vertex that joins the tree is swapped with the last key and the
+ * range shrinks, so every scan only reads the vertices still outside (V²/2 key reads in total)
+ * from one contiguous array. It works on the CSR adjacency, so no V×V matrix is needed.
+ */
+public class DensePrimMST implements MstEngine {
+
+    private static final int CHECK_INTERVAL = 256;   // scans between cancellation checks
+
+    @Override
+    public String getName() {
+        return "Dense Prim";
+    }
+
+    @Override
+    public int[] run(Graph graph, int source) {
+        return run(graph, source, null);
+    }
+
+    // Records the same steps as PrimMST when trace is not null, equal weights included:
+    // both take the lower vertex id on ties (see minIndex and IndexedMinHeap)
+    @Override
+    public int[] run(Graph graph, int source, MstTrace trace) {
+        int n = graph.vertexCount();
+        if (source < 0 || source >= n) {
+            throw new IllegalArgumentException("Invalid source node: " + source);
+        }
+
+        long started = Metrics.start();
+        ProgressMonitor monitor = ProgressMonitor.current();
+        int[] mstEdges = new int[n - 1];
+        int mstSize = 0;
+
+        // Vertices outside the tree are remaining[0 .. count-1]; key[i] belongs to remaining[i]
+        int[] remaining = new int[n];
+        int[] position = new int[n];    // index into remaining; >= count once in the tree
+        double[] key = new double[n];
+        int[] bestEdge = new int[n];    // cheapest known edge from each vertex into the tree
+        for (int v = 0; v < n; v++) {
+            remaining[v] = v;
+            position[v] = v;
+            key[v] = Double.POSITIVE_INFINITY;
+            bestEdge[v] = -1;
+        }
+        int count = n;
+        long keysScanned = 0;
+        long relaxed = 0;
+
+        int current = source;
+        count = removeAt(position[source], count, remaining, position, key);
+        if (trace != null) trace.visit(source);
+
+        while (true) {
+            // Only the edges of the new tree vertex can lower a key
+            for (int s = graph.adjStart(current); s < graph.adjEnd(current); s++) {
+                int v = graph.target(s);
+                int i = position[v];
+                if (i >= count) continue;
+                double w = graph.weight(s);
+                int edge = graph.slotEdge(s);
+                if (trace != null) trace.evaluate(edge);
+                if (w < key[i]) {
+                    int previous = bestEdge[v];
+                    key[i] = w;
+                    bestEdge[v] = edge;
+                    relaxed++;
+                    if (trace != null && previous >= 0) trace.discard(previous);
+                } else if (trace != null) {
+                    trace.discard(edge);
+                }
+            }
+            if (count == 0) break;
+
+            if (mstSize % CHECK_INTERVAL == 0) monitor.step(mstSize, n - 1);
+            int best = minIndex(key, remaining, count);
+            keysScanned += count;
+            if (key[best] == Double.POSITIVE_INFINITY) {
+                throw new IllegalArgumentException("Graph is disconnected. MST cannot be run.");
+            }
+
+            current = remaining[best];
+            mstEdges[mstSize++] = bestEdge[current];
+            if (trace != null) {
+                trace.accept(bestEdge[current]);
+                trace.visit(current);
+            }
+            count = removeAt(best, count, remaining, position, key);
+        }
+
+        Metrics.add(Metrics.Counter.EDGES_SCANNED, 2L * graph.edgeCount());
+        Metrics.add(Metrics.Counter.DENSE_KEYS_SCANNED, keysScanned);
+        Metrics.add(Metrics.Counter.DENSE_KEYS_LOWERED, relaxed);
+        Metrics.stop(Metrics.Phase.DENSE_PRIM, started);
+        return mstEdges;
+    }
+
+    // Index of the smallest of key[0 .. count-1]; on ties the lower vertex id wins, as in
+    // IndexedMinHeap, since the swaps leave remaining[] in no particular order
+    private static int minIndex(double[] key, int[] remaining, int count) {
+        int best = 0;
+        double min = key[0];
+        for (int i = 1; i < count; i++) {
+            double k = key[i];
+            if (k < min || (k == min && remaining[i] < remaining[best])) {
+                min = k;
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    // Move remaining[i] into the tree by swapping it with the last vertex outside
+    private static int removeAt(int i, int count, int[] remaining, int[] position, double[] key) {
+        int last = count - 1;
+        int v = remaining[i];
+        int moved = remaining[last];
+        remaining[i] = moved;
+        position[moved] = i;
+        key[i] = key[last];
+        remaining[last] = v;
+        position[v] = last;
+        key[last] = Double.POSITIVE_INFINITY;
+        return last;
+    }
+}
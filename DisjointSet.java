@@ -0,0 +1,95 @@
+import java.util.Arrays;
+
+/**
+ * Union-find over the ids 0..size-1 with path compression and union by rank.
+ * New singleton sets can be appended with {@link #add()}.
+ */
+public class DisjointSet {
+
+    private int[] parent;   // parent[i] == i for set roots
+    private byte[] rank;    // upper bound on tree height, only meaningful for roots
+    private int size = 0;   // number of ids
+    private int count = 0;  // number of disjoint sets
+
+    public DisjointSet(int size) {
+        this.parent = new int[Math.max(size, 1)];
+        this.rank = new byte[Math.max(size, 1)];
+        reset(size);
+    }
+
+    /**
+     * Put every id 0..size-1 back into its own set, reusing the arrays where possible.
+     */
+    public void reset(int size) {
+        if (size > parent.length) {
+            parent = new int[size];
+            rank = new byte[size];
+        }
+        for (int i = 0; i < size; i++) {
+            parent[i] = i;
+        }
+        Arrays.fill(rank, 0, size, (byte) 0);
+        this.size = size;
+        this.count = size;
+    }
+
+    /**
+     * Append a new singleton set and return its id.
+     */
+    public int add() {
+        if (size == parent.length) {
+            parent = Arrays.copyOf(parent, size * 2);
+            rank = Arrays.copyOf(rank, size * 2);
+        }
+        parent[size] = size;
+        rank[size] = 0;
+        count++;
+        return size++;
+    }
+
+    public int size() { return size; }
+
+    // Number of disjoint sets
+    public int count() { return count; }
+
+    /**
+     * Returns the root of the set containing x, compressing the path on the way.
+     */
+    public int find(int x) {
+        int root = x;
+        while (parent[root] != root) {
+            root = parent[root];
+        }
+        while (parent[x] != root) {
+            int next = parent[x];
+            parent[x] = root;
+            x = next;
+        }
+        return root;
+    }
+
+    public boolean connected(int a, int b) {
+        return find(a) == find(b);
+    }
+
+    /**
+     * Merge the sets containing a and b.
+     * @return false if they were already in the same set
+     */
+    public boolean union(int a, int b) {
+        int ra = find(a);
+        int rb = find(b);
+        if (ra == rb) return false;
+
+        if (rank[ra] < rank[rb]) {
+            parent[ra] = rb;
+        } else if (rank[ra] > rank[rb]) {
+            parent[rb] = ra;
+        } else {
+            parent[rb] = ra;
+            rank[ra]++;
+        }
+        count--;
+        return true;
+    }
+}
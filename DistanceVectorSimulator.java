@@ -0,0 +1,376 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bellman-Ford distance-vector routing, simulated with one virtual thread per router.
+ * <p>
+ * Routers work in synchronous rounds. In each round, every router with changed entries sends
+ * one coalesced update to each neighbour. A router drains its mailbox and recomputes the
+ * affected destinations. Mailboxes are bounded by the router's degree, because each
+ * neighbour sends at most one update per round. The simulation has converged when a round
+ * changes nothing.
+ * <p>
+ * A cut link ({@link #cutEdge}) can make routers count to infinity. Costs at or above
+ * {@code infinity} count as unreachable, which ends the count. Poisoned reverse (advertising
+ * infinity back to the neighbour a route goes through) removes the two-router loops.
+ * Cuts can also be queued from any thread with {@link #cutEdgeLater}, e.g. while a
+ * {@link #converge()} is still running, and are applied when the next one starts.
+ * <p>
+ * Vectors cover a chosen set of destinations. Memory is O((V + E) × destinations), so large
+ * networks should be simulated towards a sample of destinations rather than all of them.
+ */
+public class DistanceVectorSimulator {
+
+    public static final int DEFAULT_MAX_ROUNDS = 100_000;
+
+    private static final int PHASER_GROUP = 4096;   // routers per child phaser (a phaser holds < 65536)
+
+    private final Graph graph;
+    private final int[] destinations;
+    private final int k;                  // number of destinations
+    private final double infinity;
+    private final boolean poisonedReverse;
+
+    private final int[] twin;             // slot -> slot of the same edge at the other router, -1 for self-loops
+    private final boolean[] linkUp;       // by edge
+    private final double[] heard;         // slot * k + j -> cost last advertised over that slot
+    private final double[] dist;          // router * k + j -> current cost
+    private final int[] via;              // router * k + j -> slot of the next hop, -1 if none
+    private final boolean[] dirty;        // router * k + j -> changed since last advertised
+    private final List<ArrayBlockingQueue<Update>> mailboxes;
+    private final Queue<Integer> pendingCuts = new ConcurrentLinkedQueue<>();   // edges for cutEdgeLater
+
+    // Per-run state shared with the router threads; published through the phaser
+    private volatile boolean stop;
+    private boolean cancelled;
+    private int rounds;
+    private int pending;                  // routers with changes still to send
+    private final LongAdder messages = new LongAdder();
+    private final LongAdder entries = new LongAdder();
+    private final LongAdder dirtyRouters = new LongAdder();
+
+    // One coalesced vector update, addressed by the receiver's slot for the link
+    private record Update(int slot, int[] destinations, double[] costs) { }
+
+    /**
+     * Outcome of one {@link #converge()} call.
+     */
+    public record Result(int rounds, long messages, long entries, long elapsedNanos, boolean converged) {
+        public double elapsedMillis() {
+            return elapsedNanos / 1e6;
+        }
+    }
+
+    /**
+     * Simulate towards every router, with poisoned reverse.
+     */
+    public DistanceVectorSimulator(Graph graph) {
+        this(graph, allVertices(graph.vertexCount()), defaultInfinity(graph), true);
+    }
+
+    public DistanceVectorSimulator(Graph graph, int[] destinations, double infinity, boolean poisonedReverse) {
+        if (!(infinity > 0)) {
+            throw new IllegalArgumentException("Infinity must be positive");
+        }
+        int n = graph.vertexCount();
+        for (int d : destinations) {
+            if (d < 0 || d >= n) {
+                throw new IllegalArgumentException("Invalid destination: " + d);
+            }
+        }
+        for (int e = 0; e < graph.edgeCount(); e++) {
+            if (graph.edgeWeight(e) < 0) {
+                throw new IllegalArgumentException("Distance-vector routing needs non-negative weights");
+            }
+        }
+
+        int slots = 2 * graph.edgeCount();
+        if ((long) Math.max(n, slots) * destinations.length > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many destinations for " + n + " routers: " + destinations.length);
+        }
+
+        this.graph = graph;
+        this.destinations = destinations.clone();
+        this.k = destinations.length;
+        this.infinity = infinity;
+        this.poisonedReverse = poisonedReverse;
+
+        this.twin = twinSlots(graph, slots);
+        this.linkUp = new boolean[graph.edgeCount()];
+        Arrays.fill(linkUp, true);
+        this.heard = new double[slots * k];
+        Arrays.fill(heard, Double.POSITIVE_INFINITY);
+        this.dist = new double[n * k];
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        this.via = new int[n * k];
+        Arrays.fill(via, -1);
+        this.dirty = new boolean[n * k];
+
+        this.mailboxes = new ArrayList<>(n);
+        for (int r = 0; r < n; r++) {
+            mailboxes.add(new ArrayBlockingQueue<>(Math.max(graph.degree(r), 1)));
+        }
+        // Every destination starts out knowing only itself
+        for (int j = 0; j < k; j++) {
+            dist[destinations[j] * k + j] = 0.0;
+            dirty[destinations[j] * k + j] = true;
+        }
+    }
+
+    public Graph getGraph() {
+        return graph;
+    }
+
+    public int destinationCount() {
+        return k;
+    }
+
+    // Router the j-th destination refers to
+    public int destination(int j) {
+        return destinations[j];
+    }
+
+    // Current cost from router to the j-th destination (+infinity if unreachable)
+    public double distance(int router, int j) {
+        return dist[router * k + j];
+    }
+
+    // Neighbour router forwards to for the j-th destination: router itself at the destination, -1 if unreachable
+    public int nextHop(int router, int j) {
+        if (destinations[j] == router) return router;
+        int slot = via[router * k + j];
+        return slot < 0 ? -1 : graph.target(slot);
+    }
+
+    /**
+     * Take a link down. Both ends drop the routes through it right away; the rest of the
+     * network learns about it on the next {@link #converge()}.
+     */
+    public void cutEdge(int edge) {
+        if (edge < 0 || edge >= linkUp.length) {
+            throw new IllegalArgumentException("Invalid edge: " + edge);
+        }
+        if (!linkUp[edge]) return;
+        linkUp[edge] = false;
+        for (int r : new int[] { graph.edgeFrom(edge), graph.edgeTo(edge) }) {
+            for (int j = 0; j < k; j++) {
+                recompute(r, j);
+            }
+        }
+    }
+
+    /**
+     * Queue a link cut for the start of the next {@link #converge()}. Unlike {@link #cutEdge},
+     * this is safe to call from any thread at any time.
+     */
+    public void cutEdgeLater(int edge) {
+        if (edge < 0 || edge >= linkUp.length) {
+            throw new IllegalArgumentException("Invalid edge: " + edge);
+        }
+        pendingCuts.add(edge);
+    }
+
+    public Result converge() {
+        return converge(DEFAULT_MAX_ROUNDS);
+    }
+
+    /**
+     * Run rounds until nothing changes or maxRounds is reached.
+     * A cancelled run (see {@link ProgressMonitor}) stops at the end of a round, and the
+     * next call carries on from there.
+     * @throws java.util.concurrent.CancellationException if the run was cancelled
+     */
+    public Result converge(int maxRounds) {
+        Integer cut;
+        while ((cut = pendingCuts.poll()) != null) {
+            cutEdge(cut);
+        }
+        int n = graph.vertexCount();
+        long start = System.nanoTime();
+        ProgressMonitor monitor = ProgressMonitor.current();
+        long started = Metrics.start();
+        cancelled = false;
+        messages.reset();
+        entries.reset();
+        dirtyRouters.reset();
+        rounds = 0;
+        stop = false;
+
+        pending = 0;
+        for (int r = 0; r < n; r++) {
+            if (hasDirty(r)) pending++;
+        }
+
+        // Two barriers per round: "start" (phase 2i) and "all updates sent" (phase 2i + 1).
+        // Round bookkeeping runs in onAdvance, before any router is released from "start".
+        Phaser root = new Phaser(1) {
+            @Override
+            protected boolean onAdvance(int phase, int registeredParties) {
+                if (phase % 2 == 0) {
+                    if (phase > 0) {
+                        rounds++;
+                        pending = dirtyRouters.intValue();
+                        dirtyRouters.reset();
+                    }
+                    cancelled = monitor.isCancelled();
+                    stop = pending == 0 || rounds >= maxRounds || cancelled;
+                }
+                return false;
+            }
+        };
+        try (ExecutorService routers = Executors.newVirtualThreadPerTaskExecutor()) {
+            // Routers sit on child phasers below the root; the caller stays registered
+            // until all of them are, so no phase can advance early
+            for (int lo = 0; lo < n; lo += PHASER_GROUP) {
+                int hi = Math.min(n, lo + PHASER_GROUP);
+                Phaser group = new Phaser(root, hi - lo);
+                for (int r = lo; r < hi; r++) {
+                    int router = r;
+                    routers.execute(() -> runRouter(router, group));
+                }
+            }
+            root.arriveAndDeregister();
+        }
+        Metrics.add(Metrics.Counter.DV_ROUNDS, rounds);
+        Metrics.add(Metrics.Counter.DV_MESSAGES, messages.sum());
+        Metrics.stop(Metrics.Phase.DISTANCE_VECTOR, started);
+        if (cancelled) {
+            throw new CancellationException("Distance-vector simulation cancelled after " + rounds + " rounds");
+        }
+        return new Result(rounds, messages.sum(), entries.sum(), System.nanoTime() - start, pending == 0);
+    }
+
+    private void runRouter(int r, Phaser phaser) {
+        try {
+            while (true) {
+                phaser.arriveAndAwaitAdvance();   // start: applies the previous round's updates
+                if (stop) break;
+                send(r);
+                phaser.arriveAndAwaitAdvance();   // all updates sent
+                receive(r);
+            }
+        } finally {
+            // Also releases the others if this router failed mid-round
+            phaser.arriveAndDeregister();
+        }
+    }
+
+    // Advertise the changed entries to every neighbour on a live link
+    private void send(int r) {
+        int count = 0;
+        for (int j = 0; j < k; j++) {
+            if (dirty[r * k + j]) count++;
+        }
+        if (count == 0) return;
+
+        int[] changed = new int[count];
+        for (int j = 0, i = 0; j < k; j++) {
+            if (dirty[r * k + j]) {
+                changed[i++] = j;
+                dirty[r * k + j] = false;
+            }
+        }
+        for (int s = graph.adjStart(r); s < graph.adjEnd(r); s++) {
+            if (twin[s] < 0 || !linkUp[graph.slotEdge(s)]) continue;
+            double[] costs = new double[count];
+            for (int i = 0; i < count; i++) {
+                int j = changed[i];
+                costs[i] = poisonedReverse && via[r * k + j] == s ? Double.POSITIVE_INFINITY : dist[r * k + j];
+            }
+            // Never blocks: each neighbour sends at most one update per round
+            mailboxes.get(graph.target(s)).add(new Update(twin[s], changed, costs));
+            messages.increment();
+            entries.add(count);
+        }
+    }
+
+    private void receive(int r) {
+        ArrayBlockingQueue<Update> mailbox = mailboxes.get(r);
+        for (Update update = mailbox.poll(); update != null; update = mailbox.poll()) {
+            for (int i = 0; i < update.destinations.length; i++) {
+                heard[update.slot * k + update.destinations[i]] = update.costs[i];
+            }
+            for (int j : update.destinations) {
+                recompute(r, j);
+            }
+        }
+        if (hasDirty(r)) dirtyRouters.increment();
+    }
+
+    // Bellman-Ford step: best neighbour for destination j over the live links
+    private void recompute(int r, int j) {
+        if (destinations[j] == r) return;
+        double best = Double.POSITIVE_INFINITY;
+        int bestSlot = -1;
+        for (int s = graph.adjStart(r); s < graph.adjEnd(r); s++) {
+            if (twin[s] < 0 || !linkUp[graph.slotEdge(s)]) continue;
+            double cost = graph.weight(s) + heard[s * k + j];
+            if (cost < best) {
+                best = cost;
+                bestSlot = s;
+            }
+        }
+        if (best >= infinity) {
+            best = Double.POSITIVE_INFINITY;
+            bestSlot = -1;
+        }
+        int i = r * k + j;
+        if (best != dist[i] || bestSlot != via[i]) {
+            dist[i] = best;
+            via[i] = bestSlot;
+            dirty[i] = true;
+        }
+    }
+
+    private boolean hasDirty(int r) {
+        for (int j = 0; j < k; j++) {
+            if (dirty[r * k + j]) return true;
+        }
+        return false;
+    }
+
+    // Pair up the two adjacency slots of every edge
+    private static int[] twinSlots(Graph graph, int slots) {
+        int[] firstSlot = new int[graph.edgeCount()];
+        Arrays.fill(firstSlot, -1);
+        int[] twin = new int[slots];
+        Arrays.fill(twin, -1);
+        for (int v = 0; v < graph.vertexCount(); v++) {
+            for (int s = graph.adjStart(v); s < graph.adjEnd(v); s++) {
+                int e = graph.slotEdge(s);
+                if (graph.edgeFrom(e) == graph.edgeTo(e)) continue;   // self-loops carry no routes
+                if (firstSlot[e] < 0) {
+                    firstSlot[e] = s;
+                } else {
+                    twin[s] = firstSlot[e];
+                    twin[firstSlot[e]] = s;
+                }
+            }
+        }
+        return twin;
+    }
+
+    private static int[] allVertices(int n) {
+        int[] all = new int[n];
+        for (int v = 0; v < n; v++) all[v] = v;
+        return all;
+    }
+
+    // Longer than any simple path: (V - 1) times the heaviest edge
+    private static double defaultInfinity(Graph graph) {
+        double max = 0;
+        for (int e = 0; e < graph.edgeCount(); e++) {
+            max = Math.max(max, graph.edgeWeight(e));
+        }
+        return Math.max(max, 1.0) * Math.max(graph.vertexCount(), 2);
+    }
+}
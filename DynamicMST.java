@@ -0,0 +1,487 @@
+import java.util.Arrays;
+
+/**
+ * Keeps a minimum spanning forest up to date while edges are inserted, deleted and
+ * reweighted one at a time, instead of recomputing it from scratch.
+ * <ul>
+ *   <li>Insert: if the endpoints are in different trees the edge is linked in. Otherwise, by the
+ *       cycle property, it replaces the heaviest edge on the tree path between them when it is
+ *       lighter. The path maximum comes from a {@link LinkCutTree}.</li>
+ *   <li>Delete: a non-tree edge is just dropped. A tree edge is cut and the lightest non-tree
+ *       edge that reconnects the two halves takes its place, found with the levels of Holm, de
+ *       Lichtenberg and Thorup's decremental minimum spanning forest (below).</li>
+ *   <li>Reweight: a tree edge that gets lighter keeps its place; any other change is handled
+ *       like a delete followed by an insert.</li>
+ * </ul>
+ * Every edge has a level, at most log2 V. The tree edges of level i and up form a forest
+ * whose trees have at most V / 2^i vertices, kept as an {@link EulerTourForest}, and a non-tree
+ * edge's endpoints are connected at its level. To replace a tree edge, levels are searched from
+ * the edge's own down to 0: the smaller half's tree edges move up a level, then its non-tree
+ * edges of that level are tried lightest first, moving up each one that stays inside the half,
+ * until one crosses. The search finds the lightest crossing edge because the heaviest edge on
+ * any cycle is also on its lowest level. A new non-tree edge starts at level 0, so to keep that
+ * true every heavier non-tree edge of its tree that has moved up drops back to level 0.
+ * <p>
+ * Moving an edge between levels costs O(log V), and an edge moves up at most log2 V times before
+ * an insert drops it again. Charging those moves to the insert that placed or dropped the edge,
+ * a delete is O(log^2 V) amortized and an insert is O(log V) plus O(log^2 V) per edge it drops.
+ * Edges are ordered by (weight, edge id), matching the tie-breaking of the other engines.
+ * <p>
+ * Removed vertex and edge ids are reused like {@link ConnectivityTracker}'s, together with their
+ * link-cut nodes, so the same edits give both structures the same ids.
+ */
+public class DynamicMST {
+
+    private final LinkCutTree tree = new LinkCutTree();
+
+    // Vertex slots -> link-cut node
+    private int[] vertexNode = new int[16];
+    private boolean[] vertexAlive = new boolean[16];
+    private int vertexSlots = 0;
+    private int liveVertices = 0;
+    private final IdPool freeVertices = new IdPool();
+
+    // Edge slots
+    private int[] edgeFrom = new int[16];
+    private int[] edgeTo = new int[16];
+    private double[] edgeWeight = new double[16];
+    private int[] edgeNode = new int[16];     // link-cut node standing for the edge
+    private boolean[] edgeAlive = new boolean[16];
+    private boolean[] inTree = new boolean[16];
+    private int[] edgeLevel = new int[16];
+    private int edgeSlots = 0;
+    private final IdPool freeEdges = new IdPool();
+
+    // Level i: the forest of tree edges of level >= i (the edges of level exactly i are marked),
+    // and each vertex's non-tree edges of level i in a min-heap whose top is the vertex's low key
+    private EulerTourForest[] forests = new EulerTourForest[0];
+    private int[][][] lowHeap = new int[0][][];
+    private int[][] lowSize = new int[0][];
+
+    // Each vertex's non-tree edges above level 0 in a max-heap; the top is its high key at level 0
+    private int[][] highHeap = new int[16][];
+    private int[] highSize = new int[16];
+
+    // Heap positions: 4 * e + (0 low, 2 high) + (0 at edgeFrom, 1 at edgeTo)
+    private int[] heapIndex = new int[64];
+
+    private int treeEdgeCount = 0;
+    private double totalWeight = 0.0;
+
+    // Link-cut node -> edge id (-1 for vertex nodes)
+    private int[] nodeEdge = new int[16];
+
+    private static final int LOW = 0;
+    private static final int HIGH = 2;
+
+    /**
+     * Register a new isolated vertex and return its id.
+     */
+    public int addVertex() {
+        if (!freeVertices.isEmpty()) {
+            // Its nodes were left isolated when its last edge was removed
+            int v = freeVertices.pop();
+            vertexAlive[v] = true;
+            liveVertices++;
+            return v;
+        }
+        if (vertexSlots == vertexNode.length) {
+            vertexNode = Arrays.copyOf(vertexNode, vertexSlots * 2);
+            vertexAlive = Arrays.copyOf(vertexAlive, vertexSlots * 2);
+            highHeap = Arrays.copyOf(highHeap, vertexSlots * 2);
+            highSize = Arrays.copyOf(highSize, vertexSlots * 2);
+            for (int i = 0; i < forests.length; i++) {
+                lowHeap[i] = Arrays.copyOf(lowHeap[i], vertexSlots * 2);
+                lowSize[i] = Arrays.copyOf(lowSize[i], vertexSlots * 2);
+            }
+        }
+        vertexNode[vertexSlots] = newNode(Double.NEGATIVE_INFINITY, -1);
+        vertexAlive[vertexSlots] = true;
+        for (EulerTourForest forest : forests) {
+            forest.addVertex(vertexSlots);
+        }
+        liveVertices++;
+        return vertexSlots++;
+    }
+
+    /**
+     * Remove a vertex. Its incident edges must have been removed first.
+     */
+    public void removeVertex(int v) {
+        checkVertex(v);
+        vertexAlive[v] = false;
+        liveVertices--;
+        freeVertices.push(v);
+    }
+
+    /**
+     * Insert an edge and return its id.
+     */
+    public int addEdge(int u, int v, double weight) {
+        checkVertex(u);
+        checkVertex(v);
+        int e;
+        if (!freeEdges.isEmpty()) {
+            // A reused slot keeps its node, so node ties still follow edge ids
+            e = freeEdges.pop();
+        } else {
+            if (edgeSlots == edgeFrom.length) {
+                int cap = edgeSlots * 2;
+                edgeFrom = Arrays.copyOf(edgeFrom, cap);
+                edgeTo = Arrays.copyOf(edgeTo, cap);
+                edgeWeight = Arrays.copyOf(edgeWeight, cap);
+                edgeNode = Arrays.copyOf(edgeNode, cap);
+                edgeAlive = Arrays.copyOf(edgeAlive, cap);
+                inTree = Arrays.copyOf(inTree, cap);
+                edgeLevel = Arrays.copyOf(edgeLevel, cap);
+                heapIndex = Arrays.copyOf(heapIndex, cap * 4);
+            }
+            e = edgeSlots++;
+            edgeNode[e] = newNode(weight, e);   // allocated in edge id order, so node ties follow edge ids
+        }
+        edgeFrom[e] = u;
+        edgeTo[e] = v;
+        edgeWeight[e] = weight;
+        edgeAlive[e] = true;
+        inTree[e] = false;
+        insert(e);
+        return e;
+    }
+
+    /**
+     * Delete an edge. Deleting a tree edge searches for a replacement.
+     */
+    public void removeEdge(int e) {
+        checkEdge(e);
+        edgeAlive[e] = false;
+        if (inTree[e]) {
+            cutTreeEdge(e);
+            reconnect(e);
+        } else if (edgeFrom[e] != edgeTo[e]) {
+            removeNonTree(e);
+        }
+        freeEdges.push(e);
+    }
+
+    /**
+     * Change the weight of an edge, keeping the forest minimal.
+     */
+    public void updateWeight(int e, double weight) {
+        checkEdge(e);
+        if (inTree[e]) {
+            if (weight <= edgeWeight[e]) {
+                // A tree edge that gets lighter stays in the tree
+                totalWeight += weight - edgeWeight[e];
+                edgeWeight[e] = weight;
+                tree.setValue(edgeNode[e], weight);
+                return;
+            }
+            cutTreeEdge(e);
+            reconnect(e);
+        } else if (edgeFrom[e] != edgeTo[e]) {
+            removeNonTree(e);
+        }
+        edgeWeight[e] = weight;
+        insert(e);   // may pick the same place again
+    }
+
+    public void clear() {
+        tree.clear();
+        vertexSlots = 0;
+        liveVertices = 0;
+        edgeSlots = 0;
+        freeVertices.clear();
+        freeEdges.clear();
+        forests = new EulerTourForest[0];
+        lowHeap = new int[0][][];
+        lowSize = new int[0][];
+        Arrays.fill(highSize, 0);
+        treeEdgeCount = 0;
+        totalWeight = 0.0;
+    }
+
+    public boolean isTreeEdge(int e) {
+        checkEdge(e);
+        return inTree[e];
+    }
+
+    public int treeEdgeCount() {
+        return treeEdgeCount;
+    }
+
+    // Total weight of the spanning forest
+    public double totalWeight() {
+        return totalWeight;
+    }
+
+    // Number of trees in the forest (connected components among the live vertices)
+    public int componentCount() {
+        return liveVertices - treeEdgeCount;
+    }
+
+    /**
+     * Ids of the current tree edges, in edge id order.
+     */
+    public int[] treeEdges() {
+        int[] result = new int[treeEdgeCount];
+        int k = 0;
+        for (int e = 0; e < edgeSlots; e++) {
+            if (edgeAlive[e] && inTree[e]) result[k++] = e;
+        }
+        return result;
+    }
+
+    public boolean connected(int u, int v) {
+        checkVertex(u);
+        checkVertex(v);
+        return tree.connected(vertexNode[u], vertexNode[v]);
+    }
+
+    // ---- internals ----
+
+    // Place a live edge that is currently out of the tree
+    private void insert(int e) {
+        int nu = vertexNode[edgeFrom[e]];
+        int nv = vertexNode[edgeTo[e]];
+        if (nu == nv) {
+            return;   // a self-loop never joins the tree
+        }
+        if (!tree.connected(nu, nv)) {
+            linkTreeEdge(e, 0);
+            return;
+        }
+
+        // Cycle property: the heaviest edge on the cycle is not in the MST
+        int heaviest = nodeEdge[tree.pathMax(nu, nv)];
+        dropHeavier(e);
+        if (lighter(e, heaviest)) {
+            // No edge across the heaviest one is lighter than e, and the heavier ones are all
+            // on level 0 now, so linking e there keeps every level's invariant
+            cutTreeEdge(heaviest);
+            linkTreeEdge(e, 0);
+            placeNonTree(heaviest, 0);
+        } else {
+            placeNonTree(e, 0);
+        }
+    }
+
+    // After tree edge e was cut, link the lightest non-tree edge across the gap
+    private void reconnect(int e) {
+        int a = edgeFrom[e];
+        int b = edgeTo[e];
+        for (int i = edgeLevel[e]; i >= 0; i--) {
+            EulerTourForest forest = forests[i];
+            int small = forest.size(a) <= forest.size(b) ? a : b;
+
+            // The smaller half has at most V / 2^(i+1) vertices, so it can move up a level
+            for (int t = forest.markedEdge(small); t >= 0; t = forest.markedEdge(small)) {
+                forest.setMark(t, false);
+                edgeLevel[t] = i + 1;
+                levelForest(i + 1).link(t, edgeFrom[t], edgeTo[t]);
+                forests[i + 1].setMark(t, true);
+            }
+
+            // Its level i non-tree edges, lightest first, either stay inside or cross over
+            for (int x = forest.lowVertex(small); x >= 0; x = forest.lowVertex(small)) {
+                int g = lowHeap[i][x][0];
+                removeNonTree(g);
+                if (forest.connected(other(g, x), small)) {
+                    placeNonTree(g, i + 1);
+                } else {
+                    linkTreeEdge(g, i);
+                    return;
+                }
+            }
+        }
+    }
+
+    // A new edge on level 0 would be on a cycle with heavier edges above it, so drop every
+    // heavier non-tree edge of its tree that has moved up back to level 0
+    private void dropHeavier(int e) {
+        int u = edgeFrom[e];
+        for (int x = forests[0].highVertex(u); x >= 0; x = forests[0].highVertex(u)) {
+            int h = highHeap[x][0];
+            if (lighter(h, e)) break;
+            removeNonTree(h);
+            placeNonTree(h, 0);
+        }
+    }
+
+    private void placeNonTree(int e, int level) {
+        int u = edgeFrom[e];
+        int v = edgeTo[e];
+        edgeLevel[e] = level;
+        levelForest(level);
+        heapPush(LOW, level, u, e);
+        heapPush(LOW, level, v, e);
+        if (level > 0) {
+            heapPush(HIGH, 0, u, e);
+            heapPush(HIGH, 0, v, e);
+        }
+    }
+
+    private void removeNonTree(int e) {
+        int u = edgeFrom[e];
+        int v = edgeTo[e];
+        int level = edgeLevel[e];
+        heapRemove(LOW, level, u, e);
+        heapRemove(LOW, level, v, e);
+        if (level > 0) {
+            heapRemove(HIGH, 0, u, e);
+            heapRemove(HIGH, 0, v, e);
+        }
+    }
+
+    private int other(int e, int x) {
+        return edgeFrom[e] == x ? edgeTo[e] : edgeFrom[e];
+    }
+
+    private void linkTreeEdge(int e, int level) {
+        int u = edgeFrom[e];
+        int v = edgeTo[e];
+        edgeLevel[e] = level;
+        for (int i = 0; i <= level; i++) {
+            levelForest(i).link(e, u, v);
+        }
+        forests[level].setMark(e, true);
+        tree.setValue(edgeNode[e], edgeWeight[e]);
+        tree.link(edgeNode[e], vertexNode[u]);
+        tree.link(edgeNode[e], vertexNode[v]);
+        inTree[e] = true;
+        treeEdgeCount++;
+        totalWeight += edgeWeight[e];
+    }
+
+    private void cutTreeEdge(int e) {
+        for (int i = 0; i <= edgeLevel[e]; i++) {
+            forests[i].cut(e);
+        }
+        tree.cut(edgeNode[e], vertexNode[edgeFrom[e]]);
+        tree.cut(edgeNode[e], vertexNode[edgeTo[e]]);
+        inTree[e] = false;
+        treeEdgeCount--;
+        totalWeight -= edgeWeight[e];
+    }
+
+    // The forest of level i, created with every vertex slot on first use
+    private EulerTourForest levelForest(int i) {
+        if (i == forests.length) {
+            forests = Arrays.copyOf(forests, i + 1);
+            forests[i] = new EulerTourForest();
+            if (vertexSlots > 0) forests[i].addVertex(vertexSlots - 1);
+            lowHeap = Arrays.copyOf(lowHeap, i + 1);
+            lowHeap[i] = new int[vertexNode.length][];
+            lowSize = Arrays.copyOf(lowSize, i + 1);
+            lowSize[i] = new int[vertexNode.length];
+        }
+        return forests[i];
+    }
+
+    // ---- per-vertex heaps of non-tree edges ----
+
+    private void heapPush(int kind, int level, int x, int e) {
+        int[][] heaps = kind == LOW ? lowHeap[level] : highHeap;
+        int[] sizes = kind == LOW ? lowSize[level] : highSize;
+        if (heaps[x] == null) {
+            heaps[x] = new int[4];
+        } else if (sizes[x] == heaps[x].length) {
+            heaps[x] = Arrays.copyOf(heaps[x], sizes[x] * 2);
+        }
+        int i = sizes[x]++;
+        heaps[x][i] = e;
+        heapIndex[slot(kind, e, x)] = i;
+        siftUp(kind, heaps[x], x, i);
+        refreshKey(kind, level, x);
+    }
+
+    private void heapRemove(int kind, int level, int x, int e) {
+        int[][] heaps = kind == LOW ? lowHeap[level] : highHeap;
+        int[] sizes = kind == LOW ? lowSize[level] : highSize;
+        int[] heap = heaps[x];
+        int i = heapIndex[slot(kind, e, x)];
+        int last = heap[--sizes[x]];
+        if (i < sizes[x]) {
+            heap[i] = last;
+            heapIndex[slot(kind, last, x)] = i;
+            siftDown(kind, heap, sizes[x], x, i);
+            siftUp(kind, heap, x, heapIndex[slot(kind, last, x)]);
+        }
+        refreshKey(kind, level, x);
+    }
+
+    // The top of x's heap becomes its key in the level's forest (high keys live on level 0)
+    private void refreshKey(int kind, int level, int x) {
+        if (kind == LOW) {
+            int top = lowSize[level][x] > 0 ? lowHeap[level][x][0] : -1;
+            forests[level].setLow(x, top >= 0 ? edgeWeight[top] : 0.0, top);
+        } else {
+            int top = highSize[x] > 0 ? highHeap[x][0] : -1;
+            forests[0].setHigh(x, top >= 0 ? edgeWeight[top] : 0.0, top);
+        }
+    }
+
+    private void siftUp(int kind, int[] heap, int x, int i) {
+        while (i > 0) {
+            int p = (i - 1) / 2;
+            if (!above(kind, heap[i], heap[p])) break;
+            swap(kind, heap, x, i, p);
+            i = p;
+        }
+    }
+
+    private void siftDown(int kind, int[] heap, int size, int x, int i) {
+        while (true) {
+            int best = i;
+            int l = 2 * i + 1;
+            int r = l + 1;
+            if (l < size && above(kind, heap[l], heap[best])) best = l;
+            if (r < size && above(kind, heap[r], heap[best])) best = r;
+            if (best == i) return;
+            swap(kind, heap, x, i, best);
+            i = best;
+        }
+    }
+
+    private void swap(int kind, int[] heap, int x, int i, int j) {
+        int a = heap[i];
+        heap[i] = heap[j];
+        heap[j] = a;
+        heapIndex[slot(kind, heap[i], x)] = i;
+        heapIndex[slot(kind, heap[j], x)] = j;
+    }
+
+    // Low heaps keep the lightest edge on top, high heaps the heaviest
+    private boolean above(int kind, int a, int b) {
+        return kind == LOW ? lighter(a, b) : lighter(b, a);
+    }
+
+    private int slot(int kind, int e, int x) {
+        return 4 * e + kind + (edgeFrom[e] == x ? 0 : 1);
+    }
+
+    private int newNode(double value, int edge) {
+        int node = tree.addNode(value);
+        if (node == nodeEdge.length) {
+            nodeEdge = Arrays.copyOf(nodeEdge, node * 2);
+        }
+        nodeEdge[node] = edge;
+        return node;
+    }
+
+    // Total order on edges: by weight, then by edge id
+    private boolean lighter(int a, int b) {
+        return edgeWeight[a] < edgeWeight[b] || (edgeWeight[a] == edgeWeight[b] && a < b);
+    }
+
+    private void checkVertex(int v) {
+        if (v < 0 || v >= vertexSlots || !vertexAlive[v]) {
+            throw new IllegalArgumentException("Unknown vertex id: " + v);
+        }
+    }
+
+    private void checkEdge(int e) {
+        if (e < 0 || e >= edgeSlots || !edgeAlive[e]) {
+            throw new IllegalArgumentException("Unknown edge id: " + e);
+        }
+    }
+}
@@ -0,0 +1,351 @@
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Streams text edge lists into the binary {@link GraphFile} format, one line at a time,
+ * so the text is never held in memory. Supported inputs:
+ * <ul>
+ *   <li>CSV: {@code u,v,weight} per line with 0-based integer vertex ids. Blank lines,
+ *       {@code #} comments and a non-numeric header line are skipped.</li>
+ *   <li>DIMACS: {@code c} comments, a {@code p <kind> <n> <m>} problem line, then arcs
+ *       {@code a u v w} or edges {@code e u v [w]} with 1-based ids. A missing weight is 1.</li>
+ * </ul>
+ */
+public class EdgeListImporter {
+
+    public enum Format { CSV, DIMACS }
+
+    /**
+     * Where parsed edges go: a {@link GraphFile.Writer}, or arrays in memory (see {@link #parse}).
+     */
+    public interface EdgeSink {
+        void addEdge(int u, int v, double weight) throws IOException;
+
+        // Declare the vertex count, e.g. when there are isolated vertices with high ids
+        void setVertexCount(long count);
+    }
+
+    /**
+     * Convert a text edge list to a graph file, choosing the format from the file extension
+     * (.csv is CSV, .gr/.dimacs/.col are DIMACS, anything else is sniffed from the first line).
+     * @return number of edges written
+     */
+    public static long convert(Path input, Path output) throws IOException {
+        return convert(input, output, detectFormat(input));
+    }
+
+    public static long convert(Path input, Path output, Format format) throws IOException {
+        try (InputStream in = Files.newInputStream(input);
+             GraphFile.Writer writer = new GraphFile.Writer(output)) {
+            if (format == Format.CSV) {
+                importCsv(in, writer);
+            } else {
+                importDimacs(in, writer);
+            }
+            return writer.getEdgeCount();
+        }
+    }
+
+    public static Format detectFormat(Path input) throws IOException {
+        String name = input.getFileName().toString().toLowerCase();
+        if (name.endsWith(".csv")) return Format.CSV;
+        if (name.endsWith(".gr") || name.endsWith(".dimacs") || name.endsWith(".col")) return Format.DIMACS;
+
+        try (InputStream in = Files.newInputStream(input)) {
+            return sniffFormat(new LineReader(in));
+        }
+    }
+
+    // DIMACS files start with a 'c' or 'p' line
+    private static Format sniffFormat(LineReader reader) throws IOException {
+        while (reader.next()) {
+            if (reader.tokenCount() == 0) continue;
+            String first = reader.text(0);
+            return first.equals("c") || first.equals("p") ? Format.DIMACS : Format.CSV;
+        }
+        return Format.CSV;
+    }
+
+    /**
+     * Parse a text edge list held in memory straight into a {@link Graph}, sniffing the format,
+     * e.g. for a request body. No temporary file is involved. A vertex id or DIMACS vertex
+     * count above maxVertices is rejected before the vertex arrays are allocated.
+     */
+    public static Graph parse(byte[] text, int maxVertices) throws IOException {
+        // Small bodies get a chunk buffer of their own size rather than the 64 KiB default
+        int chunkSize = Math.max(1, Math.min(text.length, LineReader.CHUNK_SIZE));
+        Format format = sniffFormat(new LineReader(new ByteArrayInputStream(text), chunkSize));
+        LineReader reader = new LineReader(new ByteArrayInputStream(text), chunkSize);
+        EdgeArrays edges = new EdgeArrays(maxVertices);
+        if (format == Format.CSV) {
+            importCsv(reader, edges);
+        } else {
+            importDimacs(reader, edges);
+        }
+        return edges.toGraph();
+    }
+
+    public static void importCsv(InputStream in, EdgeSink writer) throws IOException {
+        importCsv(new LineReader(in), writer);
+    }
+
+    public static void importDimacs(InputStream in, EdgeSink writer) throws IOException {
+        importDimacs(new LineReader(in), writer);
+    }
+
+    private static void importCsv(LineReader reader, EdgeSink writer) throws IOException {
+        boolean firstRecord = true;
+        while (reader.next()) {
+            if (reader.tokenCount() == 0 || reader.startsWith('#')) continue;
+            if (firstRecord && !reader.isNumber(0)) {
+                firstRecord = false;   // header line such as "source,target,weight"
+                continue;
+            }
+            firstRecord = false;
+            if (reader.tokenCount() < 3) {
+                throw new IOException("Line " + reader.lineNumber() + ": expected u,v,weight");
+            }
+            writer.addEdge(reader.intValue(0), reader.intValue(1), reader.doubleValue(2));
+        }
+    }
+
+    private static void importDimacs(LineReader reader, EdgeSink writer) throws IOException {
+        long declaredVertices = -1;
+        while (reader.next()) {
+            if (reader.tokenCount() == 0) continue;
+            switch (reader.firstChar()) {
+                case 'c':
+                    break;
+                case 'p':
+                    if (reader.tokenCount() < 4) {
+                        throw new IOException("Line " + reader.lineNumber() + ": expected p <kind> <n> <m>");
+                    }
+                    declaredVertices = reader.intValue(2);
+                    break;
+                case 'a':
+                case 'e':
+                    if (reader.tokenCount() < 3) {
+                        throw new IOException("Line " + reader.lineNumber() + ": expected " + reader.firstChar() + " u v [w]");
+                    }
+                    double weight = reader.tokenCount() > 3 ? reader.doubleValue(3) : 1.0;
+                    writer.addEdge(reader.intValue(1) - 1, reader.intValue(2) - 1, weight);
+                    break;
+                default:
+                    throw new IOException("Line " + reader.lineNumber() + ": unknown DIMACS line type");
+            }
+        }
+        if (declaredVertices >= 0) {
+            writer.setVertexCount(declaredVertices);
+        }
+    }
+
+    // Growable edge arrays, for parsing into memory
+    private static class EdgeArrays implements EdgeSink {
+        private final int maxVertices;
+        private int[] from = new int[64];
+        private int[] to = new int[64];
+        private double[] weight = new double[64];
+        private int size = 0;
+        private long vertexCount = 0;
+
+        EdgeArrays(int maxVertices) {
+            this.maxVertices = maxVertices;
+        }
+
+        @Override
+        public void addEdge(int u, int v, double w) {
+            if (u < 0 || v < 0) {
+                throw new IllegalArgumentException("Invalid vertex id: " + Math.min(u, v));
+            }
+            checkVertexCount(Math.max(u, v) + 1L);
+            if (size == from.length) {
+                from = Arrays.copyOf(from, size * 2);
+                to = Arrays.copyOf(to, size * 2);
+                weight = Arrays.copyOf(weight, size * 2);
+            }
+            from[size] = u;
+            to[size] = v;
+            weight[size] = w;
+            size++;
+            vertexCount = Math.max(vertexCount, Math.max(u, v) + 1L);
+        }
+
+        @Override
+        public void setVertexCount(long count) {
+            checkVertexCount(count);
+            if (count < vertexCount) {
+                throw new IllegalArgumentException("Edges reference vertex " + (vertexCount - 1));
+            }
+            vertexCount = count;
+        }
+
+        private void checkVertexCount(long count) {
+            if (count > maxVertices) {
+                throw new IllegalArgumentException("Too many vertices: " + count + " (at most " + maxVertices + ")");
+            }
+        }
+
+        Graph toGraph() {
+            return Graph.wrap((int) vertexCount, Arrays.copyOf(from, size), Arrays.copyOf(to, size),
+                    Arrays.copyOf(weight, size), null, null);
+        }
+    }
+
+    /**
+     * Reads one line at a time into a reusable byte buffer and splits it on commas and
+     * whitespace, parsing numbers straight from the bytes.
+     */
+    static class LineReader {
+        static final int CHUNK_SIZE = 1 << 16;
+
+        private final InputStream in;
+        private final byte[] chunk;
+        private int chunkPos = 0;
+        private int chunkLimit = 0;
+        private byte[] line = new byte[256];
+        private int length = 0;
+        private int[] tokenStart = new int[8];
+        private int[] tokenEnd = new int[8];
+        private int tokens = 0;
+        private long lineNumber = 0;
+        private boolean eof = false;
+
+        LineReader(InputStream in) {
+            this(in, CHUNK_SIZE);
+        }
+
+        LineReader(InputStream in, int chunkSize) {
+            this.in = in;
+            this.chunk = new byte[chunkSize];
+        }
+
+        boolean next() throws IOException {
+            if (eof) return false;
+            length = 0;
+            while (true) {
+                if (chunkPos == chunkLimit) {
+                    chunkLimit = in.read(chunk);
+                    chunkPos = 0;
+                    if (chunkLimit <= 0) {
+                        chunkLimit = 0;
+                        eof = true;
+                        if (length == 0) return false;
+                        break;
+                    }
+                }
+                // Copy up to the next newline in one go
+                int start = chunkPos;
+                while (chunkPos < chunkLimit && chunk[chunkPos] != '\n') chunkPos++;
+                int count = chunkPos - start;
+                if (length + count > line.length) line = Arrays.copyOf(line, Math.max(line.length * 2, length + count));
+                System.arraycopy(chunk, start, line, length, count);
+                length += count;
+                if (chunkPos < chunkLimit) {
+                    chunkPos++;   // skip the newline
+                    break;
+                }
+            }
+            lineNumber++;
+            split();
+            return true;
+        }
+
+        private void split() {
+            tokens = 0;
+            int i = 0;
+            while (i < length) {
+                while (i < length && isSeparator(line[i])) i++;
+                if (i == length) break;
+                int start = i;
+                while (i < length && !isSeparator(line[i])) i++;
+                if (tokens == tokenStart.length) {
+                    tokenStart = Arrays.copyOf(tokenStart, tokens * 2);
+                    tokenEnd = Arrays.copyOf(tokenEnd, tokens * 2);
+                }
+                tokenStart[tokens] = start;
+                tokenEnd[tokens] = i;
+                tokens++;
+            }
+        }
+
+        private static boolean isSeparator(byte b) {
+            return b == ',' || b == ' ' || b == '\t' || b == '\r' || b == ';';
+        }
+
+        int tokenCount() { return tokens; }
+        long lineNumber() { return lineNumber; }
+
+        char firstChar() {
+            return (char) line[tokenStart[0]];
+        }
+
+        boolean startsWith(char c) {
+            return tokens > 0 && line[tokenStart[0]] == c;
+        }
+
+        String text(int token) {
+            return new String(line, tokenStart[token], tokenEnd[token] - tokenStart[token], StandardCharsets.US_ASCII);
+        }
+
+        boolean isNumber(int token) {
+            byte b = line[tokenStart[token]];
+            return (b >= '0' && b <= '9') || b == '-' || b == '+' || b == '.';
+        }
+
+        int intValue(int token) throws IOException {
+            int i = tokenStart[token];
+            int end = tokenEnd[token];
+            boolean negative = i < end && line[i] == '-';
+            if (negative || (i < end && line[i] == '+')) i++;
+            if (i == end) throw badNumber(token);
+            long value = 0;
+            for (; i < end; i++) {
+                int d = line[i] - '0';
+                if (d < 0 || d > 9) throw badNumber(token);
+                value = value * 10 + d;
+                if (value > Integer.MAX_VALUE) throw badNumber(token);
+            }
+            return (int) (negative ? -value : value);
+        }
+
+        double doubleValue(int token) throws IOException {
+            // Fast path for plain decimals such as 12 or -3.25; anything else goes to the JDK parser
+            int i = tokenStart[token];
+            int end = tokenEnd[token];
+            boolean negative = i < end && line[i] == '-';
+            if (negative || (i < end && line[i] == '+')) i++;
+            long mantissa = 0;
+            int digits = 0;
+            int scale = 0;
+            boolean dot = false;
+            for (; i < end; i++) {
+                byte b = line[i];
+                if (b == '.' && !dot) {
+                    dot = true;
+                } else if (b >= '0' && b <= '9' && digits < 15) {
+                    mantissa = mantissa * 10 + (b - '0');
+                    digits++;
+                    if (dot) scale++;
+                } else {
+                    try {
+                        return Double.parseDouble(text(token));
+                    } catch (NumberFormatException ex) {
+                        throw badNumber(token);
+                    }
+                }
+            }
+            if (digits == 0) throw badNumber(token);
+            double value = scale == 0 ? mantissa : mantissa / Math.pow(10, scale);
+            return negative ? -value : value;
+        }
+
+        private IOException badNumber(int token) {
+            return new IOException("Line " + lineNumber + ": invalid number '" + text(token) + "'");
+        }
+    }
+}
@@ -0,0 +1,81 @@
+import java.util.Arrays;
+
+/**
+ * Primitive sorting of edge ids by weight, without boxing or comparators.
+ * Uses an LSD radix sort on the IEEE-754 bit pattern of the weights, so it runs in
+ * O(E) and is stable: edges with equal weight stay in edge id order.
+ */
+public class EdgeSort {
+
+    private static final int RADIX_BITS = 8;
+    private static final int BUCKETS = 1 << RADIX_BITS;
+
+    /**
+     * Returns the edge ids of the graph ordered by increasing weight (ties by id).
+     */
+    public static int[] byWeight(Graph graph) {
+        int m = graph.edgeCount();
+        long[] keys = new long[m];
+        int[] ids = new int[m];
+        for (int e = 0; e < m; e++) {
+            keys[e] = sortableBits(graph.edgeWeight(e));
+            ids[e] = e;
+        }
+        sort(keys, ids);
+        return ids;
+    }
+
+    /**
+     * Map a double to a long whose signed order matches the numeric order of the doubles.
+     */
+    public static long sortableBits(double value) {
+        long bits = Double.doubleToLongBits(value);
+        return bits ^ ((bits >> 63) & 0x7fffffffffffffffL);
+    }
+
+    /**
+     * Sort keys ascending (as signed longs), permuting ids the same way. Stable.
+     */
+    public static void sort(long[] keys, int[] ids) {
+        int n = keys.length;
+        if (n < 2) return;
+
+        long[] keyBuffer = new long[n];
+        int[] idBuffer = new int[n];
+        int[] counts = new int[BUCKETS];
+        ProgressMonitor monitor = ProgressMonitor.current();
+
+        for (int shift = 0; shift < 64; shift += RADIX_BITS) {
+            monitor.checkCancelled();   // one pass is O(n), so checking per pass is often enough
+            Arrays.fill(counts, 0);
+            boolean signDigit = shift + RADIX_BITS >= 64;
+            for (int i = 0; i < n; i++) {
+                counts[digit(keys[i], shift, signDigit)]++;
+            }
+
+            // Skip the pass when every key has the same digit here (common for the high bits)
+            if (counts[digit(keys[0], shift, signDigit)] == n) continue;
+
+            int sum = 0;
+            for (int b = 0; b < BUCKETS; b++) {
+                int c = counts[b];
+                counts[b] = sum;
+                sum += c;
+            }
+            for (int i = 0; i < n; i++) {
+                int pos = counts[digit(keys[i], shift, signDigit)]++;
+                keyBuffer[pos] = keys[i];
+                idBuffer[pos] = ids[i];
+            }
+
+            System.arraycopy(keyBuffer, 0, keys, 0, n);
+            System.arraycopy(idBuffer, 0, ids, 0, n);
+        }
+    }
+
+    // The top digit has its sign bit flipped so negative keys sort first
+    private static int digit(long key, int shift, boolean signDigit) {
+        int d = (int) (key >>> shift) & (BUCKETS - 1);
+        return signDigit ? d ^ (BUCKETS >> 1) : d;
+    }
+}
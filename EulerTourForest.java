@@ -0,0 +1,344 @@
+import java.util.Arrays;
+
+/**
+ * Euler-tour trees over a forest of int vertices, each tour kept in a splay tree over primitive
+ * arrays. Link, cut, connectivity and size are O(log n) amortized.
+ * <p>
+ * A tree's tour holds one node per vertex and two arc nodes per tree edge, so rerooting is a
+ * rotation of the sequence and cutting an edge splits out the part between its two arcs.
+ * Every vertex can carry a low and a high key, an (edge weight, edge id) pair, and every edge a
+ * mark; each tree can be asked for its vertex with the lowest low key, the highest high key,
+ * or a marked edge. {@link DynamicMST} keeps one forest per level to find replacement edges.
+ */
+public class EulerTourForest {
+
+    private int[] left = new int[16];
+    private int[] right = new int[16];
+    private int[] parent = new int[16];
+    private int[] count = new int[16];        // vertex nodes in this splay subtree
+    private int[] nodeVertex = new int[16];   // vertex of a vertex node, -1 for arcs
+    private int[] nodeEdge = new int[16];     // edge of an arc node, -1 for vertices
+    private boolean[] mark = new boolean[16];
+    private boolean[] anyMark = new boolean[16];
+    private double[] lowWeight = new double[16];
+    private int[] lowEdge = new int[16];      // -1 when the vertex has no low key
+    private int[] lowNode = new int[16];      // node with the lowest low key in this subtree
+    private double[] highWeight = new double[16];
+    private int[] highEdge = new int[16];     // -1 when the vertex has no high key
+    private int[] highNode = new int[16];     // node with the highest high key in this subtree
+    private int nodes = 0;
+    private final IdPool freeNodes = new IdPool();
+
+    // Vertex -> node, and edge -> its two arc nodes (the first one carries the mark)
+    private int[] vertexNode = new int[16];
+    private int vertexCount = 0;
+    private int[] firstArc = new int[16];
+    private int[] secondArc = new int[16];
+
+    private static final int NIL = -1;
+
+    /**
+     * Add vertices as single-node trees until vertex v exists.
+     */
+    public void addVertex(int v) {
+        while (vertexCount <= v) {
+            if (vertexCount == vertexNode.length) {
+                vertexNode = Arrays.copyOf(vertexNode, vertexCount * 2);
+            }
+            int x = newNode(vertexCount, NIL);
+            vertexNode[vertexCount++] = x;
+        }
+    }
+
+    public void clear() {
+        nodes = 0;
+        vertexCount = 0;
+        freeNodes.clear();
+    }
+
+    /**
+     * True when u and v are in the same tree.
+     */
+    public boolean connected(int u, int v) {
+        return sameTree(vertexNode[u], vertexNode[v]);
+    }
+
+    /**
+     * Number of vertices in v's tree.
+     */
+    public int size(int v) {
+        int x = vertexNode[v];
+        splay(x);
+        return count[x];
+    }
+
+    /**
+     * Join the trees of u and v with tree edge e. They must be in different trees.
+     */
+    public void link(int e, int u, int v) {
+        if (e >= firstArc.length) {
+            int cap = Math.max(e + 1, firstArc.length * 2);
+            firstArc = Arrays.copyOf(firstArc, cap);
+            secondArc = Arrays.copyOf(secondArc, cap);
+        }
+        int a = newNode(NIL, e);
+        int b = newNode(NIL, e);
+        firstArc[e] = a;
+        secondArc[e] = b;
+        int tourU = reroot(vertexNode[u]);
+        int tourV = reroot(vertexNode[v]);
+        join(join(join(tourU, a), tourV), b);
+    }
+
+    /**
+     * Remove tree edge e, splitting its tree in two.
+     */
+    public void cut(int e) {
+        int a = firstArc[e];
+        int b = secondArc[e];
+        splay(a);
+        int before = detachLeft(a);
+        int after = detachRight(a);
+        // b is on one side of a; the stretch between the two arcs is one of the new trees
+        boolean bFirst = before != NIL && sameTree(before, b);
+        splay(b);
+        int outer = detachLeft(b);
+        int inner = detachRight(b);
+        if (bFirst) {
+            join(outer, after);    // tour was: [outer b inner] a after
+        } else {
+            join(before, inner);   // tour was: before a [outer b inner]
+        }
+        freeNode(a);
+        freeNode(b);
+    }
+
+    /**
+     * Mark or unmark tree edge e.
+     */
+    public void setMark(int e, boolean marked) {
+        int a = firstArc[e];
+        splay(a);
+        mark[a] = marked;
+        update(a);
+    }
+
+    /**
+     * Some marked edge in v's tree, or -1 when there is none.
+     */
+    public int markedEdge(int v) {
+        int x = vertexNode[v];
+        splay(x);
+        if (!anyMark[x]) return NIL;
+        while (!mark[x]) {
+            x = left[x] != NIL && anyMark[left[x]] ? left[x] : right[x];
+        }
+        splay(x);
+        return nodeEdge[x];
+    }
+
+    /**
+     * Set v's low key to (weight, edge), or clear it when edge is -1.
+     */
+    public void setLow(int v, double weight, int edge) {
+        int x = vertexNode[v];
+        splay(x);
+        lowWeight[x] = weight;
+        lowEdge[x] = edge;
+        update(x);
+    }
+
+    /**
+     * The vertex with the lowest low key in v's tree, or -1 when no vertex there has one.
+     */
+    public int lowVertex(int v) {
+        int x = vertexNode[v];
+        splay(x);
+        int best = lowNode[x];
+        if (best == NIL) return NIL;
+        splay(best);
+        return nodeVertex[best];
+    }
+
+    /**
+     * Set v's high key to (weight, edge), or clear it when edge is -1.
+     */
+    public void setHigh(int v, double weight, int edge) {
+        int x = vertexNode[v];
+        splay(x);
+        highWeight[x] = weight;
+        highEdge[x] = edge;
+        update(x);
+    }
+
+    /**
+     * The vertex with the highest high key in v's tree, or -1 when no vertex there has one.
+     */
+    public int highVertex(int v) {
+        int x = vertexNode[v];
+        splay(x);
+        int best = highNode[x];
+        if (best == NIL) return NIL;
+        splay(best);
+        return nodeVertex[best];
+    }
+
+    // ---- tour sequences ----
+
+    // Rotate x's tour so that it starts at x; returns the root of the tour
+    private int reroot(int x) {
+        splay(x);
+        int before = detachLeft(x);
+        return join(x, before);
+    }
+
+    // Concatenate two tours given by their roots (either may be NIL); returns the new root
+    private int join(int first, int second) {
+        if (first == NIL) return second;
+        if (second == NIL) return first;
+        int last = first;
+        while (right[last] != NIL) last = right[last];
+        splay(last);
+        right[last] = second;
+        parent[second] = last;
+        update(last);
+        return last;
+    }
+
+    private int detachLeft(int x) {
+        int l = left[x];
+        if (l != NIL) {
+            left[x] = NIL;
+            parent[l] = NIL;
+            update(x);
+        }
+        return l;
+    }
+
+    private int detachRight(int x) {
+        int r = right[x];
+        if (r != NIL) {
+            right[x] = NIL;
+            parent[r] = NIL;
+            update(x);
+        }
+        return r;
+    }
+
+    // x stays a root only when y is splayed in another tree
+    private boolean sameTree(int x, int y) {
+        splay(x);
+        splay(y);
+        return x == y || parent[x] != NIL;
+    }
+
+    // ---- splay tree plumbing ----
+
+    private int newNode(int vertex, int edge) {
+        int x;
+        if (!freeNodes.isEmpty()) {
+            x = freeNodes.pop();
+        } else {
+            if (nodes == left.length) {
+                int cap = nodes * 2;
+                left = Arrays.copyOf(left, cap);
+                right = Arrays.copyOf(right, cap);
+                parent = Arrays.copyOf(parent, cap);
+                count = Arrays.copyOf(count, cap);
+                nodeVertex = Arrays.copyOf(nodeVertex, cap);
+                nodeEdge = Arrays.copyOf(nodeEdge, cap);
+                mark = Arrays.copyOf(mark, cap);
+                anyMark = Arrays.copyOf(anyMark, cap);
+                lowWeight = Arrays.copyOf(lowWeight, cap);
+                lowEdge = Arrays.copyOf(lowEdge, cap);
+                lowNode = Arrays.copyOf(lowNode, cap);
+                highWeight = Arrays.copyOf(highWeight, cap);
+                highEdge = Arrays.copyOf(highEdge, cap);
+                highNode = Arrays.copyOf(highNode, cap);
+            }
+            x = nodes++;
+        }
+        left[x] = NIL;
+        right[x] = NIL;
+        parent[x] = NIL;
+        nodeVertex[x] = vertex;
+        nodeEdge[x] = edge;
+        mark[x] = false;
+        lowEdge[x] = NIL;
+        highEdge[x] = NIL;
+        update(x);
+        return x;
+    }
+
+    private void freeNode(int x) {
+        freeNodes.push(x);
+    }
+
+    // Keys compare by weight, then by edge id
+    private static boolean below(double w1, int e1, double w2, int e2) {
+        return w1 < w2 || (w1 == w2 && e1 < e2);
+    }
+
+    private void update(int x) {
+        int l = left[x];
+        int r = right[x];
+        count[x] = (nodeVertex[x] != NIL ? 1 : 0)
+                + (l != NIL ? count[l] : 0) + (r != NIL ? count[r] : 0);
+        anyMark[x] = mark[x] || (l != NIL && anyMark[l]) || (r != NIL && anyMark[r]);
+
+        int low = lowEdge[x] != NIL ? x : NIL;
+        if (l != NIL) low = lower(low, lowNode[l]);
+        if (r != NIL) low = lower(low, lowNode[r]);
+        lowNode[x] = low;
+
+        int high = highEdge[x] != NIL ? x : NIL;
+        if (l != NIL) high = higher(high, highNode[l]);
+        if (r != NIL) high = higher(high, highNode[r]);
+        highNode[x] = high;
+    }
+
+    private int lower(int a, int b) {
+        if (a == NIL) return b;
+        if (b == NIL) return a;
+        return below(lowWeight[b], lowEdge[b], lowWeight[a], lowEdge[a]) ? b : a;
+    }
+
+    private int higher(int a, int b) {
+        if (a == NIL) return b;
+        if (b == NIL) return a;
+        return below(highWeight[a], highEdge[a], highWeight[b], highEdge[b]) ? b : a;
+    }
+
+    private void rotate(int x) {
+        int p = parent[x];
+        int g = parent[p];
+        if (left[p] == x) {
+            left[p] = right[x];
+            if (right[x] != NIL) parent[right[x]] = p;
+            right[x] = p;
+        } else {
+            right[p] = left[x];
+            if (left[x] != NIL) parent[left[x]] = p;
+            left[x] = p;
+        }
+        parent[p] = x;
+        parent[x] = g;
+        if (g != NIL) {
+            if (left[g] == p) left[g] = x; else right[g] = x;
+        }
+        update(p);
+        update(x);
+    }
+
+    private void splay(int x) {
+        while (parent[x] != NIL) {
+            int p = parent[x];
+            int g = parent[p];
+            if (g != NIL) {
+                boolean zigZig = (left[g] == p) == (left[p] == x);
+                rotate(zigZig ? p : x);
+            }
+            rotate(x);
+        }
+    }
+}
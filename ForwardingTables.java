@@ -0,0 +1,126 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Link-state style next-hop tables for every router (vertex) of a {@link Graph}: one
+ * shortest-path tree per source, built in parallel on a {@link ForkJoinPool}.
+ * <p>
+ * Each worker owns a single {@link ShortestPaths} and pulls sources from a shared counter, so
+ * the heap and distance arrays are allocated once per worker rather than once per source. The
+ * only per-source allocation is the table row itself.
+ * <p>
+ * Row {@code r} holds, for every destination, the neighbour of {@code r} a packet is forwarded
+ * to: {@code r} itself for the router's own address and -1 for unreachable destinations.
+ * The tables take V² ints (1.6 GB for 20k routers).
+ */
+public class ForwardingTables {
+
+    private final Graph graph;
+    private final int[][] nextHop;   // router -> destination -> next hop
+
+    private ForwardingTables(Graph graph, int[][] nextHop) {
+        this.graph = graph;
+        this.nextHop = nextHop;
+    }
+
+    public static ForwardingTables build(Graph graph) {
+        return build(graph, ForkJoinPool.commonPool());
+    }
+
+    public static ForwardingTables build(Graph graph, ForkJoinPool pool) {
+        int n = graph.vertexCount();
+        long started = Metrics.start();
+        int[][] nextHop = new int[n][];
+        AtomicInteger nextSource = new AtomicInteger();
+        AtomicInteger built = new AtomicInteger();
+        // Workers run on pool threads, so they report to the caller's monitor
+        ProgressMonitor monitor = ProgressMonitor.current();
+
+        int workers = Math.max(1, Math.min(pool.getParallelism(), n));
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(workers);
+        for (int w = 0; w < workers; w++) {
+            tasks.add(pool.submit(() -> {
+                ShortestPaths paths = new ShortestPaths(graph);
+                for (int s = nextSource.getAndIncrement(); s < n; s = nextSource.getAndIncrement()) {
+                    monitor.step(built.get(), n);
+                    nextHop[s] = table(paths, s, n);
+                    built.incrementAndGet();
+                }
+            }));
+        }
+        for (ForkJoinTask<?> task : tasks) {
+            task.join();
+        }
+        Metrics.stop(Metrics.Phase.FORWARDING_TABLES, started);
+        return new ForwardingTables(graph, nextHop);
+    }
+
+    // Next hops from one source, read off its shortest-path tree in settle order
+    private static int[] table(ShortestPaths paths, int source, int n) {
+        Graph graph = paths.getGraph();
+        paths.computeTree(source);
+        int[] row = new int[n];
+        Arrays.fill(row, -1);
+        row[source] = source;
+        // Parents are settled before their children, so their next hop is already known
+        for (int i = 1; i < paths.settledCount(); i++) {
+            int v = paths.settledVertex(i);
+            int parent = graph.other(paths.parentEdge(v), v);
+            row[v] = parent == source ? v : row[parent];
+        }
+        return row;
+    }
+
+    public Graph getGraph() {
+        return graph;
+    }
+
+    public int routerCount() {
+        return nextHop.length;
+    }
+
+    /**
+     * Neighbour of router that forwards towards destination.
+     * @return router itself when it is the destination, -1 when the destination is unreachable
+     */
+    public int nextHop(int router, int destination) {
+        checkRouter(router);
+        checkRouter(destination);
+        return nextHop[router][destination];
+    }
+
+    // Copy of the whole table of one router
+    public int[] table(int router) {
+        checkRouter(router);
+        return nextHop[router].clone();
+    }
+
+    /**
+     * Routers visited by hop-by-hop forwarding from source to destination, both included.
+     * @return empty if the destination is unreachable
+     */
+    public int[] route(int source, int destination) {
+        if (nextHop(source, destination) < 0) return new int[0];
+        List<Integer> hops = new ArrayList<>();
+        hops.add(source);
+        for (int r = source; r != destination; ) {
+            r = nextHop[r][destination];
+            hops.add(r);
+            // Zero-weight ties can send two routers' trees different ways round a cycle
+            if (hops.size() > nextHop.length) {
+                throw new IllegalStateException("Forwarding loop towards " + destination);
+            }
+        }
+        return hops.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private void checkRouter(int v) {
+        if (v < 0 || v >= nextHop.length) {
+            throw new IllegalArgumentException("Invalid router: " + v);
+        }
+    }
+}
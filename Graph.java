@@ -0,0 +1,216 @@
+import java.util.Arrays;
+
+/**
+ * Headless, immutable undirected graph stored in compressed sparse row (CSR) form.
+ * Vertices are dense ints 0..n-1 and edges are dense ints 0..m-1. Nothing here
+ * depends on JavaFX, so the algorithms can run on large graphs, in servers or in batch jobs.
+ */
+public final class Graph {
+
+    private final int vertexCount;
+    private final int edgeCount;
+
+    // Edge list, indexed by edge id
+    private final int[] edgeFrom;
+    private final int[] edgeTo;
+    private final double[] edgeWeight;
+
+    // CSR adjacency: slots offsets[v] .. offsets[v + 1] - 1 belong to vertex v.
+    // Every undirected edge appears twice, once from each endpoint.
+    private final int[] offsets;
+    private final int[] targets;
+    private final double[] weights;
+    private final int[] slotEdge;   // edge id stored in each slot
+
+    // Vertex coordinates (0 when the graph has no geometry)
+    private final double[] xs;
+    private final double[] ys;
+
+    private volatile int[] edgesByWeight;  // computed on first use
+
+    private Graph(int vertexCount, int edgeCount, int[] edgeFrom, int[] edgeTo, double[] edgeWeight,
+                  double[] xs, double[] ys) {
+        this.vertexCount = vertexCount;
+        this.edgeCount = edgeCount;
+        this.edgeFrom = edgeFrom;
+        this.edgeTo = edgeTo;
+        this.edgeWeight = edgeWeight;
+        this.xs = xs;
+        this.ys = ys;
+
+        // Count degrees, then prefix-sum them into offsets
+        this.offsets = new int[vertexCount + 1];
+        for (int e = 0; e < edgeCount; e++) {
+            offsets[edgeFrom[e] + 1]++;
+            offsets[edgeTo[e] + 1]++;
+        }
+        for (int v = 0; v < vertexCount; v++) {
+            offsets[v + 1] += offsets[v];
+        }
+
+        // Scatter both directions of each edge into its slots
+        this.targets = new int[2 * edgeCount];
+        this.weights = new double[2 * edgeCount];
+        this.slotEdge = new int[2 * edgeCount];
+        int[] next = Arrays.copyOf(offsets, vertexCount);
+        for (int e = 0; e < edgeCount; e++) {
+            int u = edgeFrom[e];
+            int v = edgeTo[e];
+            int s = next[u]++;
+            targets[s] = v;
+            weights[s] = edgeWeight[e];
+            slotEdge[s] = e;
+            s = next[v]++;
+            targets[s] = u;
+            weights[s] = edgeWeight[e];
+            slotEdge[s] = e;
+        }
+    }
+
+    /**
+     * Build a graph from parallel edge arrays. The arrays are copied.
+     */
+    public static Graph of(int vertexCount, int[] from, int[] to, double[] weight) {
+        if (from.length != to.length || from.length != weight.length) {
+            throw new IllegalArgumentException("Edge arrays must have the same length");
+        }
+        for (int e = 0; e < from.length; e++) {
+            checkVertex(from[e], vertexCount);
+            checkVertex(to[e], vertexCount);
+        }
+        return new Graph(vertexCount, from.length, from.clone(), to.clone(), weight.clone(),
+                new double[vertexCount], new double[vertexCount]);
+    }
+
+    /**
+     * Build a graph that takes ownership of the given arrays (no copies), for loaders that
+     * already produced fresh arrays. Coordinates may be null.
+     */
+    static Graph wrap(int vertexCount, int[] from, int[] to, double[] weight, double[] xs, double[] ys) {
+        if (from.length != to.length || from.length != weight.length) {
+            throw new IllegalArgumentException("Edge arrays must have the same length");
+        }
+        for (int e = 0; e < from.length; e++) {
+            checkVertex(from[e], vertexCount);
+            checkVertex(to[e], vertexCount);
+        }
+        return new Graph(vertexCount, from.length, from, to, weight,
+                xs != null ? xs : new double[vertexCount], ys != null ? ys : new double[vertexCount]);
+    }
+
+    private static void checkVertex(int v, int vertexCount) {
+        if (v < 0 || v >= vertexCount) {
+            throw new IllegalArgumentException("Invalid vertex id: " + v);
+        }
+    }
+
+    // Sizes
+    public int vertexCount() { return vertexCount; }
+    public int edgeCount() { return edgeCount; }
+
+    // Edge list access
+    public int edgeFrom(int e) { return edgeFrom[e]; }
+    public int edgeTo(int e) { return edgeTo[e]; }
+    public double edgeWeight(int e) { return edgeWeight[e]; }
+
+    // Returns the endpoint of edge e that is not v
+    public int other(int e, int v) {
+        return edgeFrom[e] == v ? edgeTo[e] : edgeFrom[e];
+    }
+
+    // Adjacency access: iterate slots from adjStart(v) (inclusive) to adjEnd(v) (exclusive)
+    public int adjStart(int v) { return offsets[v]; }
+    public int adjEnd(int v) { return offsets[v + 1]; }
+    public int degree(int v) { return offsets[v + 1] - offsets[v]; }
+    public int target(int slot) { return targets[slot]; }
+    public double weight(int slot) { return weights[slot]; }
+    public int slotEdge(int slot) { return slotEdge[slot]; }
+
+    // Vertex coordinates
+    public double x(int v) { return xs[v]; }
+    public double y(int v) { return ys[v]; }
+
+    /**
+     * Edge ids sorted by increasing weight (ties by id). Sorted once and shared, so callers
+     * must not modify the returned array.
+     */
+    public int[] edgesByWeight() {
+        int[] sorted = edgesByWeight;
+        if (sorted == null) {
+            sorted = EdgeSort.byWeight(this);
+            edgesByWeight = sorted;
+        }
+        return sorted;
+    }
+
+    // Whether edgesByWeight() has been sorted already (and so costs nothing)
+    public boolean hasEdgesByWeight() {
+        return edgesByWeight != null;
+    }
+
+    /**
+     * Incrementally collects vertices and edges, then freezes them into a {@link Graph}.
+     */
+    public static final class Builder {
+        private int vertexCount = 0;
+        private int edgeCount = 0;
+        private double[] xs;
+        private double[] ys;
+        private int[] from;
+        private int[] to;
+        private double[] weight;
+
+        public Builder() {
+            this(16, 16);
+        }
+
+        public Builder(int expectedVertices, int expectedEdges) {
+            int vc = Math.max(expectedVertices, 1);
+            int ec = Math.max(expectedEdges, 1);
+            xs = new double[vc];
+            ys = new double[vc];
+            from = new int[ec];
+            to = new int[ec];
+            weight = new double[ec];
+        }
+
+        /**
+         * Add a vertex at (x, y) and return its id.
+         */
+        public int addVertex(double x, double y) {
+            if (vertexCount == xs.length) {
+                xs = Arrays.copyOf(xs, vertexCount * 2);
+                ys = Arrays.copyOf(ys, vertexCount * 2);
+            }
+            xs[vertexCount] = x;
+            ys[vertexCount] = y;
+            return vertexCount++;
+        }
+
+        /**
+         * Add an undirected edge between two existing vertices and return its id.
+         */
+        public int addEdge(int u, int v, double w) {
+            checkVertex(u, vertexCount);
+            checkVertex(v, vertexCount);
+            if (edgeCount == from.length) {
+                from = Arrays.copyOf(from, edgeCount * 2);
+                to = Arrays.copyOf(to, edgeCount * 2);
+                weight = Arrays.copyOf(weight, edgeCount * 2);
+            }
+            from[edgeCount] = u;
+            to[edgeCount] = v;
+            weight[edgeCount] = w;
+            return edgeCount++;
+        }
+
+        public int vertexCount() { return vertexCount; }
+        public int edgeCount() { return edgeCount; }
+
+        public Graph build() {
+            return new Graph(vertexCount, edgeCount,
+                    Arrays.copyOf(from, edgeCount), Arrays.copyOf(to, edgeCount), Arrays.copyOf(weight, edgeCount),
+                    Arrays.copyOf(xs, vertexCount), Arrays.copyOf(ys, vertexCount));
+        }
+    }
+}
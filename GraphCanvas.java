@@ -0,0 +1,673 @@
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+import javafx.animation.AnimationTimer;
+import javafx.geometry.VPos;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.input.MouseButton;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.input.ScrollEvent;
+import javafx.scene.layout.Region;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.FontWeight;
+import javafx.scene.text.TextAlignment;
+
+/**
+ * Renders a headless {@link Graph} onto one {@link Canvas} instead of three scene nodes per
+ * vertex and edge, for graphs far too large for {@link Vertex} and {@link Edge}.
+ * <ul>
+ *   <li>Edges are drawn in batches, one path per style, and vertices one fill colour at a time.</li>
+ *   <li>Style changes only mark a dirty rectangle; once per pulse that rectangle is cleared and
+ *       whatever overlaps it is redrawn. Panning, zooming and resizing repaint everything.</li>
+ *   <li>Hit-testing and partial repaints look items up in a uniform grid, which holds each
+ *       vertex in its cell and each edge in every cell its segment crosses.</li>
+ *   <li>Level of detail: weight and vertex labels only appear once the view is zoomed in far
+ *       enough that few items are on screen.</li>
+ * </ul>
+ * Scroll to zoom, drag empty space to pan, drag a vertex to move it.
+ */
+public class GraphCanvas extends Region {
+
+    // Edge styles, the same looks as Edge.highlight and Edge.fade
+    public static final byte EDGE_DEFAULT = 0;
+    public static final byte EDGE_EVALUATING = 1;
+    public static final byte EDGE_ACCEPTED = 2;
+    public static final byte EDGE_DISCARDED = 3;
+    public static final byte EDGE_FADED = 4;
+
+    // Vertex styles, the same looks as the Vertex mark methods
+    public static final byte VERTEX_DEFAULT = 0;
+    public static final byte VERTEX_SOURCE = 1;
+    public static final byte VERTEX_VISITED = 2;
+    public static final byte VERTEX_ACTIVE = 3;
+    public static final byte VERTEX_HIGHLIGHTED = 4;
+
+    private static final Color BACKGROUND = Color.web("#f8f9fa");
+    private static final Color[] EDGE_COLORS = {
+            Color.web("#868e96"), Color.web("#f59f00"), Color.web("#2b8a3e"), Color.web("#e03131"), Color.web("#dee2e6") };
+    private static final double[] EDGE_WIDTHS = { 1.8, 2.2, 2.5, 1.5, 1.2 };
+    private static final byte[] EDGE_DRAW_ORDER = { EDGE_FADED, EDGE_DEFAULT, EDGE_DISCARDED, EDGE_EVALUATING, EDGE_ACCEPTED };
+    private static final Color[] VERTEX_FILLS = {
+            Color.BLACK, Color.web("#2b8a3e"), Color.BLACK, Color.BLACK, Color.web("#fab005") };
+    private static final Color[] VERTEX_STROKES = {
+            Color.WHITE, Color.web("#1b5e20"), Color.web("#2b8a3e"), Color.web("#e67700"), Color.WHITE };
+
+    private static final double MAX_RADIUS = 15.0;        // same as Vertex, in world units
+    private static final double MIN_RADIUS_PX = 1.5;      // vertices never shrink below this on screen
+    private static final int MAX_LABELS = 1500;           // labels are drawn only with this few items in view
+    private static final double MIN_LABEL_EDGE_PX = 40;   // ... and only on edges at least this long on screen
+    private static final double LABEL_MARGIN_PX = 24;     // how far a label reaches past its edge or vertex
+    private static final double HIT_TOLERANCE_PX = 4;
+    private static final Font WEIGHT_FONT = Font.font("System", FontWeight.BOLD, 11);
+    private static final Font VERTEX_FONT = Font.font("System", FontWeight.BOLD, 12);
+
+    private final Canvas canvas = new Canvas();
+
+    private Graph graph;
+    private double[] xs;                  // world positions, changed by dragging
+    private double[] ys;
+    private double radius;                // vertex radius in world units
+    private byte[] edgeStyle;
+    private byte[] vertexStyle;
+    private SpatialGrid grid;
+    private IntFunction<String> vertexLabel = String::valueOf;
+
+    // Items collected for one repaint, deduplicated through stamps
+    private int[] edgeBuffer = new int[256];
+    private int[] vertexBuffer = new int[256];
+    private int[] edgeStamp;
+    private int[] vertexStamp;
+    private int stamp = 0;
+
+    // View transform: screen = world * scale + offset
+    private double scale = 1.0;
+    private double offsetX = 0.0;
+    private double offsetY = 0.0;
+    private boolean fitPending = false;
+
+    // Pending repaint: the whole canvas, or a dirty rectangle in screen coordinates
+    private boolean fullRepaint = true;
+    private double dirtyMinX = Double.POSITIVE_INFINITY;
+    private double dirtyMinY = Double.POSITIVE_INFINITY;
+    private double dirtyMaxX = Double.NEGATIVE_INFINITY;
+    private double dirtyMaxY = Double.NEGATIVE_INFINITY;
+
+    // Mouse state
+    private int draggedVertex = -1;
+    private double lastMouseX;
+    private double lastMouseY;
+    private IntConsumer onVertexClicked;
+    private IntConsumer onEdgeClicked;
+
+    private final AnimationTimer pulse = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            paint();
+        }
+    };
+
+    public GraphCanvas() {
+        getChildren().add(canvas);
+        // Only spend pulses while on screen
+        sceneProperty().addListener((obs, oldScene, newScene) -> {
+            if (newScene != null) pulse.start(); else pulse.stop();
+        });
+
+        canvas.setOnMousePressed(this::mousePressed);
+        canvas.setOnMouseDragged(this::mouseDragged);
+        canvas.setOnMouseReleased(this::mouseReleased);
+        canvas.setOnMouseClicked(this::mouseClicked);
+        canvas.setOnScroll(this::scrolled);
+    }
+
+    /**
+     * Show a graph with the given world positions (one per vertex). All styles are reset
+     * and the view is fitted to the graph.
+     */
+    public void setGraph(Graph graph, double[] xs, double[] ys) {
+        int n = graph.vertexCount();
+        if (xs.length != n || ys.length != n) {
+            throw new IllegalArgumentException("Need one position per vertex");
+        }
+        this.graph = graph;
+        this.xs = xs.clone();
+        this.ys = ys.clone();
+        this.edgeStyle = new byte[graph.edgeCount()];
+        this.vertexStyle = new byte[n];
+        this.edgeStamp = new int[graph.edgeCount()];
+        this.vertexStamp = new int[n];
+        this.grid = new SpatialGrid(graph, this.xs, this.ys);
+        // About a third of the average spacing, so dense graphs don't turn into a blob
+        this.radius = Math.max(0.5, Math.min(MAX_RADIUS, 0.35 * grid.averageSpacing));
+        fitToView();
+    }
+
+    public Graph getGraph() {
+        return graph;
+    }
+
+    public void setVertexLabels(IntFunction<String> vertexLabel) {
+        this.vertexLabel = vertexLabel;
+        fullRepaint = true;
+    }
+
+    public void setOnVertexClicked(IntConsumer listener) {
+        onVertexClicked = listener;
+    }
+
+    public void setOnEdgeClicked(IntConsumer listener) {
+        onEdgeClicked = listener;
+    }
+
+    public void setEdgeStyle(int e, byte style) {
+        if (edgeStyle[e] == style) return;
+        edgeStyle[e] = style;
+        markEdgeDirty(e);
+    }
+
+    public void setVertexStyle(int v, byte style) {
+        if (vertexStyle[v] == style) return;
+        vertexStyle[v] = style;
+        markVertexDirty(v);
+    }
+
+    // Give every edge the same style, e.g. fade all before highlighting a tree
+    public void setAllEdgeStyles(byte style) {
+        Arrays.fill(edgeStyle, style);
+        fullRepaint = true;
+    }
+
+    public void resetStyles() {
+        Arrays.fill(edgeStyle, EDGE_DEFAULT);
+        Arrays.fill(vertexStyle, VERTEX_DEFAULT);
+        fullRepaint = true;
+    }
+
+    /**
+     * Zoom and pan so the whole graph is in view.
+     */
+    public void fitToView() {
+        if (graph == null) return;
+        double width = getWidth();
+        double height = getHeight();
+        if (width <= 0 || height <= 0) {
+            fitPending = true;    // not laid out yet
+            return;
+        }
+        double margin = radius + 10;
+        double graphWidth = Math.max(grid.maxX - grid.minX + 2 * margin, 1);
+        double graphHeight = Math.max(grid.maxY - grid.minY + 2 * margin, 1);
+        scale = Math.min(width / graphWidth, height / graphHeight);
+        offsetX = (width - (grid.maxX + grid.minX) * scale) / 2;
+        offsetY = (height - (grid.maxY + grid.minY) * scale) / 2;
+        fitPending = false;
+        fullRepaint = true;
+    }
+
+    @Override
+    protected void layoutChildren() {
+        if (canvas.getWidth() != getWidth() || canvas.getHeight() != getHeight()) {
+            canvas.setWidth(getWidth());
+            canvas.setHeight(getHeight());
+            fullRepaint = true;
+        }
+        if (fitPending) fitToView();
+    }
+
+    // ---- Painting ----
+
+    private void paint() {
+        if (graph == null) return;
+        double width = canvas.getWidth();
+        double height = canvas.getHeight();
+        if (fullRepaint) {
+            repaint(0, 0, width, height, false);
+        } else if (dirtyMinX < dirtyMaxX && dirtyMinY < dirtyMaxY) {
+            repaint(Math.max(dirtyMinX, 0), Math.max(dirtyMinY, 0),
+                    Math.min(dirtyMaxX, width), Math.min(dirtyMaxY, height), true);
+        }
+        fullRepaint = false;
+        dirtyMinX = dirtyMinY = Double.POSITIVE_INFINITY;
+        dirtyMaxX = dirtyMaxY = Double.NEGATIVE_INFINITY;
+    }
+
+    // Clear a screen rectangle and redraw everything that overlaps it
+    private void repaint(double x0, double y0, double x1, double y1, boolean clip) {
+        if (x1 <= x0 || y1 <= y0) return;
+        GraphicsContext gc = canvas.getGraphicsContext2D();
+        gc.save();
+        if (clip) {
+            gc.beginPath();
+            gc.rect(x0, y0, x1 - x0, y1 - y0);
+            gc.clip();
+        }
+        gc.setFill(BACKGROUND);
+        gc.fillRect(x0, y0, x1 - x0, y1 - y0);
+
+        // Items whose drawing may reach into the rectangle
+        double margin = radius + LABEL_MARGIN_PX / scale;
+        int edgeCount = 0;
+        int vertexCount = 0;
+        stamp++;
+        if (stamp == Integer.MAX_VALUE) {
+            Arrays.fill(edgeStamp, 0);
+            Arrays.fill(vertexStamp, 0);
+            stamp = 1;
+        }
+        double wx0 = toWorldX(x0) - margin;
+        double wy0 = toWorldY(y0) - margin;
+        double wx1 = toWorldX(x1) + margin;
+        double wy1 = toWorldY(y1) + margin;
+        if (wx0 <= grid.minX && wy0 <= grid.minY && wx1 >= grid.maxX && wy1 >= grid.maxY) {
+            // Everything is in view: skip the grid
+            edgeBuffer = ensure(edgeBuffer, graph.edgeCount());
+            for (int e = 0; e < graph.edgeCount(); e++) edgeBuffer[edgeCount++] = e;
+            vertexBuffer = ensure(vertexBuffer, graph.vertexCount());
+            for (int v = 0; v < graph.vertexCount(); v++) vertexBuffer[vertexCount++] = v;
+        } else {
+            int c0 = grid.column(wx0), c1 = grid.column(wx1);
+            int r0 = grid.row(wy0), r1 = grid.row(wy1);
+            for (int r = r0; r <= r1; r++) {
+                for (int c = c0; c <= c1; c++) {
+                    int cell = r * grid.columns + c;
+                    for (int i = grid.edgeStart[cell]; i < grid.edgeStart[cell + 1]; i++) {
+                        int e = grid.edgeItems[i];
+                        if (edgeStamp[e] == stamp) continue;
+                        edgeStamp[e] = stamp;
+                        edgeBuffer = ensure(edgeBuffer, edgeCount + 1);
+                        edgeBuffer[edgeCount++] = e;
+                    }
+                    for (int i = grid.vertexStart[cell]; i < grid.vertexStart[cell + 1]; i++) {
+                        int v = grid.vertexItems[i];
+                        if (vertexStamp[v] == stamp) continue;
+                        vertexStamp[v] = stamp;
+                        vertexBuffer = ensure(vertexBuffer, vertexCount + 1);
+                        vertexBuffer[vertexCount++] = v;
+                    }
+                }
+            }
+            // The grid still has a dragged vertex and its edges at their old place
+            if (draggedVertex >= 0) {
+                for (int s = graph.adjStart(draggedVertex); s < graph.adjEnd(draggedVertex); s++) {
+                    int e = graph.slotEdge(s);
+                    if (edgeStamp[e] == stamp) continue;
+                    edgeStamp[e] = stamp;
+                    edgeBuffer = ensure(edgeBuffer, edgeCount + 1);
+                    edgeBuffer[edgeCount++] = e;
+                }
+                if (vertexStamp[draggedVertex] != stamp) {
+                    vertexStamp[draggedVertex] = stamp;
+                    vertexBuffer = ensure(vertexBuffer, vertexCount + 1);
+                    vertexBuffer[vertexCount++] = draggedVertex;
+                }
+            }
+        }
+
+        drawEdges(gc, edgeCount);
+        drawVertices(gc, vertexCount);
+        gc.restore();
+    }
+
+    private void drawEdges(GraphicsContext gc, int count) {
+        // One path per style, lightest first so highlighted edges end up on top
+        for (byte style : EDGE_DRAW_ORDER) {
+            gc.setStroke(EDGE_COLORS[style]);
+            gc.setLineWidth(EDGE_WIDTHS[style]);
+            gc.beginPath();
+            boolean any = false;
+            for (int i = 0; i < count; i++) {
+                int e = edgeBuffer[i];
+                if (edgeStyle[e] != style) continue;
+                int u = graph.edgeFrom(e);
+                int v = graph.edgeTo(e);
+                gc.moveTo(toScreenX(xs[u]), toScreenY(ys[u]));
+                gc.lineTo(toScreenX(xs[v]), toScreenY(ys[v]));
+                any = true;
+            }
+            if (any) gc.stroke();
+        }
+
+        if (count > MAX_LABELS) return;
+        gc.setFont(WEIGHT_FONT);
+        gc.setTextAlign(TextAlignment.CENTER);
+        gc.setTextBaseline(VPos.CENTER);
+        for (int i = 0; i < count; i++) {
+            int e = edgeBuffer[i];
+            int u = graph.edgeFrom(e);
+            int v = graph.edgeTo(e);
+            double dx = (xs[v] - xs[u]) * scale;
+            double dy = (ys[v] - ys[u]) * scale;
+            if (dx * dx + dy * dy < MIN_LABEL_EDGE_PX * MIN_LABEL_EDGE_PX) continue;
+            double mx = toScreenX((xs[u] + xs[v]) / 2);
+            double my = toScreenY((ys[u] + ys[v]) / 2);
+            String text = String.format("%.1f", graph.edgeWeight(e));
+            double halfWidth = 3.5 * text.length() + 4;
+            gc.setGlobalAlpha(edgeStyle[e] == EDGE_FADED ? 0.5 : 1.0);
+            gc.setFill(Color.rgb(255, 255, 255, 0.9));
+            gc.fillRect(mx - halfWidth, my - 8, 2 * halfWidth, 16);
+            gc.setFill(Color.web("#495057"));
+            gc.fillText(text, mx, my);
+        }
+        gc.setGlobalAlpha(1.0);
+    }
+
+    private void drawVertices(GraphicsContext gc, int count) {
+        double r = Math.max(radius * scale, MIN_RADIUS_PX);
+        boolean outlined = r >= 4;
+        for (byte style = VERTEX_DEFAULT; style <= VERTEX_HIGHLIGHTED; style++) {
+            gc.setFill(VERTEX_FILLS[style]);
+            gc.setStroke(VERTEX_STROKES[style]);
+            gc.setLineWidth(style == VERTEX_DEFAULT || style == VERTEX_HIGHLIGHTED ? 1.5 : 2.0);
+            for (int i = 0; i < count; i++) {
+                int v = vertexBuffer[i];
+                if (vertexStyle[v] != style) continue;
+                double sx = toScreenX(xs[v]);
+                double sy = toScreenY(ys[v]);
+                gc.fillOval(sx - r, sy - r, 2 * r, 2 * r);
+                if (outlined) gc.strokeOval(sx - r, sy - r, 2 * r, 2 * r);
+            }
+        }
+
+        if (count > MAX_LABELS || r < 8) return;
+        gc.setFont(VERTEX_FONT);
+        gc.setTextAlign(TextAlignment.CENTER);
+        gc.setTextBaseline(VPos.CENTER);
+        gc.setFill(Color.WHITE);
+        for (int i = 0; i < count; i++) {
+            int v = vertexBuffer[i];
+            gc.fillText(vertexLabel.apply(v), toScreenX(xs[v]), toScreenY(ys[v]), 2 * r);
+        }
+    }
+
+    // ---- Dirty regions ----
+
+    private void markEdgeDirty(int e) {
+        int u = graph.edgeFrom(e);
+        int v = graph.edgeTo(e);
+        double pad = LABEL_MARGIN_PX;
+        markDirty(Math.min(toScreenX(xs[u]), toScreenX(xs[v])) - pad, Math.min(toScreenY(ys[u]), toScreenY(ys[v])) - pad,
+                Math.max(toScreenX(xs[u]), toScreenX(xs[v])) + pad, Math.max(toScreenY(ys[u]), toScreenY(ys[v])) + pad);
+    }
+
+    private void markVertexDirty(int v) {
+        double pad = Math.max(radius * scale, MIN_RADIUS_PX) + 3;
+        markDirty(toScreenX(xs[v]) - pad, toScreenY(ys[v]) - pad, toScreenX(xs[v]) + pad, toScreenY(ys[v]) + pad);
+    }
+
+    private void markDirty(double x0, double y0, double x1, double y1) {
+        if (fullRepaint) return;
+        dirtyMinX = Math.min(dirtyMinX, x0);
+        dirtyMinY = Math.min(dirtyMinY, y0);
+        dirtyMaxX = Math.max(dirtyMaxX, x1);
+        dirtyMaxY = Math.max(dirtyMaxY, y1);
+        // Past half the canvas a full repaint is no dearer and skips the grid lookups
+        if ((dirtyMaxX - dirtyMinX) * (dirtyMaxY - dirtyMinY) > canvas.getWidth() * canvas.getHeight() / 2) {
+            fullRepaint = true;
+        }
+    }
+
+    // ---- Hit-testing ----
+
+    /**
+     * Vertex under a point of the canvas, or -1.
+     */
+    public int vertexAt(double screenX, double screenY) {
+        if (graph == null) return -1;
+        double wx = toWorldX(screenX);
+        double wy = toWorldY(screenY);
+        double reach = Math.max(radius, MIN_RADIUS_PX / scale) + HIT_TOLERANCE_PX / scale;
+        int best = -1;
+        double bestDistance = reach * reach;
+        for (int r = grid.row(wy - reach); r <= grid.row(wy + reach); r++) {
+            for (int c = grid.column(wx - reach); c <= grid.column(wx + reach); c++) {
+                int cell = r * grid.columns + c;
+                for (int i = grid.vertexStart[cell]; i < grid.vertexStart[cell + 1]; i++) {
+                    int v = grid.vertexItems[i];
+                    double dx = xs[v] - wx;
+                    double dy = ys[v] - wy;
+                    if (dx * dx + dy * dy <= bestDistance) {
+                        bestDistance = dx * dx + dy * dy;
+                        best = v;
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Edge under a point of the canvas, or -1.
+     */
+    public int edgeAt(double screenX, double screenY) {
+        if (graph == null) return -1;
+        double wx = toWorldX(screenX);
+        double wy = toWorldY(screenY);
+        double reach = HIT_TOLERANCE_PX / scale;
+        int best = -1;
+        double bestDistance = reach * reach;
+        for (int r = grid.row(wy - reach); r <= grid.row(wy + reach); r++) {
+            for (int c = grid.column(wx - reach); c <= grid.column(wx + reach); c++) {
+                int cell = r * grid.columns + c;
+                for (int i = grid.edgeStart[cell]; i < grid.edgeStart[cell + 1]; i++) {
+                    int e = grid.edgeItems[i];
+                    double d = segmentDistanceSquared(e, wx, wy);
+                    if (d <= bestDistance) {
+                        bestDistance = d;
+                        best = e;
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    private double segmentDistanceSquared(int e, double px, double py) {
+        double ax = xs[graph.edgeFrom(e)], ay = ys[graph.edgeFrom(e)];
+        double bx = xs[graph.edgeTo(e)], by = ys[graph.edgeTo(e)];
+        double dx = bx - ax, dy = by - ay;
+        double lengthSquared = dx * dx + dy * dy;
+        double t = lengthSquared == 0 ? 0 : Math.max(0, Math.min(1, ((px - ax) * dx + (py - ay) * dy) / lengthSquared));
+        double cx = ax + t * dx - px;
+        double cy = ay + t * dy - py;
+        return cx * cx + cy * cy;
+    }
+
+    // ---- Mouse ----
+
+    private void mousePressed(MouseEvent event) {
+        lastMouseX = event.getX();
+        lastMouseY = event.getY();
+        draggedVertex = event.getButton() == MouseButton.PRIMARY ? vertexAt(event.getX(), event.getY()) : -1;
+    }
+
+    private void mouseDragged(MouseEvent event) {
+        double dx = event.getX() - lastMouseX;
+        double dy = event.getY() - lastMouseY;
+        lastMouseX = event.getX();
+        lastMouseY = event.getY();
+        if (draggedVertex >= 0) {
+            // Repaint where the vertex and its edges were and where they are now
+            markVertexAndEdgesDirty(draggedVertex);
+            xs[draggedVertex] += dx / scale;
+            ys[draggedVertex] += dy / scale;
+            markVertexAndEdgesDirty(draggedVertex);
+        } else {
+            offsetX += dx;
+            offsetY += dy;
+            fullRepaint = true;
+        }
+    }
+
+    private void mouseReleased(MouseEvent event) {
+        if (draggedVertex >= 0 && !event.isStillSincePress()) {
+            grid = new SpatialGrid(graph, xs, ys);   // re-index the moved vertex and its edges
+            fullRepaint = true;
+        }
+        draggedVertex = -1;
+    }
+
+    private void mouseClicked(MouseEvent event) {
+        if (event.getButton() != MouseButton.PRIMARY || !event.isStillSincePress()) return;
+        int v = vertexAt(event.getX(), event.getY());
+        if (v >= 0) {
+            if (onVertexClicked != null) onVertexClicked.accept(v);
+        } else {
+            int e = edgeAt(event.getX(), event.getY());
+            if (e >= 0 && onEdgeClicked != null) onEdgeClicked.accept(e);
+        }
+        event.consume();
+    }
+
+    private void scrolled(ScrollEvent event) {
+        double factor = Math.exp(event.getDeltaY() * 0.0025);
+        // Keep the world point under the cursor where it is
+        double wx = toWorldX(event.getX());
+        double wy = toWorldY(event.getY());
+        scale *= factor;
+        offsetX = event.getX() - wx * scale;
+        offsetY = event.getY() - wy * scale;
+        fullRepaint = true;
+        event.consume();
+    }
+
+    private void markVertexAndEdgesDirty(int v) {
+        markVertexDirty(v);
+        for (int s = graph.adjStart(v); s < graph.adjEnd(v); s++) {
+            markEdgeDirty(graph.slotEdge(s));
+        }
+    }
+
+    private double toScreenX(double x) { return x * scale + offsetX; }
+    private double toScreenY(double y) { return y * scale + offsetY; }
+    private double toWorldX(double x) { return (x - offsetX) / scale; }
+    private double toWorldY(double y) { return (y - offsetY) / scale; }
+
+    private static int[] ensure(int[] buffer, int size) {
+        return size <= buffer.length ? buffer : Arrays.copyOf(buffer, Math.max(size, buffer.length * 2));
+    }
+
+    /**
+     * Uniform grid over the world bounds, about one vertex per cell. Vertices sit in the cell
+     * of their centre, edges in every cell their segment crosses; both lists are stored
+     * CSR-style (per-cell offsets into one item array).
+     */
+    static class SpatialGrid {
+        private static final int MAX_CELLS = 1 << 22;
+        private static final long MAX_EDGE_ITEMS = 1 << 24;   // coarser cells beyond this, e.g. for long random edges
+
+        final double minX, minY, maxX, maxY;
+        final double cellSize;
+        final double averageSpacing;       // side of the square each vertex gets on average
+        final int columns, rows;
+        final int[] vertexStart, vertexItems;
+        final int[] edgeStart, edgeItems;
+
+        SpatialGrid(Graph graph, double[] xs, double[] ys) {
+            int n = graph.vertexCount();
+            double x0 = Double.POSITIVE_INFINITY, y0 = Double.POSITIVE_INFINITY;
+            double x1 = Double.NEGATIVE_INFINITY, y1 = Double.NEGATIVE_INFINITY;
+            for (int v = 0; v < n; v++) {
+                x0 = Math.min(x0, xs[v]);
+                y0 = Math.min(y0, ys[v]);
+                x1 = Math.max(x1, xs[v]);
+                y1 = Math.max(y1, ys[v]);
+            }
+            if (n == 0) {
+                x0 = y0 = x1 = y1 = 0;
+            }
+            minX = x0;
+            minY = y0;
+            maxX = x1;
+            maxY = y1;
+
+            double width = Math.max(maxX - minX, 1e-9);
+            double height = Math.max(maxY - minY, 1e-9);
+            double side = Math.max(width, height);
+            averageSpacing = n > 1 ? Math.sqrt(Math.max(width * height, side * side / n) / n) : MAX_RADIUS * 3;
+            double size = Math.max(averageSpacing, side / Math.sqrt(MAX_CELLS));
+            while (edgeItemCount(graph, xs, ys, size) > MAX_EDGE_ITEMS) {
+                size *= 2;
+            }
+            cellSize = size;
+            columns = (int) (width / size) + 1;
+            rows = (int) (height / size) + 1;
+            int cells = columns * rows;
+
+            // Vertices: count, prefix sums, fill
+            vertexStart = new int[cells + 1];
+            for (int v = 0; v < n; v++) vertexStart[cell(xs[v], ys[v]) + 1]++;
+            for (int c = 0; c < cells; c++) vertexStart[c + 1] += vertexStart[c];
+            vertexItems = new int[n];
+            int[] fill = Arrays.copyOf(vertexStart, cells);
+            for (int v = 0; v < n; v++) vertexItems[fill[cell(xs[v], ys[v])]++] = v;
+
+            // Edges: the same, walking the cells along each segment twice
+            edgeStart = new int[cells + 1];
+            for (int e = 0; e < graph.edgeCount(); e++) {
+                int u = graph.edgeFrom(e), v = graph.edgeTo(e);
+                forEachCell(xs[u], ys[u], xs[v], ys[v], cell -> edgeStart[cell + 1]++);
+            }
+            for (int c = 0; c < cells; c++) edgeStart[c + 1] += edgeStart[c];
+            edgeItems = new int[edgeStart[cells]];
+            int[] edgeFill = Arrays.copyOf(edgeStart, cells);
+            for (int e = 0; e < graph.edgeCount(); e++) {
+                int u = graph.edgeFrom(e), v = graph.edgeTo(e);
+                int edge = e;
+                forEachCell(xs[u], ys[u], xs[v], ys[v], cell -> edgeItems[edgeFill[cell]++] = edge);
+            }
+        }
+
+        // Cells all the edges cross for a given cell size: one plus the boundaries crossed
+        private long edgeItemCount(Graph graph, double[] xs, double[] ys, double size) {
+            long count = 0;
+            for (int e = 0; e < graph.edgeCount(); e++) {
+                int u = graph.edgeFrom(e), v = graph.edgeTo(e);
+                count += 1 + Math.abs((long) Math.floor((xs[v] - minX) / size) - (long) Math.floor((xs[u] - minX) / size))
+                        + Math.abs((long) Math.floor((ys[v] - minY) / size) - (long) Math.floor((ys[u] - minY) / size));
+            }
+            return count;
+        }
+
+        int column(double x) {
+            return (int) Math.max(0, Math.min(columns - 1, Math.floor((x - minX) / cellSize)));
+        }
+
+        int row(double y) {
+            return (int) Math.max(0, Math.min(rows - 1, Math.floor((y - minY) / cellSize)));
+        }
+
+        private int cell(double x, double y) {
+            return row(y) * columns + column(x);
+        }
+
+        // Cells crossed by the segment, in order (grid traversal of Amanatides and Woo)
+        private void forEachCell(double ax, double ay, double bx, double by, IntConsumer action) {
+            int c = column(ax), r = row(ay);
+            int endC = column(bx), endR = row(by);
+            double dx = bx - ax, dy = by - ay;
+            int stepC = Integer.signum(endC - c);
+            int stepR = Integer.signum(endR - r);
+            double tMaxX = stepC == 0 ? Double.POSITIVE_INFINITY
+                    : (minX + (c + (stepC > 0 ? 1 : 0)) * cellSize - ax) / dx;
+            double tMaxY = stepR == 0 ? Double.POSITIVE_INFINITY
+                    : (minY + (r + (stepR > 0 ? 1 : 0)) * cellSize - ay) / dy;
+            double tDeltaX = stepC == 0 ? 0 : cellSize / Math.abs(dx);
+            double tDeltaY = stepR == 0 ? 0 : cellSize / Math.abs(dy);
+
+            action.accept(r * columns + c);
+            // Exactly one step per column or row boundary crossed, so rounding can't overshoot
+            for (int steps = Math.abs(endC - c) + Math.abs(endR - r); steps > 0; steps--) {
+                if (r == endR || (c != endC && tMaxX < tMaxY)) {
+                    c += stepC;
+                    tMaxX += tDeltaX;
+                } else {
+                    r += stepR;
+                    tMaxY += tDeltaY;
+                }
+                action.accept(r * columns + c);
+            }
+        }
+    }
+}
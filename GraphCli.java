@@ -0,0 +1,345 @@
+import java.io.BufferedWriter;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Headless batch runner: loads graph files (binary graph files or CSV/DIMACS edge lists),
+ * runs one engine on each and writes the results, without starting the JavaFX toolkit.
+ * One JVM can work through hundreds of files, so start-up is paid once per batch.
+ * <pre>
+ * java -cp out GraphCli [--engine=prim] [--source=0] [--target=N] [--output=DIR|-] [--metrics]
+ *                       [--list=FILE] graph files...
+ * </pre>
+ * Engines:
+ * <ul>
+ *   <li>{@code prim}, {@code dense}, {@code kruskal}, {@code boruvka}, {@code auto}: MST edges as
+ *       "u v weight" lines, in acceptance order.</li>
+ *   <li>{@code forest}: minimum spanning forest of a possibly disconnected graph, as
+ *       "component u v weight" lines ({@link SpanningForest}).</li>
+ *   <li>{@code streaming}: semi-external Kruskal ({@link StreamingMST}); writes the tree as a graph file.</li>
+ *   <li>{@code connectivity}: "vertex component" lines, the component named by one of its vertices.</li>
+ *   <li>{@code paths}: "vertex distance parent" lines from --source, or the route to --target
+ *       as "u v weight" lines.</li>
+ * </ul>
+ * Results go to {@code DIR/<file>.<engine>.txt}, to stdout with {@code --output=-}, or nowhere
+ * (summary only). Each graph gets one tab-separated summary row on stdout, with load and run
+ * times, throughput and peak heap; with {@code --output=-} the rows start with "# ".
+ * {@code --metrics} adds the run's {@link Metrics} as JSON. The exit code is 1 if any graph failed.
+ */
+public class GraphCli {
+
+    private static final int WRITE_BUFFER = 1 << 16;
+    private static final String[] COLUMNS = {
+            "file", "engine", "vertices", "edges", "result", "load_ms", "run_ms", "write_ms", "edges_per_s", "peak_heap_mb" };
+
+    // One engine: computes on the graph, writes its result lines and returns the summary value
+    private interface Task {
+        String run(Path file, Graph graph, Writer out) throws IOException;
+    }
+
+    private final Map<String, String> options;
+    private final String engine;
+    private final Task task;
+    private final Path outputDir;       // null for stdout or no output
+    private final boolean toStdout;
+    private final boolean metrics;
+    private final Writer stdout;
+
+    private GraphCli(Map<String, String> options) {
+        this.options = options;
+        this.engine = options.getOrDefault("engine", "prim").toLowerCase(Locale.ROOT);
+        this.task = taskFor(engine);
+        String output = options.get("output");
+        this.toStdout = "-".equals(output);
+        this.outputDir = output == null || toStdout ? null : Path.of(output);
+        this.metrics = options.containsKey("metrics");
+        WritableByteChannel channel = Channels.newChannel(new FileOutputStream(FileDescriptor.out));
+        this.stdout = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8), WRITE_BUFFER);
+    }
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = new HashMap<>();
+        List<Path> files = new ArrayList<>();
+        try {
+            parseArguments(args, options, files);
+        } catch (IllegalArgumentException ex) {
+            System.err.println(ex.getMessage());
+            usage();
+            System.exit(2);
+        }
+        if (files.isEmpty()) {
+            usage();
+            System.exit(2);
+        }
+
+        GraphCli cli;
+        try {
+            cli = new GraphCli(options);
+        } catch (IllegalArgumentException ex) {
+            System.err.println(ex.getMessage());
+            System.exit(2);
+            return;
+        }
+        System.exit(cli.runAll(files) ? 0 : 1);
+    }
+
+    private static void usage() {
+        System.err.println("Usage: java -cp out GraphCli [--engine=prim|dense|kruskal|boruvka|auto|forest|streaming|connectivity|paths]");
+        System.err.println("                             [--source=0] [--target=N] [--output=DIR|-] [--metrics]");
+        System.err.println("                             [--list=FILE] graph files...");
+    }
+
+    // --name=value options (--name alone means true), the rest are graph files; --list adds one file per line
+    private static void parseArguments(String[] args, Map<String, String> options, List<Path> files) {
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                files.add(Path.of(arg));
+                continue;
+            }
+            int eq = arg.indexOf('=');
+            if (eq < 0) {
+                options.put(arg.substring(2), "true");
+            } else {
+                options.put(arg.substring(2, eq), arg.substring(eq + 1));
+            }
+        }
+        if (options.containsKey("list")) {
+            try {
+                for (String line : Files.readAllLines(Path.of(options.get("list")))) {
+                    if (!line.isBlank() && !line.startsWith("#")) files.add(Path.of(line.trim()));
+                }
+            } catch (IOException ex) {
+                throw new IllegalArgumentException("Could not read the file list: " + ex.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Run the task on every file, one summary row each.
+     * @return true if every file succeeded
+     */
+    private boolean runAll(List<Path> files) throws IOException {
+        if (outputDir != null) {
+            Files.createDirectories(outputDir);
+        }
+        long batchStart = System.nanoTime();
+        summary(String.join("\t", COLUMNS));
+        int failed = 0;
+        for (Path file : files) {
+            if (!runOne(file)) failed++;
+        }
+        double seconds = (System.nanoTime() - batchStart) / 1e9;
+        summary(String.format(Locale.ROOT, "total\t%s\t%d files\t%d failed\t%.1f s\t%.1f files/min",
+                engine, files.size(), failed, seconds, files.size() * 60 / Math.max(seconds, 1e-9)));
+        stdout.flush();
+        return failed == 0;
+    }
+
+    private boolean runOne(Path file) throws IOException {
+        resetPeakHeap();
+        Metrics.Snapshot before = Metrics.snapshot();
+        long loadStart = System.nanoTime();
+        try {
+            Graph graph = "streaming".equals(engine) ? null : GraphFile.load(file);
+            long runStart = System.nanoTime();
+            String result;
+            long writeNanos;
+            try (Writer out = resultWriter(file)) {
+                result = task.run(file, graph, out);
+                long writeStart = System.nanoTime();
+                out.flush();
+                writeNanos = System.nanoTime() - writeStart;
+            }
+            long end = System.nanoTime();
+            long runNanos = end - runStart - writeNanos;
+            long edges = graph != null ? graph.edgeCount() : 0;
+            summary(String.format(Locale.ROOT, "%s\t%s\t%s\t%s\t%s\t%.1f\t%.1f\t%.1f\t%.0f\t%.1f",
+                    file, engine,
+                    graph != null ? graph.vertexCount() : "-", graph != null ? edges : "-",
+                    result, (runStart - loadStart) / 1e6, runNanos / 1e6, writeNanos / 1e6,
+                    edges * 1e9 / Math.max(runNanos, 1), peakHeapBytes() / (1024.0 * 1024.0)));
+            if (metrics) {
+                summary("metrics\t" + file + "\t" + Metrics.snapshot().since(before).toJson());
+            }
+            return true;
+        } catch (NoSuchFileException ex) {
+            summary(file + "\t" + engine + "\t-\t-\terror: no such file");
+            return false;
+        } catch (IOException | RuntimeException ex) {
+            summary(file + "\t" + engine + "\t-\t-\terror: " + (ex.getMessage() != null ? ex.getMessage() : ex.toString()));
+            return false;
+        }
+    }
+
+    // Where the result lines of one file go
+    private Writer resultWriter(Path file) throws IOException {
+        if (toStdout) {
+            // Shared with the summary rows; closing the result must not close stdout
+            return new Writer() {
+                @Override
+                public void write(char[] buffer, int offset, int length) throws IOException {
+                    stdout.write(buffer, offset, length);
+                }
+
+                @Override
+                public void flush() {
+                }
+
+                @Override
+                public void close() {
+                }
+            };
+        }
+        if (outputDir == null || "streaming".equals(engine)) {
+            return Writer.nullWriter();
+        }
+        FileChannel channel = FileChannel.open(outputDir.resolve(file.getFileName() + "." + engine + ".txt"),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        return new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8), WRITE_BUFFER);
+    }
+
+    private void summary(String line) throws IOException {
+        if (toStdout) stdout.write("# ");
+        stdout.write(line);
+        stdout.write('\n');
+    }
+
+    private Task taskFor(String name) {
+        return switch (name) {
+            case "prim", "dense", "kruskal", "boruvka", "auto" -> mst(name);
+            case "forest" -> GraphCli::forest;
+            case "streaming" -> this::streaming;
+            case "connectivity" -> GraphCli::connectivity;
+            case "paths" -> this::paths;
+            default -> throw new IllegalArgumentException("Unknown engine: " + name);
+        };
+    }
+
+    private Task mst(String name) {
+        MstEngine mstEngine = MstEngine.byKey(name);
+        return (file, graph, out) -> {
+            if (graph.vertexCount() == 0) return "cost=0";
+            int[] tree = mstEngine.run(graph, sourceFor(graph));
+            double cost = 0;
+            for (int e : tree) {
+                cost += graph.edgeWeight(e);
+                writeEdge(out, graph, e);
+            }
+            return String.format(Locale.ROOT, "cost=%.6f", cost);
+        };
+    }
+
+    private static String forest(Path file, Graph graph, Writer out) throws IOException {
+        SpanningForest forest = SpanningForest.compute(graph, MstEngine.AUTO);
+        for (int c = 0; c < forest.getComponentCount(); c++) {
+            for (int e : forest.getTree(c).edges()) {
+                out.write(c + " ");
+                writeEdge(out, graph, e);
+            }
+        }
+        return String.format(Locale.ROOT, "cost=%.6f components=%d", forest.getTotalCost(), forest.getComponentCount());
+    }
+
+    private String streaming(Path file, Graph ignored, Writer out) throws IOException {
+        boolean binary = GraphFile.isGraphFile(file);
+        Path input = binary ? file : Files.createTempFile("graph", ".rgraph");
+        Path tree = outputDir != null ? outputDir.resolve(file.getFileName() + ".streaming.rgraph")
+                : Files.createTempFile("tree", ".rgraph");
+        try {
+            if (!binary) EdgeListImporter.convert(file, input);
+            StreamingMST.Result result = new StreamingMST().run(input, tree);
+            if (toStdout) {
+                try (GraphFile.EdgeCursor cursor = new GraphFile.EdgeCursor(tree)) {
+                    while (cursor.next()) {
+                        out.write(cursor.from() + " " + cursor.to() + " " + cursor.weight() + "\n");
+                    }
+                }
+            }
+            return String.format(Locale.ROOT, "cost=%.6f%s edges_read=%d", result.totalWeight,
+                    result.isSpanning() ? "" : " (forest)", result.edgesRead);
+        } finally {
+            if (!binary) Files.deleteIfExists(input);
+            if (outputDir == null) Files.deleteIfExists(tree);
+        }
+    }
+
+    private static String connectivity(Path file, Graph graph, Writer out) throws IOException {
+        DisjointSet sets = new DisjointSet(graph.vertexCount());
+        for (int e = 0; e < graph.edgeCount(); e++) {
+            sets.union(graph.edgeFrom(e), graph.edgeTo(e));
+        }
+        for (int v = 0; v < graph.vertexCount(); v++) {
+            out.write(v + " " + sets.find(v) + "\n");
+        }
+        return "components=" + sets.count();
+    }
+
+    private String paths(Path file, Graph graph, Writer out) throws IOException {
+        if (graph.vertexCount() == 0) return "reached=0";
+        ShortestPaths paths = new ShortestPaths(graph);
+        int source = sourceFor(graph);
+        if (options.containsKey("target")) {
+            int target = Integer.parseInt(options.get("target"));
+            double distance = paths.routeAStar(source, target);
+            for (int e : paths.pathEdges(target)) {
+                writeEdge(out, graph, e);
+            }
+            return String.format(Locale.ROOT, "distance=%.6f settled=%d", distance, paths.settledCount());
+        }
+
+        paths.computeTree(source);
+        for (int i = 0; i < paths.settledCount(); i++) {
+            int v = paths.settledVertex(i);
+            int parent = v == source ? -1 : graph.other(paths.parentEdge(v), v);
+            out.write(v + " " + paths.distance(v) + " " + parent + "\n");
+        }
+        return "reached=" + paths.settledCount();
+    }
+
+    private int sourceFor(Graph graph) {
+        int source = Integer.parseInt(options.getOrDefault("source", "0"));
+        if (source < 0 || source >= graph.vertexCount()) {
+            throw new IllegalArgumentException("Invalid source node: " + source);
+        }
+        return source;
+    }
+
+    private static void writeEdge(Writer out, Graph graph, int e) throws IOException {
+        out.write(graph.edgeFrom(e) + " " + graph.edgeTo(e) + " " + graph.edgeWeight(e) + "\n");
+    }
+
+    private static void resetPeakHeap() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) pool.resetPeakUsage();
+        }
+    }
+
+    // Sum of the heap pools' peaks since the last reset (an upper bound on the peak heap in use)
+    private static long peakHeapBytes() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.getPeakUsage() != null) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peak;
+    }
+}
@@ -1,30 +1,64 @@
+import java.io.File;
+import java.io.IOException;
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
+import java.util.function.IntFunction;
 import javafx.application.Platform;
+import javafx.scene.Node;
 import javafx.scene.control.Button;
 import javafx.scene.control.ComboBox;
 import javafx.scene.control.Label;
-import javafx.scene.control.TextArea;
 import javafx.scene.layout.Pane;
 
 public class GraphController {
 
     // UI components
     private final Pane graphPane;                // Pane where the graph is drawn
-    private final TextArea consoleArea;         // Console for logging messages
+    private final LogBuffer logBuffer;          // Console log, drained into the log view once per pulse
     private final ComboBox<String> sourceComboBox; // Dropdown to choose the starting node
     private final Label totalCostLabel;         // Shows the total MST cost
     private final Button runPrimBtn;            // Button to run Prim's algorithm
 
     // Data structures
     private final Map<String, Vertex> vertices = new LinkedHashMap<>(); // all vertices
-    private final List<Edge> edges = new ArrayList<>();                 // all edges
+    private final Set<Edge> edges = new LinkedHashSet<>();              // all edges, in insertion order (the view's edge ids)
+    private final Map<Vertex, Set<Edge>> incidentEdges = new HashMap<>();  // edges touching each vertex
+    private final Map<VertexPair, Edge> edgeByPair = new HashMap<>();   // edge for each unordered pair of vertices
+    private GraphView graphView = null;                                 // headless core mapped onto the above, rebuilt on demand
+    private long revision = 0;                                          // bumped on every structural edit
+    private final MstCache mstCache = new MstCache();                   // MST results per revision, engine and source
+    private ShortestPaths shortestPaths = null;                         // routing state for the current revision
+    private ForwardingTables forwardingTables = null;                   // next-hop tables for the current revision
+    private DistanceVectorSimulator distanceVector = null;              // kept across link cuts only
+    private GraphView distanceVectorView = null;                        // view the simulator was built on
+    private final ConnectivityTracker connectivity = new ConnectivityTracker(); // kept up to date on every edit
+    private final DynamicMST liveMst = new DynamicMST();                // MST kept up to date on every edit
+    private GraphCanvas canvas = null;                                  // view of a loaded graph too large for the editor
+    private final ComputeService computeService = new ComputeService(); // runs MST and routing work off the FX thread
+    private boolean computeOnRevision = false;                          // the running job's result is for the current revision
+    private int canvasSource = 0;                                       // MST source on the canvas
+    private List<Edge> shownTree = null;                                // edges of the MST or forest last shown in the editor
+    // Ids used by both trackers; they hand out ids in the same order, so one map serves both
+    private final Map<Vertex, Integer> trackerVertexIds = new HashMap<>();
+    private final Map<Edge, Integer> trackerEdgeIds = new HashMap<>();
+
+    // Open batch of edits (see batch()): scene nodes and UI refreshes are held back until it ends
+    private int batchDepth = 0;
+    private boolean batchChanged = false;                               // the batch edited the graph
+    private final Set<Node> pendingChildren = new LinkedHashSet<>();    // nodes to add, in order
+    private final Set<Node> removedChildren = new HashSet<>();          // nodes to remove
 
     private Vertex selectedVertexForEdgeStart = null;  // selected vertex to start an edge
     private Vertex selectedVertexForEdgeEnd = null;    // selected vertex to end an edge
 
     private final AnimationManager animationManager;   // handles animations
     private int animationDelay = 700;                  // delay for animations
+    private MstEngine mstEngine = MstEngine.AUTO;      // algorithm used by the Run button
     private int vertexCounter = 0;                     // counter for naming vertices
+    private static final int CANVAS_VERTEX_THRESHOLD = 2000; // larger loaded graphs go on the canvas
+    private static final int CANVAS_EDGE_THRESHOLD = 2000;
+    private static final int MAX_ISLANDS_LOGGED = 10;
 
     // Modes
     private boolean addVertexMode = false;
@@ -32,10 +66,23 @@ public class GraphController {
     private boolean removeNodeMode = false;
     private boolean removeEdgeMode = false;
 
-    public GraphController(Pane graphPane, TextArea consoleArea,
+    // Outcome of an MST run on the canvas: the trace, or the spanning forest if disconnected
+    private record CanvasMst(MstTrace trace, SpanningForest forest) { }
+
+    // A distance-vector simulator and the result of its first convergence
+    private record Converged(DistanceVectorSimulator simulator, DistanceVectorSimulator.Result result) { }
+
+    // Unordered pair of vertices by tracker id, the smaller id first
+    private record VertexPair(int first, int second) {
+        static VertexPair of(int a, int b) {
+            return a <= b ? new VertexPair(a, b) : new VertexPair(b, a);
+        }
+    }
+
+    public GraphController(Pane graphPane, LogBuffer logBuffer,
                            ComboBox<String> sourceComboBox, Label totalCostLabel, Button runPrimBtn) {
         this.graphPane = graphPane;
-        this.consoleArea = consoleArea;
+        this.logBuffer = logBuffer;
         this.sourceComboBox = sourceComboBox;
         this.totalCostLabel = totalCostLabel;
         this.runPrimBtn = runPrimBtn;
@@ -116,10 +163,74 @@ public class GraphController {
         log("Mode: Click on an edge to remove it");
     }
 
+    /**
+     * Applies many edits as one. Inside edits, addVertexAt, addEdge and the remove methods
+     * only update the model: their scene nodes are added and removed in one go, and the
+     * revision, source dropdown, run button and log are brought up to date once, when the
+     * outermost batch ends (even if edits throws). Edge removals in a batch don't reconverge
+     * a running distance-vector simulation; the batch ends it like any other edit.
+     */
+    public void batch(Runnable edits) {
+        batchDepth++;
+        try {
+            edits.run();
+        } finally {
+            if (--batchDepth == 0) {
+                commitBatch();
+            }
+        }
+    }
+
+    private void commitBatch() {
+        if (!removedChildren.isEmpty()) {
+            graphPane.getChildren().removeAll(removedChildren);   // one pass, hashed lookups
+            removedChildren.clear();
+        }
+        if (!pendingChildren.isEmpty()) {
+            graphPane.getChildren().addAll(pendingChildren);
+            pendingChildren.clear();
+        }
+        if (batchChanged) {
+            batchChanged = false;
+            invalidateGraphView();
+            updateSourceVertexOptions();
+            updateRunButtonState();
+        }
+    }
+
+    public boolean isInBatch() {
+        return batchDepth > 0;
+    }
+
+    private void addChildren(Node... nodes) {
+        if (batchDepth == 0) {
+            graphPane.getChildren().addAll(nodes);
+            return;
+        }
+        for (Node node : nodes) {
+            if (!removedChildren.remove(node)) pendingChildren.add(node);
+        }
+    }
+
+    private void removeChildren(Node... nodes) {
+        if (batchDepth == 0) {
+            graphPane.getChildren().removeAll(nodes);
+            return;
+        }
+        for (Node node : nodes) {
+            if (!pendingChildren.remove(node)) removedChildren.add(node);
+        }
+    }
+
+    // Log one edit, unless it is part of a batch
+    private void logEdit(String message) {
+        if (batchDepth == 0) log(message);
+    }
+
     /**
      //Add a new vertex at the given (x, y) position.
      */
-    public void addVertexAt(double x, double y) {
+    public Vertex addVertexAt(double x, double y) {
         String label = getNextNodeLabel();
         Vertex vertex = new Vertex(label, x, y);
 
@@ -127,25 +238,23 @@ public class GraphController {
         vertex.setOnDragged(this::updateConnectedEdges);
 
         vertices.put(label, vertex);
-        graphPane.getChildren().addAll(vertex.getCircle(), vertex.getLabelNode());
+        incidentEdges.put(vertex, new LinkedHashSet<>());
+        trackerVertexIds.put(vertex, connectivity.addVertex());
+        liveMst.addVertex();
+        invalidateGraphView();
+        addChildren(vertex.getCircle(), vertex.getLabelNode());
 
         updateSourceVertexOptions();
         updateRunButtonState();
-        log("Added node " + label + " at (" + (int)x + ", " + (int)y + ")");
+        logEdit("Added node " + label + " at (" + (int)x + ", " + (int)y + ")");
+        return vertex;
     }
 
     /**
-     * Generate next label (A, B, ..., AA, AB, etc.).
+     * Generate next label (A, B, ..., AA, AB, ..., ZZ, AAA, etc.).
      */
     private String getNextNodeLabel() {
-        if (vertexCounter < 26) {
-            return String.valueOf((char)('A' + vertexCounter++));
-        } else {
-            int first = (vertexCounter - 26) / 26;
-            int second = (vertexCounter - 26) % 26;
-            vertexCounter++;
-            return "" + (char)('A' + first) + (char)('A' + second);
-        }
+        return LabelTable.nameFor(vertexCounter++);
     }
 
     /**
@@ -185,10 +294,8 @@ public class GraphController {
      * Updates edges connected to a vertex when dragged.
      */
     private void updateConnectedEdges(Vertex v) {
-        for (Edge edge : edges) {
-            if (edge.hasVertex(v)) {
-                edge.update();
-            }
+        for (Edge edge : incidentEdges.get(v)) {
+            edge.update();
         }
     }
 
@@ -205,62 +312,114 @@ public class GraphController {
                 return;
             }
 
-            Edge edge = new Edge(start, end, weight);
-            edges.add(edge);
-            graphPane.getChildren().addAll(edge.getLine(), edge.getWeightLabel());
+            addEdge(start, end, weight);
+        }
+    }
 
-            edge.getLine().setOnMouseClicked(e -> {
-                if (removeEdgeMode) {
-                    removeEdgeImmediately(edge);
-                }
-            });
+    /**
+     * Adds an edge between two existing vertices without asking for the weight.
+     */
+    public Edge addEdge(Vertex start, Vertex end, double weight) {
+        Edge edge = new Edge(start, end, weight);
+        edges.add(edge);
+        indexEdge(edge);
+        int u = trackerVertexIds.get(start);
+        int v = trackerVertexIds.get(end);
+        trackerEdgeIds.put(edge, connectivity.addEdge(u, v));
+        liveMst.addEdge(u, v, weight);
+        invalidateGraphView();
+        addChildren(edge.getLine(), edge.getWeightLabel());
+
+        edge.getLine().setOnMouseClicked(e -> {
+            if (removeEdgeMode) {
+                removeEdgeImmediately(edge);
+            }
+        });
 
-            edge.getWeightLabel().setOnMouseClicked(e -> {
-                if (removeEdgeMode) {
-                    removeEdgeImmediately(edge);
-                }
-            });
+        edge.getWeightLabel().setOnMouseClicked(e -> {
+            if (removeEdgeMode) {
+                removeEdgeImmediately(edge);
+            }
+        });
 
-            updateRunButtonState();
-            log("Added edge: " + start.getLabel() + " — " + end.getLabel() + " (" + weight + ")");
-        }
+        updateRunButtonState();
+        logEdit("Added edge: " + start.getLabel() + " — " + end.getLabel() + " (" + weight + ")");
+        return edge;
     }
 
     private boolean hasEdgeBetween(Vertex v1, Vertex v2) {
-        for (Edge e : edges) {
-            if (e.connects(v1, v2)) return true;
+        return edgeByPair.containsKey(pairOf(v1, v2));
+    }
+
+    // Keep the incidence lists and the pair index in step with the edge list
+    private void indexEdge(Edge edge) {
+        incidentEdges.get(edge.getStart()).add(edge);
+        if (edge.getEnd() != edge.getStart()) {
+            incidentEdges.get(edge.getEnd()).add(edge);
         }
-        return false;
+        edgeByPair.put(pairOf(edge.getStart(), edge.getEnd()), edge);
+    }
+
+    private void unindexEdge(Edge edge) {
+        incidentEdges.get(edge.getStart()).remove(edge);
+        incidentEdges.get(edge.getEnd()).remove(edge);
+        edgeByPair.remove(pairOf(edge.getStart(), edge.getEnd()));
+    }
+
+    private VertexPair pairOf(Vertex a, Vertex b) {
+        return VertexPair.of(trackerVertexIds.get(a), trackerVertexIds.get(b));
     }
 
     /**
      * Removes an edge immediately from graph.
      */
     public void removeEdgeImmediately(Edge edge) {
+        DistanceVectorSimulator simulator = distanceVector;
+        GraphView simulatorView = distanceVectorView;
+
         edges.remove(edge);
-        graphPane.getChildren().removeAll(edge.getLine(), edge.getWeightLabel());
-        log("Removed edge between " + edge.getStart().getLabel() + " and " + edge.getEnd().getLabel());
+        unindexEdge(edge);
+        removeFromTrackers(edge);
+        invalidateGraphView();
+        removeChildren(edge.getLine(), edge.getWeightLabel());
+        logEdit("Removed edge between " + edge.getStart().getLabel() + " and " + edge.getEnd().getLabel());
+
+        // A running distance-vector simulation sees the removal as a link failure
+        if (simulator != null && batchDepth == 0) {
+            distanceVector = simulator;
+            distanceVectorView = simulatorView;
+            reconvergeAfterCut(simulator, simulatorView.idOf(edge));
+        }
         updateRunButtonState();
     }
 
+    // Drop an edge from the connectivity tracker and the live MST
+    private void removeFromTrackers(Edge edge) {
+        int trackerId = trackerEdgeIds.remove(edge);
+        connectivity.removeEdge(trackerId);
+        liveMst.removeEdge(trackerId);
+    }
+
     /**
      * Removes a vertex and all its edges immediately.
      */
     public void removeVertexImmediately(Vertex v) {
-        List<Edge> toRemove = new ArrayList<>();
-        for (Edge e : edges) {
-            if (e.hasVertex(v)) toRemove.add(e);
-        }
-
-        for (Edge e : toRemove) {
+        for (Edge e : new ArrayList<>(incidentEdges.get(v))) {
             removeEdgeImmediately(e);
         }
 
-        graphPane.getChildren().removeAll(v.getCircle(), v.getLabelNode());
+        removeChildren(v.getCircle(), v.getLabelNode());
         vertices.remove(v.getLabel());
-        sourceComboBox.getItems().remove(v.getLabel());
+        incidentEdges.remove(v);
+        int trackerId = trackerVertexIds.remove(v);
+        connectivity.removeVertex(trackerId);
+        liveMst.removeVertex(trackerId);
+        invalidateGraphView();
+        if (batchDepth == 0) {
+            sourceComboBox.getItems().remove(v.getLabel());
+        }
 
-        log("Removed node " + v.getLabel());
+        logEdit("Removed node " + v.getLabel());
         updateRunButtonState();
     }
 
@@ -268,11 +427,24 @@ public class GraphController {
      * Clears the entire graph.
      */
     public void clearGraph() {
-        vertices.values().forEach(v -> graphPane.getChildren().removeAll(v.getCircle(), v.getLabelNode()));
-        edges.forEach(e -> graphPane.getChildren().removeAll(e.getLine(), e.getWeightLabel()));
+        batch(() -> {
+            vertices.values().forEach(v -> removeChildren(v.getCircle(), v.getLabelNode()));
+            edges.forEach(e -> removeChildren(e.getLine(), e.getWeightLabel()));
+        });
 
+        if (canvas != null) {
+            graphPane.getChildren().remove(canvas);
+            canvas = null;
+        }
         vertices.clear();
         edges.clear();
+        incidentEdges.clear();
+        edgeByPair.clear();
+        connectivity.clear();
+        liveMst.clear();
+        trackerVertexIds.clear();
+        trackerEdgeIds.clear();
+        invalidateGraphView();
         selectedVertexForEdgeStart = null;
         selectedVertexForEdgeEnd = null;
         vertexCounter = 0;
@@ -284,9 +456,184 @@ public class GraphController {
     }
 
     /**
-     * Runs Prim's algorithm with animation.
+     * Loads a graph file (binary graph file, CSV or DIMACS edge list) into the editor.
+     */
+    public void loadGraphFile(File file) {
+        try {
+            loadGraph(GraphFile.load(file.toPath()));
+        } catch (IOException | IllegalArgumentException ex) {
+            DialogUtil.showErrorDialog("Load Failed", "Could not load " + file.getName() + ": " + ex.getMessage());
+        }
+    }
+
+    /**
+     * Replaces the current graph with the given headless graph.
+     * Self-loops and repeated edges are skipped, since the editor doesn't allow them.
+     */
+    public void loadGraph(Graph graph) {
+        if (graph.vertexCount() > CANVAS_VERTEX_THRESHOLD || graph.edgeCount() > CANVAS_EDGE_THRESHOLD) {
+            showOnCanvas(graph);
+            return;
+        }
+
+        clearGraph();
+        double[][] positions = layoutInPane(graph);
+        Vertex[] vertexById = new Vertex[graph.vertexCount()];
+        int[] skipped = { 0 };
+        batch(() -> {
+            for (int v = 0; v < graph.vertexCount(); v++) {
+                vertexById[v] = addVertexAt(positions[0][v], positions[1][v]);
+            }
+            for (int e = 0; e < graph.edgeCount(); e++) {
+                Vertex start = vertexById[graph.edgeFrom(e)];
+                Vertex end = vertexById[graph.edgeTo(e)];
+                if (start == end || hasEdgeBetween(start, end)) {
+                    skipped[0]++;
+                    continue;
+                }
+                addEdge(start, end, graph.edgeWeight(e));
+            }
+        });
+        int skippedCount = skipped[0];
+
+        log("Loaded graph: " + graph.vertexCount() + " nodes, " + (graph.edgeCount() - skippedCount) + " edges"
+                + (skippedCount > 0 ? " (" + skippedCount + " self-loops/duplicates skipped)" : ""));
+    }
+
+    /**
+     * Shows a graph on the batched canvas renderer instead of creating scene nodes for it.
+     * The canvas is read-only: nodes can be moved and clicked (to pick the MST source), not edited.
+     */
+    private void showOnCanvas(Graph graph) {
+        clearGraph();
+        double[][] positions = layoutInPane(graph);
+        canvas = new GraphCanvas();
+        canvas.prefWidthProperty().bind(graphPane.widthProperty());
+        canvas.prefHeightProperty().bind(graphPane.heightProperty());
+        canvas.setGraph(graph, positions[0], positions[1]);
+        canvasSource = 0;
+        if (graph.vertexCount() > 0) {
+            canvas.setVertexStyle(canvasSource, GraphCanvas.VERTEX_SOURCE);
+        }
+
+        canvas.setOnVertexClicked(v -> {
+            canvas.setVertexStyle(canvasSource, GraphCanvas.VERTEX_DEFAULT);
+            canvasSource = v;
+            canvas.setVertexStyle(v, GraphCanvas.VERTEX_SOURCE);
+            log("Source node " + v + " (degree " + graph.degree(v) + ")");
+        });
+        canvas.setOnEdgeClicked(e -> log("Edge " + graph.edgeFrom(e) + " — " + graph.edgeTo(e)
+                + " (" + String.format("%.1f", graph.edgeWeight(e)) + ")"));
+        graphPane.getChildren().add(canvas);
+
+        log("Loaded graph: " + graph.vertexCount() + " nodes, " + graph.edgeCount() + " edges, shown on the canvas"
+                + " (scroll to zoom, drag to pan, click a node to make it the MST source)");
+        updateRunButtonState();
+    }
+
+    // MST of the canvas graph, highlighted on the canvas without animation
+    private void runCanvasMST() {
+        Graph graph = canvas.getGraph();
+        if (graph.vertexCount() < 2 || graph.edgeCount() == 0) {
+            DialogUtil.showErrorDialog("Insufficient Graph", "Add at least 2 nodes and edges");
+            return;
+        }
+
+        animationManager.stop();
+        canvas.resetStyles();
+        canvas.setVertexStyle(canvasSource, GraphCanvas.VERTEX_SOURCE);
+
+        MstEngine engine = mstEngine;
+        int source = canvasSource;
+        long runRevision = revision;
+        log("Running " + engine.getName() + "'s MST from: " + source);
+        compute(engine.getName() + "'s MST", monitor -> {
+            if (!PrimMST.isConnected(graph)) {
+                return new CanvasMst(null, SpanningForest.compute(graph, engine));
+            }
+            logSelection(engine, graph);
+            return new CanvasMst(mstCache.getOrComputeTrace(runRevision, engine, graph, source), null);
+        }, run -> playOnCanvas(graph, run));
+    }
+
+    private void playOnCanvas(Graph graph, CanvasMst run) {
+        if (run.trace() == null) {
+            // Forest edges on top of faded ones; islands other than the source's stand out
+            SpanningForest forest = run.forest();
+            canvas.setAllEdgeStyles(GraphCanvas.EDGE_FADED);
+            for (int e : forest.getEdges()) {
+                canvas.setEdgeStyle(e, GraphCanvas.EDGE_ACCEPTED);
+            }
+            int sourceIsland = forest.componentOf(canvasSource);
+            for (int v = 0; v < graph.vertexCount(); v++) {
+                if (v == canvasSource) continue;
+                canvas.setVertexStyle(v, forest.componentOf(v) == sourceIsland
+                        ? GraphCanvas.VERTEX_VISITED : GraphCanvas.VERTEX_HIGHLIGHTED);
+            }
+            logForest(forest, String::valueOf);
+            return;
+        }
+
+        MstTrace trace = run.trace();
+        log("Playing back " + trace.size() + " steps (set the speed to 0 to play as fast as possible)");
+        GraphCanvas target = canvas;
+        animationManager.setDelay(animationDelay);
+        animationManager.play(graph, trace, new AnimationManager.StyleTarget() {
+            @Override
+            public void styleEdge(int edge, byte style) {
+                target.setEdgeStyle(edge, style);
+            }
+
+            @Override
+            public void styleVertex(int vertex, byte style) {
+                target.setVertexStyle(vertex, style);
+            }
+        }, String::valueOf);
+    }
+
+    /**
+     * Scales the graph's coordinates into the pane, or places the nodes on a circle
+     * when the graph has no geometry.
+     */
+    private double[][] layoutInPane(Graph graph) {
+        int n = graph.vertexCount();
+        double width = graphPane.getWidth() > 0 ? graphPane.getWidth() : graphPane.getPrefWidth();
+        double height = graphPane.getHeight() > 0 ? graphPane.getHeight() : graphPane.getPrefHeight();
+        double margin = 30;
+
+        double minX = Double.POSITIVE_INFINITY, maxX = Double.NEGATIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+        for (int v = 0; v < n; v++) {
+            minX = Math.min(minX, graph.x(v));
+            maxX = Math.max(maxX, graph.x(v));
+            minY = Math.min(minY, graph.y(v));
+            maxY = Math.max(maxY, graph.y(v));
+        }
+        boolean hasGeometry = n > 1 && (maxX > minX || maxY > minY);
+
+        double[] xs = new double[n];
+        double[] ys = new double[n];
+        for (int v = 0; v < n; v++) {
+            if (hasGeometry) {
+                xs[v] = margin + (maxX > minX ? (graph.x(v) - minX) / (maxX - minX) : 0.5) * (width - 2 * margin);
+                ys[v] = margin + (maxY > minY ? (graph.y(v) - minY) / (maxY - minY) : 0.5) * (height - 2 * margin);
+            } else {
+                double angle = 2 * Math.PI * v / Math.max(n, 1);
+                xs[v] = width / 2 + Math.cos(angle) * (width / 2 - margin);
+                ys[v] = height / 2 + Math.sin(angle) * (height / 2 - margin);
+            }
+        }
+        return new double[][] { xs, ys };
+    }
+
+    /**
+     * Runs the selected MST algorithm (Prim's by default) with animation.
      */
     public void runPrimsMST() {
+        if (canvas != null) {
+            runCanvasMST();
+            return;
+        }
         String sourceLabel = sourceComboBox.getValue();
 
         if (sourceLabel == null || !vertices.containsKey(sourceLabel)) {
@@ -300,67 +647,327 @@ public class GraphController {
         }
 
         if (!isGraphConnected()) {
-            highlightDisconnectedNodes(sourceLabel);
-            DialogUtil.showErrorDialog("Disconnected Graph", "Nodes are not fully connected. MST cannot be run.");
-            log("MST run aborted: graph is disconnected.");
+            runSpanningForest();
             return;
         }
 
-        log("Running Prim's MST from: " + sourceLabel);
+        log("Running " + mstEngine.getName() + "'s MST from: " + sourceLabel);
+        log("Expected MST cost (kept up to date while editing): " + String.format("%.1f", liveMst.totalWeight()));
+        vertices.values().forEach(v -> v.highlight(false));   // clear island colours
         Vertex source = vertices.get(sourceLabel);
         if (source != null) {
             source.markAsSource(); // highlight source node
         }
 
-        animationManager.setDelay(animationDelay);
-        animationManager.animateMST(vertices, edges, sourceLabel);
+        GraphView view = graphView();
+        MstEngine engine = mstEngine;
+        int sourceId = view.idOf(sourceLabel);
+        long runRevision = revision;
+        compute(engine.getName() + "'s MST", monitor -> {
+            logSelection(engine, view.graph());
+            long hitsBefore = mstCache.getHits();
+            MstTrace trace = mstCache.getOrComputeTrace(runRevision, engine, view.graph(), sourceId);
+            if (mstCache.getHits() > hitsBefore) {
+                log("Graph unchanged since last run, reusing cached MST (revision " + runRevision + ")");
+            }
+            return trace;
+        }, trace -> {
+            shownTree = view.edges(trace.acceptedEdges());
+            animationManager.setDelay(animationDelay);
+            animationManager.play(view.graph(), trace, AnimationManager.editorTarget(view), view::label);
+        });
     }
 
     /**
-     * Checks if all nodes are connected.
+     * Minimum spanning forest of a disconnected graph: each island gets its own colour and
+     * minimum spanning tree, the other edges are faded, and the log lists the islands.
      */
-    private boolean isGraphConnected() {
-        if (vertices.isEmpty()) return true;
+    private void runSpanningForest() {
+        // The forest is already known: it was kept up to date on every edit
+        log("Graph is disconnected: showing the minimum spanning forest kept up to date while editing");
+        animationManager.stop();
+        GraphView view = graphView();
+        int[] forestEdges = liveForestEdges(view);
+        compute("Spanning forest", monitor -> SpanningForest.of(view.graph(), forestEdges), forest -> {
+            shownTree = view.edges(forest.getEdges());
+            edges.forEach(Edge::fade);
+            for (Edge edge : shownTree) {
+                edge.highlight("accepted");
+            }
+            for (int v = 0; v < view.graph().vertexCount(); v++) {
+                view.vertex(v).resetStyle();
+                view.vertex(v).markIsland(forest.componentOf(v));
+            }
+            updateTotalCost(forest.getTotalCost());
+            logForest(forest, view::label);
+        });
+    }
+
+    // The edges of the live MST as ids in view
+    private int[] liveForestEdges(GraphView view) {
+        int[] result = new int[liveMst.treeEdgeCount()];
+        int size = 0;
+        for (Map.Entry<Edge, Integer> entry : trackerEdgeIds.entrySet()) {
+            if (liveMst.isTreeEdge(entry.getValue())) {
+                result[size++] = view.idOf(entry.getKey());
+            }
+        }
+        return result;
+    }
+
+    // Summary of a spanning forest, largest islands first
+    private void logForest(SpanningForest forest, IntFunction<String> label) {
+        log(forest.getComponentCount() + " islands, " + forest.getEdges().length + " forest edges, total cost "
+                + String.format("%.1f", forest.getTotalCost()));
+        List<SpanningForest.Tree> largest = new ArrayList<>(forest.getTrees());
+        largest.sort(Comparator.comparingInt(SpanningForest.Tree::size).reversed());
+        int shown = Math.min(largest.size(), MAX_ISLANDS_LOGGED);
+        for (SpanningForest.Tree tree : largest.subList(0, shown)) {
+            log("  Island of " + label.apply(tree.vertices()[0]) + ": " + tree.size() + " nodes, cost "
+                    + String.format("%.1f", tree.cost()));
+        }
+        if (largest.size() > shown) {
+            log("  ... and " + (largest.size() - shown) + " smaller islands");
+        }
+    }
+
+    // Say which engine an adaptive engine picked; log() may be called from the workers
+    private void logSelection(MstEngine engine, Graph graph) {
+        MstEngine selected = engine.selectFor(graph);
+        if (selected != engine) {
+            log(engine.getName() + " picked " + selected.getName() + " for " + graph.vertexCount()
+                    + " vertices and " + graph.edgeCount() + " edges");
+        }
+    }
+
+    // Playback controls for the MST animation
+    public void togglePlayback() {
+        if (animationManager.isPlaying()) {
+            animationManager.pause();
+        } else {
+            animationManager.resume();
+        }
+    }
+
+    public void stepPlayback(int direction) {
+        animationManager.step(direction);
+    }
 
-        Set<String> visited = new HashSet<>();
-        String startNode = vertices.keySet().iterator().next();
-        dfs(startNode, visited);
+    public void seekPlayback(double fraction) {
+        animationManager.seek(fraction);
+    }
 
-        return visited.size() == vertices.size();
+    public void setOnPlaybackProgress(DoubleConsumer listener) {
+        animationManager.setOnProgress(listener);
     }
 
     /**
-     * Highlights nodes that are disconnected.
+     * Finds and highlights the shortest route from the selected source node to the target (A*).
      */
-    private void highlightDisconnectedNodes(String sourceLabel) {
-        Set<String> visited = new HashSet<>();
-        dfs(sourceLabel, visited);
+    public void runShortestPath(String targetLabel) {
+        String sourceLabel = sourceComboBox.getValue();
 
-        for (Vertex v : vertices.values()) {
-            boolean isDisconnected = !visited.contains(v.getLabel());
-            v.highlight(isDisconnected);
+        if (sourceLabel == null || !vertices.containsKey(sourceLabel)) {
+            DialogUtil.showErrorDialog("Source Required", "Select a source node first");
+            return;
+        }
+        if (targetLabel == null || !vertices.containsKey(targetLabel)) {
+            DialogUtil.showErrorDialog("Target Required", "Select a target node first");
+            return;
         }
+
+        GraphView view = graphView();
+        int source = view.idOf(sourceLabel);
+        int target = view.idOf(targetLabel);
+        // The job owns the routing state until it publishes, so no two threads share it
+        ShortestPaths cached = shortestPaths;
+        shortestPaths = null;
+        compute("Shortest path", monitor -> {
+            ShortestPaths paths = cached != null ? cached : new ShortestPaths(view.graph());
+            paths.routeAStar(source, target);
+            return paths;
+        }, paths -> {
+            shortestPaths = paths;
+            double distance = paths.distance(target);
+            edges.forEach(Edge::resetStyle);
+            if (distance == Double.POSITIVE_INFINITY) {
+                log("No route from " + sourceLabel + " to " + targetLabel);
+                return;
+            }
+
+            List<Edge> route = view.edges(paths.pathEdges(target));
+            route.forEach(edge -> edge.highlight("accepted"));
+            log("Shortest route " + sourceLabel + " → " + targetLabel + ": " + String.format("%.1f", distance)
+                    + " over " + route.size() + " edges (" + paths.settledCount() + " nodes settled)");
+        });
     }
 
     /**
-     * Simple depth-first search.
+     * Logs the forwarding table of the selected source node: the neighbour it sends
+     * traffic to for every destination. Tables for all nodes are built together.
      */
-    private void dfs(String current, Set<String> visited) {
-        visited.add(current);
-        for (Edge edge : edges) {
-            String v1 = edge.getStart().getLabel();
-            String v2 = edge.getEnd().getLabel();
+    public void showForwardingTable() {
+        String sourceLabel = sourceComboBox.getValue();
+        if (sourceLabel == null || !vertices.containsKey(sourceLabel)) {
+            DialogUtil.showErrorDialog("Source Required", "Select a source node first");
+            return;
+        }
+
+        GraphView view = graphView();
+        if (forwardingTables != null) {
+            logForwardingTable(view, forwardingTables, sourceLabel);
+            return;
+        }
+        compute("Forwarding tables", monitor -> ForwardingTables.build(view.graph()), tables -> {
+            forwardingTables = tables;
+            logForwardingTable(view, tables, sourceLabel);
+        });
+    }
+
+    private void logForwardingTable(GraphView view, ForwardingTables tables, String sourceLabel) {
+        int router = view.idOf(sourceLabel);
+        log("Forwarding table of " + sourceLabel + ":");
+        for (int destination = 0; destination < tables.routerCount(); destination++) {
+            if (destination == router) continue;
+            int hop = tables.nextHop(router, destination);
+            log("  " + view.label(destination) + " → "
+                    + (hop < 0 ? "unreachable" : "via " + view.label(hop)));
+        }
+    }
+
+    /**
+     * Starts a distance-vector (Bellman-Ford) simulation with one router per node and runs it
+     * to convergence. Removing edges afterwards cuts the matching links in the simulation.
+     */
+    public void runDistanceVector() {
+        if (vertices.isEmpty()) {
+            DialogUtil.showErrorDialog("Empty Graph", "Add some nodes first");
+            return;
+        }
+        GraphView view = graphView();
+        distanceVector = null;
+        distanceVectorView = null;
+        compute("Distance vector", monitor -> {
+            DistanceVectorSimulator simulator = new DistanceVectorSimulator(view.graph());
+            return new Converged(simulator, simulator.converge());
+        }, run -> {
+            distanceVector = run.simulator();
+            distanceVectorView = view;
+            logDistanceVector("Distance-vector routing converged", run.result());
+        });
+    }
+
+    // Cut a link in the running simulation and re-converge, both off the FX thread
+    private void reconvergeAfterCut(DistanceVectorSimulator simulator, int link) {
+        // The cut is applied when the job's converge() starts; a cancelled earlier run keeps
+        // the simulator until it finishes its round, and only the worker waits for that
+        simulator.cutEdgeLater(link);
+        computeService.submit("Distance vector", monitor -> {
+            synchronized (simulator) {
+                return simulator.converge();
+            }
+        }, result -> logDistanceVector("Re-converged after the link failure", result), this::showComputeFailure);
+        // Still valid after later edits: the simulator hears about those as further cuts
+        computeOnRevision = false;
+    }
 
-            if (v1.equals(current) && !visited.contains(v2)) {
-                dfs(v2, visited);
-            } else if (v2.equals(current) && !visited.contains(v1)) {
-                dfs(v1, visited);
+    private void logDistanceVector(String what, DistanceVectorSimulator.Result result) {
+        if (!result.converged()) {
+            what = "Distance-vector routing stopped without converging";
+        }
+        log(what + ": " + result.rounds() + " rounds, " + result.messages() + " messages ("
+                + result.entries() + " vector entries), " + String.format("%.1f ms", result.elapsedMillis()));
+    }
+
+    /**
+     * Runs work off the FX thread and publishes the result on it, unless the graph has been
+     * edited in the meantime. Starting another computation cancels this one.
+     */
+    private <T> void compute(String what, ComputeService.Work<T> work, Consumer<T> publish) {
+        long startRevision = revision;
+        computeService.submit(what, work, result -> {
+            if (revision != startRevision) {
+                log(what + ": graph changed while computing, result discarded");
+                return;
             }
+            publish.accept(result);
+        }, this::showComputeFailure);
+        computeOnRevision = true;
+    }
+
+    private void showComputeFailure(Throwable failure) {
+        String message = failure.getMessage() != null ? failure.getMessage() : failure.toString();
+        DialogUtil.showErrorDialog("Computation Failed", message);
+        log(computeService.taskNameProperty().get() + " failed: " + message);
+    }
+
+    // Stop the running computation, if any
+    public void cancelComputation() {
+        String what = computeService.taskNameProperty().get();
+        if (computeService.cancel()) {
+            log(what + " cancelled");
+        }
+    }
+
+    public ComputeService getComputeService() {
+        return computeService;
+    }
+
+    // Labels of all current nodes, in insertion order
+    public List<String> getVertexLabels() {
+        return new ArrayList<>(vertices.keySet());
+    }
+
+    /**
+     * Checks if all nodes are connected. The tracker is updated on every edit,
+     * so this is near O(1) unless an edge or node was removed since the last check.
+     */
+    private boolean isGraphConnected() {
+        return connectivity.isConnected();
+    }
+
+    /**
+     * Returns the headless graph for the current vertices and edges,
+     * rebuilding it only after the graph has been edited.
+     */
+    private GraphView graphView() {
+        if (graphView == null) {
+            graphView = GraphView.of(vertices, edges);
+        }
+        return graphView;
+    }
+
+    // Drop the cached core graph and move to a new revision after any structural edit
+    private void invalidateGraphView() {
+        graphView = null;
+        if (batchDepth > 0) {
+            batchChanged = true;   // the rest happens once, when the batch ends
+            return;
         }
+        animationManager.stop();   // its trace refers to the old edge ids
+        if (computeOnRevision) {
+            computeService.cancel();   // its result would be discarded anyway
+        }
+        graphView = null;
+        shortestPaths = null;
+        forwardingTables = null;
+        shownTree = null;
+        distanceVector = null;
+        distanceVectorView = null;
+        revision++;
+    }
+
+    public long getRevision() {
+        return revision;
+    }
+
+    public MstCache getMstCache() {
+        return mstCache;
     }
 
     // Update dropdown options with current vertices
     private void updateSourceVertexOptions() {
+        if (batchDepth > 0) return;   // refreshed when the batch ends
         Platform.runLater(() -> {
             sourceComboBox.getItems().clear();
             sourceComboBox.getItems().addAll(vertices.keySet());
@@ -369,8 +976,14 @@ public class GraphController {
 
     // Enable/disable Run button based on graph state
     private void updateRunButtonState() {
+        if (batchDepth > 0) return;   // refreshed when the batch ends
         Platform.runLater(() -> {
-            runPrimBtn.setDisable(vertices.size() < 2 || edges.isEmpty() || !isGraphConnected());
+            if (canvas != null) {
+                runPrimBtn.setDisable(canvas.getGraph().vertexCount() < 2 || canvas.getGraph().edgeCount() == 0);
+                return;
+            }
+            // Disconnected graphs get a spanning forest
+            runPrimBtn.setDisable(vertices.size() < 2 || edges.isEmpty());
         });
     }
 
@@ -379,33 +992,55 @@ public class GraphController {
         Platform.runLater(() -> totalCostLabel.setText("Total Cost: " + String.format("%.1f", totalCost)));
     }
 
-    // Log messages to the console
+    // Log messages to the console; safe from any thread and never blocks
     public void log(String message) {
-        Platform.runLater(() -> consoleArea.appendText("• " + message + "\n"));
+        logBuffer.offer("• " + message);
     }
 
-    public void fadeNonMSTEdges(List<Edge> mstEdges) {
-        for (Edge edge : edges) {
-            if (!mstEdges.contains(edge)) {
-                edge.fade();
-            }
+    /**
+     * Deletes the edges outside the MST (or forest) shown last, leaving only the tree.
+     */
+    public void removeNonTreeEdges() {
+        if (canvas != null) {
+            DialogUtil.showErrorDialog("Not Editable", "Loaded graphs shown on the canvas can't be edited");
+            return;
         }
+        if (shownTree == null) {
+            DialogUtil.showErrorDialog("MST Required", "Run MST on the current graph first");
+            return;
+        }
+        List<Edge> tree = shownTree;
+        int removed = edges.size() - tree.size();
+        removeEdgesOutsideMST(tree);
+        tree.forEach(edge -> edge.highlight("accepted"));
+        log("Removed " + removed + " edges outside the MST");
     }
 
     public void removeEdgesOutsideMST(List<Edge> mstEdges) {
+        Set<Edge> keep = new HashSet<>(mstEdges);
         List<Edge> toRemove = new ArrayList<>();
         for (Edge edge : edges) {
-            if (!mstEdges.contains(edge)) {
+            if (!keep.contains(edge)) {
                 toRemove.add(edge);
             }
         }
-        for (Edge e : toRemove) {
-            graphPane.getChildren().removeAll(e.getLine(), e.getWeightLabel());
-        }
-        edges.removeAll(toRemove);
+        batch(() -> {
+            for (Edge e : toRemove) {
+                removeChildren(e.getLine(), e.getWeightLabel());
+                unindexEdge(e);
+                removeFromTrackers(e);
+            }
+            edges.retainAll(keep);
+            invalidateGraphView();
+        });
     }
 
     public void setAnimationDelay(int delay) {
         this.animationDelay = delay;
+        animationManager.setDelay(delay);
+    }
+
+    public void setMstEngine(MstEngine engine) {
+        this.mstEngine = engine;
     }
 }
@@ -0,0 +1,397 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Compact binary graph file, read through memory-mapped {@link FileChannel}s.
+ * <pre>
+ * header   32 bytes   magic "RGRF", version, flags, reserved, vertex count (long), edge count (long)
+ * edges    16 bytes   per edge: int u, int v, double weight
+ * coords   16 bytes   per vertex: double x, double y   (only when FLAG_COORDINATES is set)
+ * </pre>
+ * All values are little-endian. Edges come before the coordinates so a file can be written
+ * in one streaming pass when the vertex count is only known at the end (see {@link Writer}).
+ */
+public class GraphFile {
+
+    public static final int MAGIC = 0x46524752;         // "RGRF" read as a little-endian int
+    public static final int VERSION = 1;
+    public static final int FLAG_COORDINATES = 1;
+
+    public static final int HEADER_BYTES = 32;
+    public static final int EDGE_BYTES = 16;
+    public static final int VERTEX_BYTES = 16;
+
+    // Largest region mapped at once (a MappedByteBuffer is limited to 2 GB); a multiple of
+    // both record sizes, so records never straddle two chunks
+    private static final long MAP_CHUNK = 1L << 30;
+
+    /**
+     * Read a whole graph file into a {@link Graph}.
+     */
+    public static Graph read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            Header header = readHeader(channel, path);
+            long vertexCount = header.vertexCount;
+            long edgeCount = header.edgeCount;
+            if (vertexCount > Integer.MAX_VALUE || edgeCount > Integer.MAX_VALUE - 8) {
+                throw new IOException("Graph too large for in-memory arrays: " + vertexCount + " vertices, "
+                        + edgeCount + " edges");
+            }
+
+            long coordsOffset = HEADER_BYTES + edgeCount * EDGE_BYTES;
+            long expectedSize = header.fileSize();
+
+            int m = (int) edgeCount;
+            int[] from = new int[m];
+            int[] to = new int[m];
+            double[] weight = new double[m];
+            int e = 0;
+            for (long offset = HEADER_BYTES; offset < coordsOffset; ) {
+                long length = Math.min(MAP_CHUNK, coordsOffset - offset);
+                ByteBuffer chunk = map(channel, offset, length);
+                while (chunk.remaining() >= EDGE_BYTES) {
+                    from[e] = chunk.getInt();
+                    to[e] = chunk.getInt();
+                    weight[e] = chunk.getDouble();
+                    e++;
+                }
+                offset += length;
+            }
+
+            int n = (int) vertexCount;
+            double[] xs = null;
+            double[] ys = null;
+            if (header.hasCoordinates()) {
+                xs = new double[n];
+                ys = new double[n];
+                int v = 0;
+                for (long offset = coordsOffset; offset < expectedSize; ) {
+                    long length = Math.min(MAP_CHUNK, expectedSize - offset);
+                    ByteBuffer chunk = map(channel, offset, length);
+                    while (chunk.remaining() >= VERTEX_BYTES) {
+                        xs[v] = chunk.getDouble();
+                        ys[v] = chunk.getDouble();
+                        v++;
+                    }
+                    offset += length;
+                }
+            }
+            return Graph.wrap(n, from, to, weight, xs, ys);
+        }
+    }
+
+    /**
+     * Read a graph file held in memory (e.g. a request body). The vertex count is checked
+     * against maxVertices before anything is allocated: without coordinates nothing else
+     * in the file bounds it.
+     */
+    public static Graph read(ByteBuffer data, int maxVertices) throws IOException {
+        ByteBuffer buffer = data.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.remaining() < HEADER_BYTES || buffer.getInt(buffer.position()) != MAGIC) {
+            throw new IOException("Not a graph file");
+        }
+        int start = buffer.position();
+        if (buffer.getInt(start + 4) != VERSION) {
+            throw new IOException("Unsupported graph file version: " + buffer.getInt(start + 4));
+        }
+        Header header = new Header(buffer.getInt(start + 8), buffer.getLong(start + 16), buffer.getLong(start + 24));
+        if (header.vertexCount < 0 || header.edgeCount < 0 || header.vertexCount > Integer.MAX_VALUE
+                || header.edgeCount > Integer.MAX_VALUE - 8 || buffer.remaining() < header.fileSize()) {
+            throw new IOException("Truncated graph file");
+        }
+        if (header.vertexCount > maxVertices) {
+            throw new IOException("Too many vertices: " + header.vertexCount + " (at most " + maxVertices + ")");
+        }
+
+        int m = (int) header.edgeCount;
+        int n = (int) header.vertexCount;
+        int[] from = new int[m];
+        int[] to = new int[m];
+        double[] weight = new double[m];
+        buffer.position(start + HEADER_BYTES);
+        for (int e = 0; e < m; e++) {
+            from[e] = buffer.getInt();
+            to[e] = buffer.getInt();
+            weight[e] = buffer.getDouble();
+        }
+        double[] xs = null;
+        double[] ys = null;
+        if (header.hasCoordinates()) {
+            xs = new double[n];
+            ys = new double[n];
+            for (int v = 0; v < n; v++) {
+                xs[v] = buffer.getDouble();
+                ys[v] = buffer.getDouble();
+            }
+        }
+        try {
+            return Graph.wrap(n, from, to, weight, xs, ys);
+        } catch (IllegalArgumentException ex) {
+            throw new IOException(ex.getMessage());
+        }
+    }
+
+    /**
+     * Write some edges of a graph (e.g. its MST) to a stream as a graph file, keeping the
+     * vertex count and leaving out the coordinates. It takes {@link #encodedSize} bytes and
+     * goes out through one small buffer, so the file is never held in memory.
+     */
+    public static void write(Graph graph, int[] edges, OutputStream out) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(Math.min(HEADER_BYTES + edges.length * EDGE_BYTES, 1 << 16))
+                .order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(0).putInt(0)
+                .putLong(graph.vertexCount()).putLong(edges.length);
+        for (int e : edges) {
+            if (buffer.remaining() < EDGE_BYTES) {
+                out.write(buffer.array(), 0, buffer.position());
+                buffer.clear();
+            }
+            buffer.putInt(graph.edgeFrom(e)).putInt(graph.edgeTo(e)).putDouble(graph.edgeWeight(e));
+        }
+        out.write(buffer.array(), 0, buffer.position());
+    }
+
+    // Size of a graph file written by write(graph, edges, out)
+    public static long encodedSize(int edgeCount) {
+        return HEADER_BYTES + (long) edgeCount * EDGE_BYTES;
+    }
+
+    /**
+     * Read and validate the header of an open graph file.
+     */
+    public static Header readHeader(FileChannel channel, Path path) throws IOException {
+        if (channel.size() < HEADER_BYTES) {
+            throw new IOException("Not a graph file: " + path);
+        }
+        ByteBuffer buffer = map(channel, 0, HEADER_BYTES);
+        if (buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a graph file: " + path);
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException("Unsupported graph file version: " + buffer.getInt(4));
+        }
+        Header header = new Header(buffer.getInt(8), buffer.getLong(16), buffer.getLong(24));
+        if (header.vertexCount < 0 || header.edgeCount < 0 || channel.size() < header.fileSize()) {
+            throw new IOException("Truncated graph file: " + path);
+        }
+        return header;
+    }
+
+    /**
+     * The counts and flags stored at the start of a graph file.
+     */
+    public static class Header {
+        public final int flags;
+        public final long vertexCount;
+        public final long edgeCount;
+
+        Header(int flags, long vertexCount, long edgeCount) {
+            this.flags = flags;
+            this.vertexCount = vertexCount;
+            this.edgeCount = edgeCount;
+        }
+
+        public boolean hasCoordinates() {
+            return (flags & FLAG_COORDINATES) != 0;
+        }
+
+        // Size the file must have for these counts
+        public long fileSize() {
+            return HEADER_BYTES + edgeCount * EDGE_BYTES + (hasCoordinates() ? vertexCount * VERTEX_BYTES : 0);
+        }
+    }
+
+    /**
+     * Streams the edge records of a graph file through a sliding memory-mapped window,
+     * so files much larger than the heap can be scanned.
+     */
+    public static class EdgeCursor implements Closeable {
+        private static final long WINDOW = 64L << 20;   // multiple of EDGE_BYTES
+
+        private final FileChannel channel;
+        private final Header header;
+        private ByteBuffer window = ByteBuffer.allocate(0);
+        private long nextOffset = HEADER_BYTES;       // file offset of the next window
+        private final long endOffset;
+        private int from;
+        private int to;
+        private double weight;
+
+        public EdgeCursor(Path path) throws IOException {
+            this.channel = FileChannel.open(path, StandardOpenOption.READ);
+            try {
+                this.header = readHeader(channel, path);
+            } catch (IOException ex) {
+                channel.close();
+                throw ex;
+            }
+            this.endOffset = HEADER_BYTES + header.edgeCount * EDGE_BYTES;
+        }
+
+        public Header getHeader() { return header; }
+
+        /**
+         * Move to the next edge.
+         * @return false when all edges have been read
+         */
+        public boolean next() throws IOException {
+            if (!window.hasRemaining()) {
+                if (nextOffset >= endOffset) return false;
+                long length = Math.min(WINDOW, endOffset - nextOffset);
+                window = map(channel, nextOffset, length);
+                nextOffset += length;
+            }
+            from = window.getInt();
+            to = window.getInt();
+            weight = window.getDouble();
+            return true;
+        }
+
+        public int from() { return from; }
+        public int to() { return to; }
+        public double weight() { return weight; }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    /**
+     * True when the file starts with the graph file magic number.
+     */
+    public static boolean isGraphFile(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining()) {
+                if (channel.read(header) < 0) return false;
+            }
+            return header.getInt(0) == MAGIC;
+        }
+    }
+
+    /**
+     * Load either a binary graph file or a text edge list (converted through a temporary file).
+     */
+    public static Graph load(Path path) throws IOException {
+        if (isGraphFile(path)) {
+            return read(path);
+        }
+        Path temp = Files.createTempFile("graph", ".rgraph");
+        try {
+            EdgeListImporter.convert(path, temp);
+            return read(temp);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Write a graph, including its coordinates.
+     */
+    public static void write(Graph graph, Path path) throws IOException {
+        try (Writer writer = new Writer(path)) {
+            for (int e = 0; e < graph.edgeCount(); e++) {
+                writer.addEdge(graph.edgeFrom(e), graph.edgeTo(e), graph.edgeWeight(e));
+            }
+            writer.setVertexCount(graph.vertexCount());
+            for (int v = 0; v < graph.vertexCount(); v++) {
+                writer.addCoordinates(graph.x(v), graph.y(v));
+            }
+        }
+    }
+
+    private static MappedByteBuffer map(FileChannel channel, long offset, long length) throws IOException {
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        return buffer;
+    }
+
+    /**
+     * Streams edges (and optionally coordinates) into a graph file through a direct buffer,
+     * so the graph never has to be held in memory. The header is filled in on close.
+     * Edges must all be added before any coordinates.
+     */
+    public static class Writer implements Closeable, EdgeListImporter.EdgeSink {
+        private static final int BUFFER_BYTES = 1 << 20;
+
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        private long edgeCount = 0;
+        private long vertexCount = 0;       // highest vertex id + 1 unless set explicitly
+        private long coordinateCount = 0;
+
+        public Writer(Path path) throws IOException {
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            channel.position(HEADER_BYTES);
+        }
+
+        @Override
+        public void addEdge(int u, int v, double weight) throws IOException {
+            if (coordinateCount > 0) {
+                throw new IllegalStateException("Edges must be written before coordinates");
+            }
+            if (u < 0 || v < 0) {
+                throw new IllegalArgumentException("Invalid vertex id: " + Math.min(u, v));
+            }
+            ensureSpace(EDGE_BYTES);
+            buffer.putInt(u).putInt(v).putDouble(weight);
+            edgeCount++;
+            vertexCount = Math.max(vertexCount, Math.max(u, v) + 1L);
+        }
+
+        @Override
+        public void setVertexCount(long count) {
+            if (count < vertexCount) {
+                throw new IllegalArgumentException("Edges reference vertex " + (vertexCount - 1));
+            }
+            vertexCount = count;
+        }
+
+        public void addCoordinates(double x, double y) throws IOException {
+            ensureSpace(VERTEX_BYTES);
+            buffer.putDouble(x).putDouble(y);
+            coordinateCount++;
+        }
+
+        public long getEdgeCount() { return edgeCount; }
+        public long getVertexCount() { return vertexCount; }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                if (coordinateCount != 0 && coordinateCount != vertexCount) {
+                    throw new IOException("Wrote " + coordinateCount + " coordinates for " + vertexCount + " vertices");
+                }
+                flush();
+                ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+                header.putInt(MAGIC).putInt(VERSION).putInt(coordinateCount > 0 ? FLAG_COORDINATES : 0).putInt(0)
+                        .putLong(vertexCount).putLong(edgeCount).flip();
+                channel.write(header, 0);
+            } finally {
+                channel.close();
+            }
+        }
+
+        private void ensureSpace(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) flush();
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+}
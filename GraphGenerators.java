@@ -0,0 +1,168 @@
+import java.util.Random;
+
+/**
+ * Generators for synthetic test topologies, sized by the number of edges wanted.
+ * All graphs are connected (a random spanning tree is laid down first where the model
+ * itself doesn't guarantee it) and use random weights in [0.1, 10000), the same range
+ * the edge weight dialog accepts. The same seed always gives the same graph.
+ */
+public class GraphGenerators {
+
+    private static final double MIN_WEIGHT = 0.1;
+    private static final double MAX_WEIGHT = 10000.0;
+
+    // Topologies understood by generate(...)
+    public enum Topology { ERDOS_RENYI, GRID, GEOMETRIC, COMPLETE }
+
+    /**
+     * Generate a connected graph of the given topology with roughly the given number of edges.
+     */
+    public static Graph generate(Topology topology, long edges, long seed) {
+        switch (topology) {
+            case ERDOS_RENYI:
+                return erdosRenyi(Math.max(2, (int) (edges / 4)), edges, seed);
+            case GRID: {
+                int side = Math.max(2, (int) Math.sqrt(edges / 2.0));
+                return grid(side, side, seed);
+            }
+            case GEOMETRIC:
+                return randomGeometric(Math.max(2, (int) (edges / 4)), 8.0, seed);
+            case COMPLETE:
+                return complete(Math.max(2, (int) Math.round((1 + Math.sqrt(1 + 8.0 * edges)) / 2)), seed);
+            default:
+                throw new IllegalArgumentException("Unknown topology: " + topology);
+        }
+    }
+
+    /**
+     * G(n, m): a random spanning tree plus uniformly random extra edges up to m in total.
+     */
+    public static Graph erdosRenyi(int n, long m, long seed) {
+        Random random = new Random(seed);
+        Graph.Builder builder = new Graph.Builder(n, (int) Math.max(m, n - 1));
+        for (int v = 0; v < n; v++) {
+            builder.addVertex(random.nextDouble(), random.nextDouble());
+        }
+        addRandomSpanningTree(builder, n, random);
+        for (long e = n - 1; e < m; e++) {
+            int u = random.nextInt(n);
+            int v = random.nextInt(n - 1);
+            if (v >= u) v++;   // no self-loops
+            builder.addEdge(u, v, randomWeight(random));
+        }
+        return builder.build();
+    }
+
+    /**
+     * rows x cols grid with 4-neighbour links; vertices sit on the unit square.
+     */
+    public static Graph grid(int rows, int cols, long seed) {
+        Random random = new Random(seed);
+        Graph.Builder builder = new Graph.Builder(rows * cols, 2 * rows * cols);
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < cols; c++) {
+                builder.addVertex((double) c / cols, (double) r / rows);
+            }
+        }
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < cols; c++) {
+                int v = r * cols + c;
+                if (c + 1 < cols) builder.addEdge(v, v + 1, randomWeight(random));
+                if (r + 1 < rows) builder.addEdge(v, v + cols, randomWeight(random));
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Random geometric graph: n points in the unit square, linked when closer than the radius
+     * that gives the expected average degree. Weights are the Euclidean distances (scaled into
+     * the weight range). Points are bucketed into cells of one radius, so only neighbouring
+     * cells are compared.
+     */
+    public static Graph randomGeometric(int n, double averageDegree, long seed) {
+        Random random = new Random(seed);
+        double radius = Math.sqrt(averageDegree / (Math.PI * n));
+        int cells = Math.max(1, (int) (1.0 / radius));
+
+        Graph.Builder builder = new Graph.Builder(n, (int) (n * averageDegree / 2));
+        double[] xs = new double[n];
+        double[] ys = new double[n];
+        for (int v = 0; v < n; v++) {
+            xs[v] = random.nextDouble();
+            ys[v] = random.nextDouble();
+            builder.addVertex(xs[v], ys[v]);
+        }
+
+        // Bucket the points by cell (counting sort into cellStart/cellPoints)
+        int[] cellOf = new int[n];
+        int[] cellStart = new int[cells * cells + 1];
+        for (int v = 0; v < n; v++) {
+            int cx = Math.min(cells - 1, (int) (xs[v] * cells));
+            int cy = Math.min(cells - 1, (int) (ys[v] * cells));
+            cellOf[v] = cy * cells + cx;
+            cellStart[cellOf[v] + 1]++;
+        }
+        for (int c = 0; c < cells * cells; c++) cellStart[c + 1] += cellStart[c];
+        int[] cellPoints = new int[n];
+        int[] fill = cellStart.clone();
+        for (int v = 0; v < n; v++) cellPoints[fill[cellOf[v]]++] = v;
+
+        double r2 = radius * radius;
+        for (int v = 0; v < n; v++) {
+            int cx = cellOf[v] % cells;
+            int cy = cellOf[v] / cells;
+            for (int dy = -1; dy <= 1; dy++) {
+                for (int dx = -1; dx <= 1; dx++) {
+                    int nx = cx + dx;
+                    int ny = cy + dy;
+                    if (nx < 0 || ny < 0 || nx >= cells || ny >= cells) continue;
+                    int cell = ny * cells + nx;
+                    for (int i = cellStart[cell]; i < cellStart[cell + 1]; i++) {
+                        int u = cellPoints[i];
+                        if (u <= v) continue;   // each pair once
+                        double ddx = xs[u] - xs[v];
+                        double ddy = ys[u] - ys[v];
+                        double d2 = ddx * ddx + ddy * ddy;
+                        if (d2 < r2) {
+                            builder.addEdge(v, u, MIN_WEIGHT + Math.sqrt(d2) * MAX_WEIGHT);
+                        }
+                    }
+                }
+            }
+        }
+
+        // Isolated clusters are joined by a random spanning tree of long links
+        addRandomSpanningTree(builder, n, random);
+        return builder.build();
+    }
+
+    /**
+     * Complete graph on n vertices (n(n-1)/2 edges), vertices on a circle.
+     */
+    public static Graph complete(int n, long seed) {
+        Random random = new Random(seed);
+        Graph.Builder builder = new Graph.Builder(n, n * (n - 1) / 2);
+        for (int v = 0; v < n; v++) {
+            double angle = 2 * Math.PI * v / n;
+            builder.addVertex(0.5 + 0.5 * Math.cos(angle), 0.5 + 0.5 * Math.sin(angle));
+        }
+        for (int u = 0; u < n; u++) {
+            for (int v = u + 1; v < n; v++) {
+                builder.addEdge(u, v, randomWeight(random));
+            }
+        }
+        return builder.build();
+    }
+
+    // Link every vertex v > 0 to a random earlier vertex, which makes the graph connected
+    private static void addRandomSpanningTree(Graph.Builder builder, int n, Random random) {
+        for (int v = 1; v < n; v++) {
+            builder.addEdge(v, random.nextInt(v), randomWeight(random));
+        }
+    }
+
+    private static double randomWeight(Random random) {
+        return MIN_WEIGHT + random.nextDouble() * (MAX_WEIGHT - MIN_WEIGHT);
+    }
+}
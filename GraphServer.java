@@ -0,0 +1,579 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Embedded HTTP service for other tools: spanning trees, routes and components of graphs
+ * posted to it, without the JavaFX UI. Built on the JDK's {@code com.sun.net.httpserver}
+ * with one virtual thread per exchange for the I/O; the computations themselves run on a
+ * small pool of platform threads, so a long MST never pins the carrier threads that read
+ * requests and send responses.
+ * <pre>
+ * java -cp out GraphServer [--port=8080] [--host=127.0.0.1] [--workers=N] [--queue=256] [--max-body-mb=64]
+ *                          [--max-vertices=4194304]
+ *
+ * POST /mst?engine=auto&amp;source=0        engine: prim, dense, kruskal, boruvka, auto or forest
+ * POST /paths?source=0[&amp;target=N]       whole shortest-path tree, or one route
+ * POST /connectivity
+ * GET  /health, GET /metrics
+ * </pre>
+ * The body is a binary graph file or a CSV/DIMACS edge list (sniffed, see {@link EdgeListImporter}).
+ * Results are JSON; tree and route results come as a graph file instead with {@code format=binary}
+ * or {@code Accept: application/octet-stream}. Bodies are written straight to the connection
+ * (JSON chunked), never assembled in memory first.
+ * <ul>
+ *   <li>Identical requests (same path, parameters and body) that arrive while one is being
+ *       computed wait for its result instead of computing it again.</li>
+ *   <li>At most {@code workers + queue} requests are admitted at once, counting those reading
+ *       their body, waiting for a worker or for an identical request, and computing. At most
+ *       {@code workers} compute at a time (more CPU-bound work would only compete for the cores).
+ *       Past that, requests get 503 with {@code Retry-After} straight away, before their body
+ *       is read, so a burst can't pile up unbounded work or memory.</li>
+ *   <li>A graph may have at most {@code max-vertices} vertices, and a small body only a few
+ *       per byte, since a single edge or DIMACS problem line can name any vertex count.</li>
+ * </ul>
+ * Bad input gets 400, an engine rejecting the graph (e.g. disconnected) 422, anything else
+ * a generic 500 (the details are logged, not sent).
+ */
+public class GraphServer {
+
+    private static final int DEFAULT_PORT = 8080;
+    private static final int DEFAULT_QUEUE = 256;
+    private static final int DEFAULT_MAX_BODY_MB = 64;
+    private static final int DEFAULT_MAX_VERTICES = 1 << 22;
+    private static final int MIN_VERTEX_ALLOWANCE = 1 << 16;   // any body may have this many vertices
+    private static final int VERTICES_PER_BODY_BYTE = 8;       // ... or this many per byte of body
+    private static final int BACKLOG = 1024;
+    private static final System.Logger LOG = System.getLogger(GraphServer.class.getName());
+    private static final String JSON = "application/json";
+    private static final String BINARY = "application/octet-stream";
+
+    // Writes a response body; it only reads the computed result, so any number may run at once
+    private interface Body {
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    /**
+     * An HTTP response, shared by all requests coalesced onto one computation. Each of them
+     * streams its own copy of the body from the shared result; a length of -1 sends it chunked.
+     */
+    private record Response(int status, String contentType, long length, Body body) {
+        static Response json(String json) {
+            return bytes(200, JSON, json.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static Response error(int status, String message) {
+            return bytes(status, JSON, ("{\"error\":" + quote(message) + "}").getBytes(StandardCharsets.UTF_8));
+        }
+
+        static Response bytes(int status, String contentType, byte[] bytes) {
+            return new Response(status, contentType, bytes.length, out -> out.write(bytes));
+        }
+
+        // JSON written straight to the client, without building it in memory first
+        static Response streamedJson(JsonBody body) {
+            return new Response(200, JSON, -1, out -> {
+                Writer json = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+                body.writeTo(json);
+                json.flush();
+            });
+        }
+
+        // Edges of graph as a graph file
+        static Response graphFile(Graph graph, int[] edges) {
+            return new Response(200, BINARY, GraphFile.encodedSize(edges.length),
+                    out -> GraphFile.write(graph, edges, out));
+        }
+    }
+
+    private interface JsonBody {
+        void writeTo(Writer json) throws IOException;
+    }
+
+    // Identity of a request for coalescing: path with sorted parameters, and the body
+    private record RequestKey(String target, byte[] body, int hash) {
+        static RequestKey of(String target, byte[] body) {
+            return new RequestKey(target, body, 31 * target.hashCode() + Arrays.hashCode(body));
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof RequestKey key && hash == key.hash && target.equals(key.target)
+                    && Arrays.equals(body, key.body);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    // Rejects a request with an HTTP status
+    private static class RequestException extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        private final int status;
+
+        RequestException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final ExecutorService computePool;
+    private final int workers;
+    private final int maxQueued;
+    private final int maxBodyBytes;
+    private final int maxVertices;
+    private final AtomicInteger admitted = new AtomicInteger();   // computing or queued in computePool
+    private final Map<RequestKey, CompletableFuture<Response>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    public GraphServer(InetSocketAddress address, int workers, int maxQueued, int maxBodyBytes, int maxVertices)
+            throws IOException {
+        if (workers < 1 || maxQueued < 0 || maxBodyBytes < GraphFile.HEADER_BYTES || maxVertices < 1) {
+            throw new IllegalArgumentException("Invalid server limits: workers=" + workers + ", queue=" + maxQueued
+                    + ", max body=" + maxBodyBytes + ", max vertices=" + maxVertices);
+        }
+        this.workers = workers;
+        this.maxQueued = maxQueued;
+        this.maxBodyBytes = maxBodyBytes;
+        this.maxVertices = maxVertices;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.computePool = Executors.newFixedThreadPool(workers, task -> {
+            Thread thread = new Thread(task, "server-compute-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.server = HttpServer.create(address, BACKLOG);
+        server.setExecutor(executor);
+        server.createContext("/mst", exchange -> handleCompute(exchange, "mst"));
+        server.createContext("/paths", exchange -> handleCompute(exchange, "paths"));
+        server.createContext("/connectivity", exchange -> handleCompute(exchange, "connectivity"));
+        server.createContext("/health", exchange -> send(exchange, Response.bytes(200, "text/plain",
+                "ok\n".getBytes(StandardCharsets.US_ASCII))));
+        server.createContext("/metrics", exchange -> send(exchange, Response.json(statsJson())));
+    }
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = new HashMap<>();
+        GraphServer graphServer;
+        try {
+            for (String arg : args) {
+                int eq = arg.indexOf('=');
+                if (!arg.startsWith("--") || eq < 0) {
+                    throw new IllegalArgumentException("Unknown argument: " + arg);
+                }
+                options.put(arg.substring(2, eq), arg.substring(eq + 1));
+            }
+            InetSocketAddress address = new InetSocketAddress(options.getOrDefault("host", "127.0.0.1"),
+                    Integer.parseInt(options.getOrDefault("port", String.valueOf(DEFAULT_PORT))));
+            graphServer = new GraphServer(address,
+                    Integer.parseInt(options.getOrDefault("workers", String.valueOf(Runtime.getRuntime().availableProcessors()))),
+                    Integer.parseInt(options.getOrDefault("queue", String.valueOf(DEFAULT_QUEUE))),
+                    Integer.parseInt(options.getOrDefault("max-body-mb", String.valueOf(DEFAULT_MAX_BODY_MB))) << 20,
+                    Integer.parseInt(options.getOrDefault("max-vertices", String.valueOf(DEFAULT_MAX_VERTICES))));
+        } catch (IllegalArgumentException ex) {
+            System.err.println(ex.getMessage());
+            System.err.println("Usage: java -cp out GraphServer [--port=8080] [--host=127.0.0.1] [--workers=N]"
+                    + " [--queue=256] [--max-body-mb=64] [--max-vertices=" + DEFAULT_MAX_VERTICES + "]");
+            System.exit(2);
+            return;
+        }
+        graphServer.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> graphServer.stop(1)));
+        System.err.println("Listening on http://" + options.getOrDefault("host", "127.0.0.1") + ":" + graphServer.getPort());
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    // Stop accepting requests, give running exchanges up to delaySeconds to finish
+    public void stop(int delaySeconds) {
+        server.stop(delaySeconds);
+        executor.shutdownNow();
+        computePool.shutdownNow();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    private void handleCompute(HttpExchange exchange, String operation) throws IOException {
+        requests.increment();
+        Response response;
+        try {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                exchange.getResponseHeaders().set("Allow", "POST");
+                throw new RequestException(405, "Use POST with the graph as the body");
+            }
+            Map<String, String> params = parseQuery(exchange.getRequestURI().getRawQuery());
+            if (acceptsBinary(exchange)) params.putIfAbsent("format", "binary");
+            if (!tryAdmit()) {
+                throw new RequestException(503, "Server busy, retry later");
+            }
+            try {
+                byte[] body = readBody(exchange);
+                response = coalesce(RequestKey.of(operation + "?" + params, body), () -> compute(operation, params, body));
+            } finally {
+                admitted.decrementAndGet();
+            }
+        } catch (RequestException ex) {
+            response = Response.error(ex.status, ex.getMessage());
+        } catch (Error error) {
+            exchange.close();   // drop the connection rather than leave the client waiting
+            throw error;
+        }
+        if (response.status() == 503) {
+            exchange.getResponseHeaders().set("Retry-After", "1");
+        }
+        send(exchange, response);
+    }
+
+    // A computation that produces a response; RequestExceptions become error responses
+    private interface Computation {
+        Response compute() throws RequestException;
+    }
+
+    /**
+     * Run computation unless an identical request is already running, in which case wait
+     * for that one's response.
+     */
+    private Response coalesce(RequestKey key, Computation computation) {
+        CompletableFuture<Response> mine = new CompletableFuture<>();
+        CompletableFuture<Response> running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            coalesced.increment();
+            try {
+                return running.join();
+            } catch (CompletionException ex) {
+                throw (Error) ex.getCause();   // only an Error completes it exceptionally
+            }
+        }
+
+        Response response;
+        try {
+            response = computeOnPool(computation);
+        } catch (RuntimeException ex) {
+            failed.increment();
+            LOG.log(System.Logger.Level.ERROR, "Request failed", ex);
+            response = Response.error(500, "Internal server error");
+        } catch (Error error) {
+            // Out of memory and the like: not a request failure, so no 500; release the waiters
+            failed.increment();
+            mine.completeExceptionally(error);
+            throw error;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+        mine.complete(response);
+        return response;
+    }
+
+    // Backpressure: a bounded number of requests admitted, the rest turned away
+    private boolean tryAdmit() {
+        if (admitted.incrementAndGet() > workers + maxQueued) {
+            admitted.decrementAndGet();
+            rejected.increment();
+            return false;
+        }
+        return true;
+    }
+
+    private Response computeOnPool(Computation computation) {
+        // The exchange's virtual thread parks on the result, freeing its carrier meanwhile
+        Future<Response> result = computePool.submit(computation::compute);
+        try {
+            return result.get();
+        } catch (InterruptedException ex) {
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            return Response.error(503, "Server shutting down");
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RequestException request) {
+                return Response.error(request.status, request.getMessage());
+            }
+            if (ex.getCause() instanceof RuntimeException runtime) throw runtime;
+            if (ex.getCause() instanceof Error error) throw error;
+            throw new IllegalStateException(ex.getCause());
+        }
+    }
+
+    private Response compute(String operation, Map<String, String> params, byte[] body) throws RequestException {
+        String engineKey = params.getOrDefault("engine", "auto");
+        MstEngine engine = null;
+        if (operation.equals("mst") && !engineKey.equals("forest")) {
+            try {
+                engine = MstEngine.byKey(engineKey);
+            } catch (IllegalArgumentException ex) {
+                throw new RequestException(400, ex.getMessage());
+            }
+        }
+        Graph graph = parseGraph(body);
+        boolean binary = "binary".equals(params.get("format"));
+        try {
+            return switch (operation) {
+                case "mst" -> engine == null ? forest(graph, binary) : mst(graph, engine, params, binary);
+                case "paths" -> paths(graph, params, binary);
+                default -> connectivity(graph);
+            };
+        } catch (NumberFormatException ex) {
+            throw new RequestException(400, "Invalid number: " + ex.getMessage());
+        } catch (IllegalArgumentException ex) {
+            throw new RequestException(422, ex.getMessage());
+        }
+    }
+
+    private static Response forest(Graph graph, boolean binary) {
+        SpanningForest forest = SpanningForest.compute(graph, MstEngine.AUTO);
+        if (binary) return Response.graphFile(graph, forest.getEdges());
+        return Response.streamedJson(json -> {
+            json.append("{\"engine\":\"forest\",\"vertices\":").append(String.valueOf(graph.vertexCount()))
+                    .append(",\"edges\":").append(String.valueOf(graph.edgeCount()))
+                    .append(",\"cost\":").append(number(forest.getTotalCost()))
+                    .append(",\"components\":").append(String.valueOf(forest.getComponentCount()))
+                    .append(",\"trees\":[");
+            for (int c = 0; c < forest.getComponentCount(); c++) {
+                SpanningForest.Tree tree = forest.getTree(c);
+                if (c > 0) json.append(',');
+                json.append("{\"vertices\":").append(String.valueOf(tree.size()))
+                        .append(",\"cost\":").append(number(tree.cost())).append(",\"tree\":");
+                appendEdges(json, graph, tree.edges());
+                json.append('}');
+            }
+            json.append("]}");
+        });
+    }
+
+    private static Response mst(Graph graph, MstEngine engine, Map<String, String> params, boolean binary) {
+        if (graph.vertexCount() == 0) {
+            throw new IllegalArgumentException("Graph has no vertices");
+        }
+        MstEngine selected = engine.selectFor(graph);
+        int[] tree = engine.run(graph, source(graph, params));
+        if (binary) return Response.graphFile(graph, tree);
+        double cost = 0;
+        for (int e : tree) cost += graph.edgeWeight(e);
+        double total = cost;
+        return Response.streamedJson(json -> {
+            json.append("{\"engine\":").append(quote(selected.getName()))
+                    .append(",\"vertices\":").append(String.valueOf(graph.vertexCount()))
+                    .append(",\"edges\":").append(String.valueOf(graph.edgeCount()))
+                    .append(",\"cost\":").append(number(total)).append(",\"tree\":");
+            appendEdges(json, graph, tree);
+            json.append('}');
+        });
+    }
+
+    private static Response paths(Graph graph, Map<String, String> params, boolean binary) {
+        if (graph.vertexCount() == 0) {
+            throw new IllegalArgumentException("Graph has no vertices");
+        }
+        ShortestPaths paths = new ShortestPaths(graph);
+        int source = source(graph, params);
+        if (params.containsKey("target")) {
+            int target = Integer.parseInt(params.get("target"));
+            if (target < 0 || target >= graph.vertexCount()) {
+                throw new IllegalArgumentException("Invalid target node: " + target);
+            }
+            double distance = paths.routeAStar(source, target);
+            int[] route = paths.pathEdges(target);
+            if (binary) return Response.graphFile(graph, route);
+            return Response.streamedJson(json -> {
+                json.append("{\"source\":").append(String.valueOf(source))
+                        .append(",\"target\":").append(String.valueOf(target))
+                        .append(",\"distance\":").append(number(distance)).append(",\"path\":");
+                appendEdges(json, graph, route);
+                json.append('}');
+            });
+        }
+
+        if (binary) {
+            throw new IllegalArgumentException("Binary output needs a target (the route is returned as a graph file)");
+        }
+        // Copy the tree out of the router, which is not safe to share between the writers
+        paths.computeTree(source);
+        int n = graph.vertexCount();
+        int reached = paths.settledCount();
+        double[] distance = new double[n];
+        int[] parent = new int[n];
+        for (int v = 0; v < n; v++) {
+            distance[v] = paths.distance(v);
+            int edge = paths.parentEdge(v);
+            parent[v] = edge < 0 ? -1 : graph.other(edge, v);
+        }
+        return Response.streamedJson(json -> {
+            json.append("{\"source\":").append(String.valueOf(source))
+                    .append(",\"reached\":").append(String.valueOf(reached)).append(",\"distance\":[");
+            for (int v = 0; v < n; v++) {
+                if (v > 0) json.append(',');
+                json.append(number(distance[v]));
+            }
+            json.append("],\"parent\":[");
+            for (int v = 0; v < n; v++) {
+                if (v > 0) json.append(',');
+                json.append(String.valueOf(parent[v]));
+            }
+            json.append("]}");
+        });
+    }
+
+    private static Response connectivity(Graph graph) {
+        DisjointSet sets = new DisjointSet(graph.vertexCount());
+        for (int e = 0; e < graph.edgeCount(); e++) {
+            sets.union(graph.edgeFrom(e), graph.edgeTo(e));
+        }
+        int[] component = new int[graph.vertexCount()];
+        for (int v = 0; v < component.length; v++) {
+            component[v] = sets.find(v);
+        }
+        int components = sets.count();
+        return Response.streamedJson(json -> {
+            json.append("{\"components\":").append(String.valueOf(components)).append(",\"component\":[");
+            for (int v = 0; v < component.length; v++) {
+                if (v > 0) json.append(',');
+                json.append(String.valueOf(component[v]));
+            }
+            json.append("]}");
+        });
+    }
+
+    private static int source(Graph graph, Map<String, String> params) {
+        int source = Integer.parseInt(params.getOrDefault("source", "0"));
+        if (source < 0 || source >= graph.vertexCount()) {
+            throw new IllegalArgumentException("Invalid source node: " + source);
+        }
+        return source;
+    }
+
+    // A binary graph file or a text edge list, told apart by the magic number
+    private Graph parseGraph(byte[] body) throws RequestException {
+        // Checked before the vertex arrays are allocated, however many vertices the body names
+        int vertexLimit = (int) Math.min(maxVertices,
+                Math.max(MIN_VERTEX_ALLOWANCE, (long) VERTICES_PER_BODY_BYTE * body.length));
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(body);
+            if (body.length >= 4 && Integer.reverseBytes(buffer.getInt(0)) == GraphFile.MAGIC) {
+                return GraphFile.read(buffer, vertexLimit);
+            }
+            return EdgeListImporter.parse(body, vertexLimit);
+        } catch (IOException | IllegalArgumentException ex) {
+            throw new RequestException(400, "Unreadable graph: " + ex.getMessage());
+        }
+    }
+
+    private byte[] readBody(HttpExchange exchange) throws IOException, RequestException {
+        String length = exchange.getRequestHeaders().getFirst("Content-Length");
+        try {
+            if (length != null && Long.parseLong(length.trim()) > maxBodyBytes) {
+                throw new RequestException(413, "Graph larger than " + maxBodyBytes + " bytes");
+            }
+        } catch (NumberFormatException ex) {
+            throw new RequestException(400, "Invalid Content-Length: " + length);
+        }
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] body = in.readNBytes(maxBodyBytes + 1);
+            if (body.length > maxBodyBytes) {
+                throw new RequestException(413, "Graph larger than " + maxBodyBytes + " bytes");
+            }
+            return body;
+        }
+    }
+
+    private static boolean acceptsBinary(HttpExchange exchange) {
+        String accept = exchange.getRequestHeaders().getFirst("Accept");
+        return accept != null && accept.contains(BINARY);
+    }
+
+    // Query parameters, sorted so equal requests get equal coalescing keys
+    private static Map<String, String> parseQuery(String query) {
+        Map<String, String> params = new TreeMap<>();
+        if (query == null || query.isEmpty()) return params;
+        for (String pair : query.split("&")) {
+            if (pair.isEmpty()) continue;
+            int eq = pair.indexOf('=');
+            String name = eq < 0 ? pair : pair.substring(0, eq);
+            String value = eq < 0 ? "" : pair.substring(eq + 1);
+            params.put(URLDecoder.decode(name, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return params;
+    }
+
+    // Fixed-length bodies go out with a Content-Length, streamed ones chunked
+    private static void send(HttpExchange exchange, Response response) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", response.contentType());
+        long length = response.length();
+        exchange.sendResponseHeaders(response.status(), length < 0 ? 0 : length == 0 ? -1 : length);
+        try (OutputStream out = new BufferedOutputStream(exchange.getResponseBody(), 1 << 16)) {
+            response.body().writeTo(out);
+        }
+    }
+
+    private String statsJson() {
+        return "{\"server\":{\"requests\":" + requests.sum() + ",\"coalesced\":" + coalesced.sum()
+                + ",\"rejected\":" + rejected.sum() + ",\"failed\":" + failed.sum()
+                + ",\"admitted\":" + admitted.get() + ",\"workers\":" + workers + ",\"queue\":" + maxQueued
+                + "},\"metrics\":" + Metrics.snapshot().toJson() + "}";
+    }
+
+    // [[u,v,weight],...]
+    private static void appendEdges(Writer json, Graph graph, int[] edges) throws IOException {
+        json.append('[');
+        for (int i = 0; i < edges.length; i++) {
+            int e = edges[i];
+            if (i > 0) json.append(',');
+            json.append('[').append(String.valueOf(graph.edgeFrom(e))).append(',')
+                    .append(String.valueOf(graph.edgeTo(e))).append(',')
+                    .append(number(graph.edgeWeight(e))).append(']');
+        }
+        json.append(']');
+    }
+
+    // JSON has no infinities: unreachable distances become null
+    private static String number(double value) {
+        return Double.isFinite(value) ? Double.toString(value) : "null";
+    }
+
+    private static String quote(String text) {
+        StringBuilder quoted = new StringBuilder(text.length() + 2).append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"' || c == '\\') {
+                quoted.append('\\').append(c);
+            } else if (c < 0x20) {
+                quoted.append(String.format("\\u%04x", (int) c));
+            } else {
+                quoted.append(c);
+            }
+        }
+        return quoted.append('"').toString();
+    }
+}
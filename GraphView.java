@@ -0,0 +1,90 @@
+import java.util.*;
+
+/**
+ * Maps the JavaFX {@link Vertex} and {@link Edge} objects onto a headless {@link Graph}.
+ * Vertex ids follow the iteration order of the vertex map, edge ids that of the edge collection.
+ */
+public class GraphView {
+
+    private final Graph graph;                    // UI-free core the algorithms run on
+    private final Vertex[] vertexById;            // id -> JavaFX vertex
+    private final Edge[] edgeById;                // id -> JavaFX edge
+    private final Map<Edge, Integer> edgeIds;     // JavaFX edge -> id
+    private final LabelTable labels;              // vertex label <-> id
+
+    private GraphView(Graph graph, Vertex[] vertexById, Edge[] edgeById, LabelTable labels) {
+        this.graph = graph;
+        this.vertexById = vertexById;
+        this.edgeById = edgeById;
+        this.labels = labels;
+        this.edgeIds = new IdentityHashMap<>(edgeById.length * 2);
+        for (int id = 0; id < edgeById.length; id++) {
+            edgeIds.put(edgeById[id], id);
+        }
+    }
+
+    /**
+     * Build a view (and its core graph) from the controller's vertices and edges.
+     */
+    public static GraphView of(Map<String, Vertex> vertices, Collection<Edge> edges) {
+        Graph.Builder builder = new Graph.Builder(vertices.size(), edges.size());
+        Vertex[] vertexById = new Vertex[vertices.size()];
+        LabelTable labels = new LabelTable(vertices.size());
+
+        for (Vertex v : vertices.values()) {
+            int id = builder.addVertex(v.getCircle().getCenterX(), v.getCircle().getCenterY());
+            vertexById[id] = v;
+            labels.intern(v.getLabel());   // same order, so the same id
+        }
+
+        Edge[] edgeById = new Edge[edges.size()];
+        for (Edge e : edges) {
+            int u = labels.idOf(e.getStart().getLabel());
+            int v = labels.idOf(e.getEnd().getLabel());
+            if (u < 0 || v < 0) {
+                throw new IllegalArgumentException("Edge references an unknown vertex");
+            }
+            edgeById[builder.addEdge(u, v, e.getWeight())] = e;
+        }
+
+        return new GraphView(builder.build(), vertexById, edgeById, labels);
+    }
+
+    public Graph graph() {
+        return graph;
+    }
+
+    public Vertex vertex(int id) {
+        return vertexById[id];
+    }
+
+    public Edge edge(int id) {
+        return edgeById[id];
+    }
+
+    // Returns the id of the vertex with this label, or -1 if there is none
+    public int idOf(String label) {
+        return labels.idOf(label);
+    }
+
+    public String label(int id) {
+        return labels.label(id);
+    }
+
+    // Returns the id of this edge, or -1 if it is not in the view
+    public int idOf(Edge edge) {
+        Integer id = edgeIds.get(edge);
+        return id != null ? id : -1;
+    }
+
+    /**
+     * Convert a list of edge ids back into the JavaFX edges, keeping the order.
+     */
+    public List<Edge> edges(int[] edgeIds) {
+        List<Edge> result = new ArrayList<>(edgeIds.length);
+        for (int id : edgeIds) {
+            result.add(edgeById[id]);
+        }
+        return result;
+    }
+}
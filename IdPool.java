@@ -0,0 +1,34 @@
+import java.util.Arrays;
+
+/**
+ * Stack of freed int ids waiting to be reused, newest on top. Used by the incremental
+ * structures whose slots outlive single edits ({@link ConnectivityTracker}, {@link DynamicMST});
+ * both take and return ids in the same order, so the same edits give them the same ids.
+ */
+public class IdPool {
+
+    private int[] ids = new int[16];
+    private int size = 0;
+
+    public void push(int id) {
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size * 2);
+        }
+        ids[size++] = id;
+    }
+
+    public int pop() {
+        if (size == 0) {
+            throw new IllegalStateException("No free ids");
+        }
+        return ids[--size];
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+}
@@ -0,0 +1,150 @@
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Indexed 4-ary min-heap over the ids 0..capacity-1, stored in primitive arrays.
+ * Each id is in the heap at most once and its key can be lowered in place (decrease-key),
+ * so no stale entries pile up the way they do in a {@code PriorityQueue}.
+ * Equal keys are ordered by id, which keeps results deterministic.
+ */
+public class IndexedMinHeap {
+
+    private static final int ARITY = 4;
+
+    private final int[] heap;      // heap position -> id
+    private final int[] position;  // id -> heap position, or -1 if not in the heap
+    private final double[] keys;   // id -> current key
+    private int size = 0;
+
+    public IndexedMinHeap(int capacity) {
+        this.heap = new int[capacity];
+        this.position = new int[capacity];
+        this.keys = new double[capacity];
+        Arrays.fill(position, -1);
+    }
+
+    public int capacity() { return heap.length; }
+    public int size() { return size; }
+    public boolean isEmpty() { return size == 0; }
+
+    public boolean contains(int id) {
+        return position[id] >= 0;
+    }
+
+    public double key(int id) {
+        return keys[id];
+    }
+
+    /**
+     * Insert id with the given key. The id must not already be in the heap.
+     */
+    public void insert(int id, double key) {
+        if (position[id] >= 0) {
+            throw new IllegalArgumentException("Id already in heap: " + id);
+        }
+        keys[id] = key;
+        heap[size] = id;
+        position[id] = size;
+        siftUp(size++);
+    }
+
+    /**
+     * Lower the key of an id that is already in the heap.
+     */
+    public void decreaseKey(int id, double key) {
+        if (!(key <= keys[id])) {
+            throw new IllegalArgumentException("New key is not smaller: " + key);
+        }
+        keys[id] = key;
+        siftUp(position[id]);
+    }
+
+    /**
+     * Insert the id, or lower its key if it is present with a larger one.
+     * @return true if the heap changed
+     */
+    public boolean offer(int id, double key) {
+        if (position[id] < 0) {
+            insert(id, key);
+            return true;
+        }
+        if (key < keys[id]) {
+            decreaseKey(id, key);
+            return true;
+        }
+        return false;
+    }
+
+    public int peekMin() {
+        if (size == 0) throw new NoSuchElementException("Heap is empty");
+        return heap[0];
+    }
+
+    /**
+     * Remove and return the id with the smallest key.
+     */
+    public int pollMin() {
+        if (size == 0) throw new NoSuchElementException("Heap is empty");
+        int min = heap[0];
+        position[min] = -1;
+        size--;
+        if (size > 0) {
+            heap[0] = heap[size];
+            position[heap[0]] = 0;
+            siftDown(0);
+        }
+        return min;
+    }
+
+    /**
+     * Empty the heap so it can be reused without reallocating. Costs O(size), not O(capacity).
+     */
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            position[heap[i]] = -1;
+        }
+        size = 0;
+    }
+
+    private boolean less(int a, int b) {
+        double ka = keys[a];
+        double kb = keys[b];
+        return ka < kb || (ka == kb && a < b);
+    }
+
+    private void siftUp(int pos) {
+        int id = heap[pos];
+        while (pos > 0) {
+            int parentPos = (pos - 1) / ARITY;
+            int parent = heap[parentPos];
+            if (!less(id, parent)) break;
+            heap[pos] = parent;
+            position[parent] = pos;
+            pos = parentPos;
+        }
+        heap[pos] = id;
+        position[id] = pos;
+    }
+
+    private void siftDown(int pos) {
+        int id = heap[pos];
+        while (true) {
+            int firstChild = pos * ARITY + 1;
+            if (firstChild >= size) break;
+            int lastChild = Math.min(firstChild + ARITY, size);
+
+            // Find the smallest child
+            int best = firstChild;
+            for (int c = firstChild + 1; c < lastChild; c++) {
+                if (less(heap[c], heap[best])) best = c;
+            }
+            if (!less(heap[best], id)) break;
+
+            heap[pos] = heap[best];
+            position[heap[pos]] = pos;
+            pos = best;
+        }
+        heap[pos] = id;
+        position[id] = pos;
+    }
+}
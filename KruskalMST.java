@@ -0,0 +1,70 @@
+/**
+ * Kruskal's algorithm: scan the edges in increasing weight order and keep every edge
+ * that joins two different components of a union-find. The weight order is a primitive
+ * radix sort that the graph caches, so repeated runs on the same graph skip the sort.
+ */
+public class KruskalMST implements MstEngine {
+
+    private static final int CHECK_INTERVAL = 4096;   // edges between cancellation checks
+
+    @Override
+    public String getName() {
+        return "Kruskal";
+    }
+
+    @Override
+    public boolean usesSource() {
+        return false;
+    }
+
+    @Override
+    public int[] run(Graph graph, int source) {
+        return run(graph, source, null);
+    }
+
+    // Records every edge examined, in weight order, when trace is not null
+    @Override
+    public int[] run(Graph graph, int source, MstTrace trace) {
+        int n = graph.vertexCount();
+        if (source < 0 || source >= n) {
+            throw new IllegalArgumentException("Invalid source node: " + source);
+        }
+
+        int[] mstEdges = new int[n - 1];
+        int mstSize = 0;
+        DisjointSet sets = new DisjointSet(n);
+        boolean[] visited = trace != null ? new boolean[n] : null;
+
+        ProgressMonitor monitor = ProgressMonitor.current();
+        long sortStarted = Metrics.start();
+        int[] order = graph.edgesByWeight();
+        Metrics.stop(Metrics.Phase.KRUSKAL_SORT, sortStarted);
+
+        long started = Metrics.start();
+        int scanned = 0;
+        for (int i = 0; i < order.length; i++) {
+            scanned++;
+            int e = order[i];
+            if (i % CHECK_INTERVAL == 0) monitor.step(mstSize, mstEdges.length);
+            if (trace != null) trace.evaluate(e);
+            if (sets.union(graph.edgeFrom(e), graph.edgeTo(e))) {
+                mstEdges[mstSize++] = e;
+                if (trace != null) {
+                    trace.visitEndpoints(graph, e, visited);
+                    trace.accept(e);
+                }
+                if (mstSize == mstEdges.length) break;   // tree is complete
+            } else if (trace != null) {
+                trace.discard(e);
+            }
+        }
+        Metrics.add(Metrics.Counter.EDGES_SCANNED, scanned);
+        Metrics.add(Metrics.Counter.UNIONS, mstSize);
+        Metrics.stop(Metrics.Phase.KRUSKAL_SCAN, started);
+
+        if (mstSize < mstEdges.length) {
+            throw new IllegalArgumentException("Graph is disconnected. MST cannot be run.");
+        }
+        return mstEdges;
+    }
+}
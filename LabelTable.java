@@ -0,0 +1,112 @@
+import java.util.Arrays;
+
+/**
+ * Interned, bidirectional vertex label table: every distinct label gets the next dense int id
+ * (0, 1, 2, ...), and both directions are O(1). Ids never change and are never reused, so the
+ * algorithms can work on ids alone and labels only need looking up at the UI and I/O edges.
+ * <p>
+ * Label to id is an open-addressing table of ids (no boxed Integers), probed with the label's
+ * cached hash code; id to label is a plain array.
+ */
+public class LabelTable {
+
+    private String[] labels;   // id -> label
+    private int[] slots;       // hash slot -> id + 1, 0 when empty
+    private int size = 0;
+
+    public LabelTable() {
+        this(16);
+    }
+
+    public LabelTable(int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("Invalid size: " + expectedSize);
+        }
+        labels = new String[Math.max(expectedSize, 4)];
+        slots = new int[tableSizeFor(labels.length)];
+    }
+
+    /**
+     * Generated vertex names for ids 0, 1, 2, ...: A..Z, then AA..ZZ, then AAA and so on,
+     * without end (bijective base 26).
+     */
+    public static String nameFor(int index) {
+        if (index < 0) {
+            throw new IllegalArgumentException("Invalid index: " + index);
+        }
+        char[] buffer = new char[7];   // 26^7 > Integer.MAX_VALUE
+        int pos = buffer.length;
+        long n = index + 1L;
+        while (n > 0) {
+            n--;
+            buffer[--pos] = (char) ('A' + n % 26);
+            n /= 26;
+        }
+        return new String(buffer, pos, buffer.length - pos);
+    }
+
+    // Id of label, adding it with the next id if it is new
+    public int intern(String label) {
+        int slot = find(label);
+        if (slots[slot] != 0) return slots[slot] - 1;
+
+        int id = size++;
+        if (id == labels.length) {
+            labels = Arrays.copyOf(labels, labels.length * 2);
+        }
+        labels[id] = label;
+        slots[slot] = id + 1;
+        if (size * 2 > slots.length) {
+            rehash();
+        }
+        return id;
+    }
+
+    // Id of label, or -1 if it was never interned
+    public int idOf(String label) {
+        return slots[find(label)] - 1;
+    }
+
+    public String label(int id) {
+        if (id < 0 || id >= size) {
+            throw new IllegalArgumentException("Invalid vertex id: " + id);
+        }
+        return labels[id];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Slot holding label, or the empty slot where it belongs
+    private int find(String label) {
+        int mask = slots.length - 1;
+        int slot = mix(label.hashCode()) & mask;
+        while (slots[slot] != 0 && !labels[slots[slot] - 1].equals(label)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void rehash() {
+        slots = new int[slots.length * 2];
+        int mask = slots.length - 1;
+        for (int id = 0; id < size; id++) {
+            int slot = mix(labels[id].hashCode()) & mask;
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = id + 1;
+        }
+    }
+
+    // Spread the bits so labels that differ only at the end don't cluster
+    private static int mix(int hash) {
+        hash *= 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+
+    private static int tableSizeFor(int capacity) {
+        return Integer.highestOneBit(Math.max(capacity * 2 - 1, 1)) << 1;
+    }
+}
@@ -0,0 +1,218 @@
+import java.util.Arrays;
+
+/**
+ * Link-cut tree (Sleator–Tarjan) over int nodes with a path-maximum query, stored in
+ * primitive arrays. All operations are O(log n) amortized.
+ * <p>
+ * Each node carries a value; {@link #pathMax(int, int)} returns the node with the largest
+ * value on the tree path between two nodes. Ties are broken by the larger node id so the
+ * answer is deterministic. Edge weights are modelled by giving each tree edge its own node.
+ */
+public class LinkCutTree {
+
+    private int[] left = new int[16];
+    private int[] right = new int[16];
+    private int[] parent = new int[16];   // splay parent, or path-parent when this is a splay root
+    private boolean[] flip = new boolean[16];
+    private double[] value = new double[16];
+    private int[] maxNode = new int[16];  // node with the largest value in this splay subtree
+    private int size = 0;
+    private int[] pushStack = new int[16]; // scratch stack for pending flips during splay
+
+    private static final int NIL = -1;
+
+    /**
+     * Create a new single-node tree with the given value and return its id.
+     */
+    public int addNode(double nodeValue) {
+        if (size == left.length) {
+            int cap = size * 2;
+            left = Arrays.copyOf(left, cap);
+            right = Arrays.copyOf(right, cap);
+            parent = Arrays.copyOf(parent, cap);
+            flip = Arrays.copyOf(flip, cap);
+            value = Arrays.copyOf(value, cap);
+            maxNode = Arrays.copyOf(maxNode, cap);
+        }
+        left[size] = NIL;
+        right[size] = NIL;
+        parent[size] = NIL;
+        flip[size] = false;
+        value[size] = nodeValue;
+        maxNode[size] = size;
+        return size++;
+    }
+
+    /**
+     * Change the value of a node (the node may be part of a tree).
+     */
+    public void setValue(int x, double nodeValue) {
+        access(x);
+        value[x] = nodeValue;
+        update(x);
+    }
+
+    public double value(int x) {
+        return value[x];
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * True when x and y are in the same tree.
+     */
+    public boolean connected(int x, int y) {
+        if (x == y) return true;
+        return findRoot(x) == findRoot(y);
+    }
+
+    /**
+     * Join the trees of x and y with the tree edge x — y. They must be in different trees.
+     */
+    public void link(int x, int y) {
+        if (connected(x, y)) {
+            throw new IllegalArgumentException("Nodes are already connected: " + x + ", " + y);
+        }
+        makeRoot(x);
+        parent[x] = y;
+    }
+
+    /**
+     * Remove the tree edge x — y. It must exist.
+     */
+    public void cut(int x, int y) {
+        makeRoot(x);
+        access(y);
+        // After access(y) with x as root, x must be y's left child with no right subtree
+        if (left[y] == x) pushDown(x);
+        if (left[y] != x || right[x] != NIL) {
+            throw new IllegalArgumentException("No tree edge between " + x + " and " + y);
+        }
+        left[y] = NIL;
+        parent[x] = NIL;
+        update(y);
+    }
+
+    /**
+     * Node with the largest value on the path from x to y. They must be connected.
+     */
+    public int pathMax(int x, int y) {
+        makeRoot(x);
+        access(y);
+        if (findRoot(y) != x) {
+            throw new IllegalArgumentException("Nodes are not connected: " + x + ", " + y);
+        }
+        access(y);
+        return maxNode[y];
+    }
+
+    // ---- splay tree plumbing ----
+
+    private boolean isSplayRoot(int x) {
+        int p = parent[x];
+        return p == NIL || (left[p] != x && right[p] != x);
+    }
+
+    private boolean greater(int a, int b) {
+        return value[a] > value[b] || (value[a] == value[b] && a > b);
+    }
+
+    private void update(int x) {
+        int best = x;
+        int l = left[x];
+        int r = right[x];
+        if (l != NIL && greater(maxNode[l], best)) best = maxNode[l];
+        if (r != NIL && greater(maxNode[r], best)) best = maxNode[r];
+        maxNode[x] = best;
+    }
+
+    private void pushDown(int x) {
+        if (!flip[x]) return;
+        int l = left[x];
+        left[x] = right[x];
+        right[x] = l;
+        if (left[x] != NIL) flip[left[x]] ^= true;
+        if (right[x] != NIL) flip[right[x]] ^= true;
+        flip[x] = false;
+    }
+
+    private void rotate(int x) {
+        int p = parent[x];
+        int g = parent[p];
+        boolean pWasRoot = isSplayRoot(p);
+
+        if (left[p] == x) {
+            left[p] = right[x];
+            if (right[x] != NIL) parent[right[x]] = p;
+            right[x] = p;
+        } else {
+            right[p] = left[x];
+            if (left[x] != NIL) parent[left[x]] = p;
+            left[x] = p;
+        }
+        parent[p] = x;
+        parent[x] = g;
+        if (!pWasRoot) {
+            if (left[g] == p) left[g] = x; else right[g] = x;
+        }
+        update(p);
+        update(x);
+    }
+
+    private void splay(int x) {
+        // Push pending flips from the splay root down to x
+        int depth = 0;
+        int y = x;
+        while (true) {
+            if (depth == pushStack.length) pushStack = Arrays.copyOf(pushStack, depth * 2);
+            pushStack[depth++] = y;
+            if (isSplayRoot(y)) break;
+            y = parent[y];
+        }
+        while (depth > 0) {
+            pushDown(pushStack[--depth]);
+        }
+
+        while (!isSplayRoot(x)) {
+            int p = parent[x];
+            if (!isSplayRoot(p)) {
+                int g = parent[p];
+                boolean zigZig = (left[g] == p) == (left[p] == x);
+                rotate(zigZig ? p : x);
+            }
+            rotate(x);
+        }
+    }
+
+    // Make the root-to-x path preferred; x ends up as the root of its splay tree
+    private void access(int x) {
+        int last = NIL;
+        for (int y = x; y != NIL; y = parent[y]) {
+            splay(y);
+            right[y] = last;
+            update(y);
+            last = y;
+        }
+        splay(x);
+    }
+
+    private void makeRoot(int x) {
+        access(x);
+        flip[x] ^= true;
+        pushDown(x);
+    }
+
+    private int findRoot(int x) {
+        access(x);
+        int r = x;
+        pushDown(r);
+        while (left[r] != NIL) {
+            r = left[r];
+            pushDown(r);
+        }
+        splay(r);
+        return r;
+    }
+}
@@ -0,0 +1,109 @@
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Bounded lock-free ring buffer of log messages: any number of threads write, one thread
+ * (the FX thread, through {@link LogView}) drains. Writers never block. When the buffer is
+ * full the message is dropped and counted instead.
+ * <p>
+ * Each slot has a sequence number telling writers and the reader whose turn it is, so a
+ * writer only needs one compare-and-set on the shared tail to claim a slot.
+ */
+public class LogBuffer {
+
+    public static final int DEFAULT_CAPACITY = 8192;
+
+    private final int mask;
+    private final AtomicReferenceArray<String> messages;
+    private final AtomicLongArray sequence;   // slot i is free for writer t when == t, readable when == t + 1
+    private final AtomicLong tail = new AtomicLong();
+    private long head = 0;                    // only touched by the reader
+    private final LongAdder dropped = new LongAdder();
+    private long droppedReported = 0;         // only touched by the reader
+
+    public LogBuffer() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    // Capacity is rounded up to a power of two
+    public LogBuffer(int capacity) {
+        if (capacity < 2 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Capacity must be between 2 and 2^30");
+        }
+        int size = Integer.highestOneBit(capacity - 1) << 1;
+        this.mask = size - 1;
+        this.messages = new AtomicReferenceArray<>(size);
+        this.sequence = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequence.set(i, i);
+        }
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Add a message without blocking.
+     * @return false if the buffer was full and the message was dropped
+     */
+    public boolean offer(String message) {
+        while (true) {
+            long t = tail.get();
+            int slot = (int) (t & mask);
+            long diff = sequence.get(slot) - t;
+            if (diff == 0) {
+                if (tail.compareAndSet(t, t + 1)) {
+                    messages.set(slot, message);
+                    sequence.set(slot, t + 1);   // publishes the message to the reader
+                    return true;
+                }
+            } else if (diff < 0) {
+                // The reader hasn't freed this slot from the previous lap yet
+                dropped.increment();
+                return false;
+            }
+            // Another writer claimed t first; retry with the new tail
+        }
+    }
+
+    /**
+     * Hand every readable message to the consumer, oldest first. Must only be called from
+     * one thread at a time.
+     * @return number of messages drained
+     */
+    public int drain(Consumer<String> consumer) {
+        long h = head;
+        int count = 0;
+        while (true) {
+            int slot = (int) (h & mask);
+            if (sequence.get(slot) != h + 1) break;
+            String message = messages.get(slot);
+            messages.set(slot, null);
+            sequence.set(slot, h + mask + 1);   // free for the writer one lap later
+            h++;
+            count++;
+            head = h;
+            consumer.accept(message);
+        }
+        return count;
+    }
+
+    // Total messages dropped because the buffer was full
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    /**
+     * Messages dropped since the last call. Reader thread only.
+     */
+    public long takeNewlyDropped() {
+        long total = dropped.sum();
+        long fresh = total - droppedReported;
+        droppedReported = total;
+        return fresh;
+    }
+}
@@ -0,0 +1,81 @@
+import java.util.ArrayList;
+import java.util.List;
+import javafx.animation.AnimationTimer;
+import javafx.scene.control.ListView;
+
+/**
+ * Execution log view. Messages are written to a {@link LogBuffer} from any thread and moved
+ * into the list once per pulse, in one batch, so a burst of messages costs one list update
+ * rather than one {@code Platform.runLater} each. Only the newest {@code maxLines} lines
+ * are kept; {@link ListView} only creates cells for the visible ones.
+ */
+public class LogView extends ListView<String> {
+
+    public static final int DEFAULT_MAX_LINES = 5000;
+
+    private final LogBuffer buffer;
+    private int maxLines;
+    private final List<String> batch = new ArrayList<>();
+
+    private final AnimationTimer pulse = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            drain();
+        }
+    };
+
+    public LogView() {
+        this(new LogBuffer(), DEFAULT_MAX_LINES);
+    }
+
+    public LogView(LogBuffer buffer, int maxLines) {
+        this.buffer = buffer;
+        setMaxLines(maxLines);
+        sceneProperty().addListener((obs, oldScene, newScene) -> {
+            if (newScene != null) pulse.start(); else pulse.stop();
+        });
+    }
+
+    public LogBuffer getBuffer() {
+        return buffer;
+    }
+
+    public int getMaxLines() {
+        return maxLines;
+    }
+
+    public void setMaxLines(int maxLines) {
+        if (maxLines < 1) {
+            throw new IllegalArgumentException("Max lines must be at least 1");
+        }
+        this.maxLines = maxLines;
+        trim();
+    }
+
+    // Move everything waiting in the buffer into the list (FX thread)
+    private void drain() {
+        buffer.drain(batch::add);
+        long dropped = buffer.takeNewlyDropped();
+        if (dropped > 0) {
+            batch.add("… " + dropped + " messages dropped (log buffer full)");
+        }
+        if (batch.isEmpty()) return;
+
+        // Lines that would be trimmed straight away never reach the list
+        List<String> added = batch.size() > maxLines ? batch.subList(batch.size() - maxLines, batch.size()) : batch;
+        getItems().addAll(added);
+        batch.clear();
+        trim();
+        // Follow the newest line unless the user has selected one to look at
+        if (getSelectionModel().isEmpty()) {
+            scrollTo(getItems().size() - 1);
+        }
+    }
+
+    private void trim() {
+        int excess = getItems().size() - maxLines;
+        if (excess > 0) {
+            getItems().remove(0, excess);
+        }
+    }
+}
@@ -9,7 +9,9 @@ import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.Pane;
 import javafx.scene.layout.VBox;
+import javafx.stage.FileChooser;
 import javafx.stage.Stage;
+import java.io.File;
 
 public class MainApp extends Application {
     private GraphController graphController; // Main logic controller for graph actions
@@ -21,9 +23,8 @@ public class MainApp extends Application {
         graphPane.setPrefSize(800, 600);
         graphPane.setStyle("-fx-background-color: #f8f9fa; -fx-border-color: #e9ecef;");
         // Console area to show log messages
-        TextArea consoleArea = new TextArea();
-        consoleArea.setEditable(false);
-        consoleArea.setPrefRowCount(10);
+        LogView consoleArea = new LogView();
+        consoleArea.setPrefHeight(240);
         consoleArea.setStyle("-fx-background-color: #f8f9fa; -fx-text-fill: #212529; " +
                 "-fx-font-family: 'Courier New'; -fx-font-size: 12px; -fx-border-color: #dee2e6;");
         // Buttons to control graph actions
@@ -32,16 +33,46 @@ public class MainApp extends Application {
         Button removeNodeBtn = createButton("Remove Node", "#090620");
         Button removeEdgeBtn = createButton("Remove Edge", "#090620");  // New feature
         Button clearGraphBtn = createButton("Clear Graph", "#090620");
-        Button runPrimBtn = createButton("Run Prim's", "#090620");
+        Button loadGraphBtn = createButton("Load Graph", "#090620");
+        Button runPrimBtn = createButton("Run MST", "#090620");
+        Button pruneBtn = createButton("Remove Non-MST", "#090620");
+        Button routeBtn = createButton("Shortest Path", "#090620");
+        Button tableBtn = createButton("Routing Table", "#090620");
+        Button distanceVectorBtn = createButton("Distance Vector", "#090620");
         // Dropdown to select the source node for Prim’s algorithm
         ComboBox<String> sourceComboBox = new ComboBox<>();
         sourceComboBox.setPromptText("Source Node");
         sourceComboBox.setPrefWidth(120);
-        // Slider to control the animation speed
-        Slider speedSlider = new Slider(100, 1500, 700);
+        // Dropdown to select the target node for shortest paths
+        ComboBox<String> targetComboBox = new ComboBox<>();
+        targetComboBox.setPromptText("Target Node");
+        targetComboBox.setPrefWidth(120);
+        // Dropdown to select the MST algorithm
+        ComboBox<String> algorithmComboBox = new ComboBox<>();
+        MstEngine.all().forEach(engine -> algorithmComboBox.getItems().add(engine.getName()));
+        algorithmComboBox.setValue(MstEngine.AUTO.getName());
+        algorithmComboBox.setPrefWidth(110);
+        // Slider to control the animation speed (ms per step, 0 = as fast as frames allow)
+        Slider speedSlider = new Slider(0, 1500, 700);
         speedSlider.setShowTickLabels(true);
         speedSlider.setPrefWidth(150);
         Label speedLabel = new Label("Speed:");
+        // Playback controls: pause/resume, step back and forward, and a seek bar
+        Button pauseBtn = new Button("⏯");
+        Button stepBackBtn = new Button("◀");
+        Button stepForwardBtn = new Button("▶");
+        Slider seekSlider = new Slider(0, 1, 0);
+        seekSlider.setPrefWidth(120);
+        HBox playbackBox = new HBox(4, stepBackBtn, pauseBtn, stepForwardBtn, seekSlider);
+        playbackBox.setAlignment(Pos.CENTER_LEFT);
+        // Progress of the computation running in the background, with a button to cancel it
+        ProgressBar computeProgress = new ProgressBar(0);
+        computeProgress.setPrefWidth(160);
+        Label computeLabel = new Label();
+        Button cancelBtn = new Button("Cancel");
+        HBox computeBox = new HBox(8, computeLabel, computeProgress, cancelBtn);
+        computeBox.setAlignment(Pos.CENTER_LEFT);
+        computeBox.setPadding(new Insets(8, 0, 0, 0));
         // Label to show total cost of MST
         Label totalCostLabel = new Label("Total Cost: 0.0");
         totalCostLabel.setStyle("-fx-font-weight: bold; -fx-font-size: 14px; -fx-text-fill: #073b4c;");
@@ -51,13 +82,16 @@ public class MainApp extends Application {
         topPanel.setStyle("-fx-background-color: #ededf4; -fx-border-color: #dee2e6; -fx-border-width: 0 0 1 0;");
         topPanel.setAlignment(Pos.CENTER_LEFT);
         // Group of action buttons
-        HBox buttonGroup = new HBox(10, addNodeBtn, addEdgeBtn, removeNodeBtn, removeEdgeBtn, clearGraphBtn, runPrimBtn);
+        HBox buttonGroup = new HBox(10, addNodeBtn, addEdgeBtn, removeNodeBtn, removeEdgeBtn, clearGraphBtn, loadGraphBtn, runPrimBtn, pruneBtn, routeBtn, tableBtn, distanceVectorBtn);
         buttonGroup.setAlignment(Pos.CENTER_LEFT);
         // Group of control options (source node, speed, cost)
         HBox controlGroup = new HBox(15);
         controlGroup.getChildren().addAll(
                 createControlBox("Source:", sourceComboBox),
+                createControlBox("Target:", targetComboBox),
+                createControlBox("Algorithm:", algorithmComboBox),
                 createControlBox(speedLabel, speedSlider),
+                createControlBox("Playback:", playbackBox),
                 createControlBox("", totalCostLabel)
         );
         controlGroup.setAlignment(Pos.CENTER_LEFT);
@@ -68,7 +102,7 @@ public class MainApp extends Application {
         VBox rightPanel = new VBox();
         rightPanel.setPadding(new Insets(15));
         rightPanel.setStyle("-fx-background-color: #ffffff; -fx-border-color: #ededf4; -fx-border-width: 0 0 0 1;");
-        rightPanel.getChildren().addAll(new Label("Execution Log:"), consoleArea);
+        rightPanel.getChildren().addAll(new Label("Execution Log:"), consoleArea, computeBox);
         VBox.setVgrow(consoleArea, javafx.scene.layout.Priority.ALWAYS);
         // Main layout using BorderPane
         BorderPane root = new BorderPane();
@@ -76,14 +110,54 @@ public class MainApp extends Application {
         root.setCenter(graphPane);
         root.setRight(rightPanel);
         // Create the controller to manage graph logic and actions
-        this.graphController = new GraphController(graphPane, consoleArea, sourceComboBox, totalCostLabel, runPrimBtn);
+        this.graphController = new GraphController(graphPane, consoleArea.getBuffer(), sourceComboBox, totalCostLabel, runPrimBtn);
         // Set actions for buttons
         addNodeBtn.setOnAction(e -> graphController.enableAddVertexOnClick());
         addEdgeBtn.setOnAction(e -> graphController.enableEdgeMode());
         removeNodeBtn.setOnAction(e -> graphController.enableRemoveNodeMode());
         removeEdgeBtn.setOnAction(e -> graphController.enableRemoveEdgeMode());
         clearGraphBtn.setOnAction(e -> graphController.clearGraph());
+        loadGraphBtn.setOnAction(e -> {
+            FileChooser chooser = new FileChooser();
+            chooser.setTitle("Load Graph");
+            chooser.getExtensionFilters().addAll(
+                    new FileChooser.ExtensionFilter("Graph files", "*.rgraph", "*.csv", "*.gr", "*.dimacs", "*.col", "*.txt"),
+                    new FileChooser.ExtensionFilter("All files", "*.*"));
+            File file = chooser.showOpenDialog(primaryStage);
+            if (file != null) {
+                graphController.loadGraphFile(file);
+            }
+        });
         runPrimBtn.setOnAction(e -> graphController.runPrimsMST());
+        pruneBtn.setOnAction(e -> graphController.removeNonTreeEdges());
+        routeBtn.setOnAction(e -> graphController.runShortestPath(targetComboBox.getValue()));
+        tableBtn.setOnAction(e -> graphController.showForwardingTable());
+        distanceVectorBtn.setOnAction(e -> graphController.runDistanceVector());
+        // Refresh the target choices whenever the dropdown is clicked
+        targetComboBox.setOnMouseClicked(e -> targetComboBox.getItems().setAll(graphController.getVertexLabels()));
+        algorithmComboBox.valueProperty().addListener((obs, oldVal, newVal) ->
+                graphController.setMstEngine(MstEngine.byName(newVal)));
+        // Show the progress bar only while something is computing
+        ComputeService compute = graphController.getComputeService();
+        computeProgress.progressProperty().bind(compute.progressProperty());
+        computeLabel.textProperty().bind(compute.taskNameProperty());
+        computeBox.visibleProperty().bind(compute.runningProperty());
+        // Algorithm metrics under the log, also published over JMX
+        Metrics.registerMBean();
+        TitledPane metricsPane = new TitledPane("Metrics", new MetricsPanel(compute));
+        metricsPane.setExpanded(false);
+        rightPanel.getChildren().add(metricsPane);
+        cancelBtn.setOnAction(e -> graphController.cancelComputation());
+        pauseBtn.setOnAction(e -> graphController.togglePlayback());
+        stepBackBtn.setOnAction(e -> graphController.stepPlayback(-1));
+        stepForwardBtn.setOnAction(e -> graphController.stepPlayback(1));
+        // The seek bar follows the playback, and seeks when the user moves it
+        graphController.setOnPlaybackProgress(progress -> {
+            if (!seekSlider.isValueChanging() && !seekSlider.isPressed()) seekSlider.setValue(progress);
+        });
+        seekSlider.valueProperty().addListener((obs, oldVal, newVal) -> {
+            if (seekSlider.isValueChanging() || seekSlider.isPressed()) graphController.seekPlayback(newVal.doubleValue());
+        });
         // Connect speed slider with animation delay
         speedSlider.valueProperty().addListener((obs, oldVal, newVal) -> {
             int delay = newVal.intValue();
@@ -111,10 +185,10 @@ public class MainApp extends Application {
         return btn;
     }
     // Helper to group label + control vertically
-    private VBox createControlBox(String label, Control control) {
+    private VBox createControlBox(String label, Node control) {
         return createControlBox(new Label(label), control);
     }
-    private VBox createControlBox(Node label, Control control) {
+    private VBox createControlBox(Node label, Node control) {
         VBox box = new VBox(5);
         box.getChildren().addAll(label, control);
         return box;
@@ -0,0 +1,320 @@
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Process-wide instrumentation of the algorithms: event counters and phase timers.
+ * <p>
+ * The engines count in local variables inside their loops and add the totals here once per
+ * run, so the hot loops never touch shared state. Counters are {@link LongAdder}s, which
+ * stripe under contention, so parallel workers can report without fighting over one cache line.
+ * When metrics are off, {@link #add} and {@link #stop} return straight away and
+ * {@link #start} doesn't even read the clock.
+ * <p>
+ * {@link #snapshot()} takes a consistent-enough copy for display, per-run deltas
+ * ({@link Snapshot#since}) and the JSON dump. {@link #registerMBean()} exposes the same data
+ * over JMX.
+ */
+public final class Metrics {
+
+    public static final String MBEAN_NAME = "mstvisualizer:type=Metrics";
+
+    /**
+     * Event counters. Gauges keep the largest value reported instead of a sum.
+     */
+    public enum Counter {
+        HEAP_PUSHES("heap.pushes"),
+        HEAP_POPS("heap.pops"),
+        HEAP_DECREASE_KEYS("heap.decreaseKeys"),
+        // Offers that didn't lower a key: the indexed heap's stand-in for the stale entries a
+        // lazy PriorityQueue would have pushed and skipped
+        HEAP_REJECTED_OFFERS("heap.rejectedOffers"),
+        EDGES_SCANNED("edges.scanned"),
+        DENSE_KEYS_SCANNED("prim.dense.keysScanned"),
+        DENSE_KEYS_LOWERED("prim.dense.keysLowered"),
+        UNIONS("unionFind.unions"),
+        DFS_MAX_DEPTH("dfs.maxDepth", true),
+        BORUVKA_ROUNDS("boruvka.rounds"),
+        FOREST_COMPONENTS("forest.components"),
+        VERTICES_SETTLED("paths.settled"),
+        DV_ROUNDS("distanceVector.rounds"),
+        DV_MESSAGES("distanceVector.messages");
+
+        private final String key;
+        private final boolean gauge;
+
+        Counter(String key) {
+            this(key, false);
+        }
+
+        Counter(String key, boolean gauge) {
+            this.key = key;
+            this.gauge = gauge;
+        }
+
+        public String getKey() {
+            return key;
+        }
+    }
+
+    /**
+     * Timed phases of the algorithms.
+     */
+    public enum Phase {
+        CONNECTIVITY("connectivity"),
+        PRIM("prim"),
+        DENSE_PRIM("prim.dense"),
+        KRUSKAL_SORT("kruskal.sort"),
+        KRUSKAL_SCAN("kruskal.scan"),
+        BORUVKA_ROUND("boruvka.round"),
+        FOREST("forest"),
+        SHORTEST_PATH("paths.search"),
+        FORWARDING_TABLES("forwardingTables"),
+        DISTANCE_VECTOR("distanceVector.converge");
+
+        private final String key;
+
+        Phase(String key) {
+            this.key = key;
+        }
+
+        public String getKey() {
+            return key;
+        }
+    }
+
+    private static final Counter[] COUNTERS = Counter.values();
+    private static final Phase[] PHASES = Phase.values();
+
+    private static volatile boolean enabled = true;
+    private static final LongAdder[] sums = new LongAdder[COUNTERS.length];
+    private static final LongAccumulator[] gauges = new LongAccumulator[COUNTERS.length];
+    private static final LongAdder[] phaseCounts = new LongAdder[PHASES.length];
+    private static final LongAdder[] phaseNanos = new LongAdder[PHASES.length];
+    private static final LongAccumulator[] phaseMaxNanos = new LongAccumulator[PHASES.length];
+
+    static {
+        for (Counter c : COUNTERS) {
+            if (c.gauge) {
+                gauges[c.ordinal()] = new LongAccumulator(Math::max, 0);
+            } else {
+                sums[c.ordinal()] = new LongAdder();
+            }
+        }
+        for (Phase p : PHASES) {
+            phaseCounts[p.ordinal()] = new LongAdder();
+            phaseNanos[p.ordinal()] = new LongAdder();
+            phaseMaxNanos[p.ordinal()] = new LongAccumulator(Math::max, 0);
+        }
+    }
+
+    private Metrics() {
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void setEnabled(boolean on) {
+        enabled = on;
+    }
+
+    // Add to a counter, or raise a gauge to value
+    public static void add(Counter counter, long value) {
+        if (!enabled || value == 0) return;
+        if (counter.gauge) {
+            gauges[counter.ordinal()].accumulate(value);
+        } else {
+            sums[counter.ordinal()].add(value);
+        }
+    }
+
+    /**
+     * Start timing a phase.
+     * @return token for {@link #stop}; 0 when metrics are off
+     */
+    public static long start() {
+        return enabled ? System.nanoTime() : 0L;
+    }
+
+    public static void stop(Phase phase, long start) {
+        if (start == 0L || !enabled) return;
+        long nanos = System.nanoTime() - start;
+        phaseCounts[phase.ordinal()].increment();
+        phaseNanos[phase.ordinal()].add(nanos);
+        phaseMaxNanos[phase.ordinal()].accumulate(nanos);
+    }
+
+    public static void reset() {
+        for (Counter c : COUNTERS) {
+            if (c.gauge) gauges[c.ordinal()].reset(); else sums[c.ordinal()].reset();
+        }
+        for (Phase p : PHASES) {
+            phaseCounts[p.ordinal()].reset();
+            phaseNanos[p.ordinal()].reset();
+            phaseMaxNanos[p.ordinal()].reset();
+        }
+    }
+
+    public static Snapshot snapshot() {
+        long[] counters = new long[COUNTERS.length];
+        for (Counter c : COUNTERS) {
+            counters[c.ordinal()] = c.gauge ? gauges[c.ordinal()].get() : sums[c.ordinal()].sum();
+        }
+        long[] counts = new long[PHASES.length];
+        long[] nanos = new long[PHASES.length];
+        long[] maxNanos = new long[PHASES.length];
+        for (Phase p : PHASES) {
+            counts[p.ordinal()] = phaseCounts[p.ordinal()].sum();
+            nanos[p.ordinal()] = phaseNanos[p.ordinal()].sum();
+            maxNanos[p.ordinal()] = phaseMaxNanos[p.ordinal()].get();
+        }
+        return new Snapshot(counters, counts, nanos, maxNanos);
+    }
+
+    /**
+     * Register the metrics with the platform MBean server under {@link #MBEAN_NAME}.
+     * Does nothing if they are already registered.
+     */
+    public static synchronized void registerMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(MBEAN_NAME);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(new Bean(), name);
+            }
+        } catch (JMException ex) {
+            throw new IllegalStateException("Could not register the metrics MBean", ex);
+        }
+    }
+
+    /**
+     * Copy of all counters and phase timers at one moment.
+     */
+    public static final class Snapshot {
+        private final long[] counters;
+        private final long[] phaseCounts;
+        private final long[] phaseNanos;
+        private final long[] phaseMaxNanos;
+
+        private Snapshot(long[] counters, long[] phaseCounts, long[] phaseNanos, long[] phaseMaxNanos) {
+            this.counters = counters;
+            this.phaseCounts = phaseCounts;
+            this.phaseNanos = phaseNanos;
+            this.phaseMaxNanos = phaseMaxNanos;
+        }
+
+        public long get(Counter counter) {
+            return counters[counter.ordinal()];
+        }
+
+        public long count(Phase phase) {
+            return phaseCounts[phase.ordinal()];
+        }
+
+        public double millis(Phase phase) {
+            return phaseNanos[phase.ordinal()] / 1e6;
+        }
+
+        public double maxMillis(Phase phase) {
+            return phaseMaxNanos[phase.ordinal()] / 1e6;
+        }
+
+        /**
+         * What happened between an earlier snapshot and this one. Gauges and phase maxima
+         * can't be split by time, so they keep this snapshot's values.
+         */
+        public Snapshot since(Snapshot earlier) {
+            long[] c = counters.clone();
+            for (Counter counter : COUNTERS) {
+                if (!counter.gauge) c[counter.ordinal()] -= earlier.counters[counter.ordinal()];
+            }
+            long[] counts = phaseCounts.clone();
+            long[] nanos = phaseNanos.clone();
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] -= earlier.phaseCounts[i];
+                nanos[i] -= earlier.phaseNanos[i];
+            }
+            return new Snapshot(c, counts, nanos, phaseMaxNanos.clone());
+        }
+
+        // Counter values by key, in declaration order
+        public Map<String, Long> counters() {
+            Map<String, Long> map = new LinkedHashMap<>();
+            for (Counter c : COUNTERS) {
+                map.put(c.key, counters[c.ordinal()]);
+            }
+            return map;
+        }
+
+        // Total milliseconds per phase by key, for phases that ran
+        public Map<String, Double> phaseMillis() {
+            Map<String, Double> map = new LinkedHashMap<>();
+            for (Phase p : PHASES) {
+                if (phaseCounts[p.ordinal()] > 0) map.put(p.key, millis(p));
+            }
+            return map;
+        }
+
+        /**
+         * One-line JSON object: {"counters":{...},"phases":{"prim":{"count":..,"totalMs":..,"maxMs":..}}}
+         */
+        public String toJson() {
+            StringBuilder json = new StringBuilder("{\"counters\":{");
+            for (Counter c : COUNTERS) {
+                if (c.ordinal() > 0) json.append(',');
+                json.append('"').append(c.key).append("\":").append(counters[c.ordinal()]);
+            }
+            json.append("},\"phases\":{");
+            boolean first = true;
+            for (Phase p : PHASES) {
+                if (phaseCounts[p.ordinal()] == 0) continue;
+                if (!first) json.append(',');
+                first = false;
+                json.append('"').append(p.key).append("\":{\"count\":").append(count(p))
+                        .append(",\"totalMs\":").append(String.format(Locale.ROOT, "%.3f", millis(p)))
+                        .append(",\"maxMs\":").append(String.format(Locale.ROOT, "%.3f", maxMillis(p))).append('}');
+            }
+            return json.append("}}").toString();
+        }
+    }
+
+    // The JMX view of the static registry
+    private static final class Bean implements MetricsMXBean {
+        @Override
+        public boolean isEnabled() {
+            return Metrics.isEnabled();
+        }
+
+        @Override
+        public void setEnabled(boolean on) {
+            Metrics.setEnabled(on);
+        }
+
+        @Override
+        public Map<String, Long> getCounters() {
+            return snapshot().counters();
+        }
+
+        @Override
+        public Map<String, Double> getPhaseMillis() {
+            return snapshot().phaseMillis();
+        }
+
+        @Override
+        public String dumpJson() {
+            return snapshot().toJson();
+        }
+
+        @Override
+        public void reset() {
+            Metrics.reset();
+        }
+    }
+}
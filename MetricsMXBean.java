@@ -0,0 +1,22 @@
+import java.util.Map;
+
+/**
+ * JMX management interface of {@link Metrics}, registered as {@value Metrics#MBEAN_NAME}.
+ */
+public interface MetricsMXBean {
+
+    boolean isEnabled();
+
+    void setEnabled(boolean on);
+
+    // Counter values by key
+    Map<String, Long> getCounters();
+
+    // Total milliseconds spent in each phase that has run
+    Map<String, Double> getPhaseMillis();
+
+    // All counters and phase timers as one JSON object
+    String dumpJson();
+
+    void reset();
+}
@@ -0,0 +1,80 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import javafx.geometry.Pos;
+import javafx.scene.control.Button;
+import javafx.scene.control.CheckBox;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListView;
+import javafx.scene.input.Clipboard;
+import javafx.scene.input.ClipboardContent;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.VBox;
+
+/**
+ * Shows the {@link Metrics} of the last background computation next to the totals since
+ * start-up (or the last reset). It refreshes whenever a computation finishes. "Copy JSON"
+ * puts the last run's dump on the clipboard.
+ */
+public class MetricsPanel extends VBox {
+
+    private final ListView<String> lines = new ListView<>();
+    private ComputeService.RunMetrics lastRun = null;
+
+    public MetricsPanel(ComputeService compute) {
+        super(6);
+        CheckBox enabledBox = new CheckBox("Enabled");
+        enabledBox.setSelected(Metrics.isEnabled());
+        enabledBox.setOnAction(e -> Metrics.setEnabled(enabledBox.isSelected()));
+        Button resetBtn = new Button("Reset");
+        resetBtn.setOnAction(e -> {
+            Metrics.reset();
+            refresh();
+        });
+        Button copyBtn = new Button("Copy JSON");
+        copyBtn.setOnAction(e -> {
+            ClipboardContent content = new ClipboardContent();
+            content.putString(lastRun != null ? lastRun.toJson() : Metrics.snapshot().toJson());
+            Clipboard.getSystemClipboard().setContent(content);
+        });
+        HBox header = new HBox(8, enabledBox, resetBtn, copyBtn);
+        header.setAlignment(Pos.CENTER_LEFT);
+
+        lines.setStyle("-fx-font-family: 'Courier New'; -fx-font-size: 11px;");
+        lines.setPrefHeight(200);
+        VBox.setVgrow(lines, Priority.ALWAYS);
+        getChildren().addAll(header, lines);
+
+        compute.lastRunProperty().addListener((obs, oldRun, newRun) -> {
+            lastRun = newRun;
+            refresh();
+        });
+        refresh();
+    }
+
+    private void refresh() {
+        List<String> text = new ArrayList<>();
+        if (lastRun != null) {
+            text.add("Last run: " + lastRun.task() + String.format(" (%.1f ms)", lastRun.elapsedMillis()));
+            addSnapshot(text, lastRun.metrics());
+            text.add("");
+        }
+        text.add("Since start:");
+        addSnapshot(text, Metrics.snapshot());
+        lines.getItems().setAll(text);
+    }
+
+    private static void addSnapshot(List<String> text, Metrics.Snapshot snapshot) {
+        for (Map.Entry<String, Long> counter : snapshot.counters().entrySet()) {
+            if (counter.getValue() != 0) {
+                text.add(String.format("  %-24s %,14d", counter.getKey(), counter.getValue()));
+            }
+        }
+        for (Metrics.Phase phase : Metrics.Phase.values()) {
+            if (snapshot.count(phase) > 0) {
+                text.add(String.format("  %-24s %,10.1f ms ×%d", phase.getKey(), snapshot.millis(phase), snapshot.count(phase)));
+            }
+        }
+    }
+}
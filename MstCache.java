@@ -0,0 +1,131 @@
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded LRU cache of MST results, keyed by graph revision, engine and source vertex.
+ * The controller bumps the revision on every edit, so an entry can never be served for
+ * a graph that has changed since it was computed. Engines that ignore the source share
+ * one entry per revision. An entry can also hold the step trace of the run, for animation.
+ * Thread-safe.
+ */
+public class MstCache {
+
+    public static final int DEFAULT_CAPACITY = 32;
+
+    private final Map<Key, Entry> entries;
+    private long hits = 0;
+    private long misses = 0;
+
+    public MstCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public MstCache(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be at least 1");
+        }
+        // Access-ordered map that evicts the least recently used entry once full
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Return the cached MST edge ids, computing and storing them on a miss.
+     * The returned array is shared, so callers must not modify it.
+     */
+    public int[] getOrCompute(long revision, MstEngine engine, Graph graph, int source) {
+        Key key = new Key(revision, engine.getName(), engine.usesSource() ? source : -1);
+        synchronized (this) {
+            Entry cached = entries.get(key);
+            if (cached != null) {
+                hits++;
+                return cached.edges;
+            }
+            misses++;
+        }
+
+        // Compute outside the lock so a slow run doesn't block lookups
+        int[] result = engine.run(graph, source);
+        synchronized (this) {
+            entries.putIfAbsent(key, new Entry(result, null));
+        }
+        return result;
+    }
+
+    /**
+     * Return the cached step trace of the run, computing it on a miss (an entry cached
+     * without a trace counts as a miss). The trace is shared, so callers must not add to it.
+     */
+    public MstTrace getOrComputeTrace(long revision, MstEngine engine, Graph graph, int source) {
+        Key key = new Key(revision, engine.getName(), engine.usesSource() ? source : -1);
+        synchronized (this) {
+            Entry cached = entries.get(key);
+            if (cached != null && cached.trace != null) {
+                hits++;
+                return cached.trace;
+            }
+            misses++;
+        }
+
+        MstTrace trace = new MstTrace();
+        int[] result = engine.run(graph, source, trace);
+        synchronized (this) {
+            entries.put(key, new Entry(result, trace));
+        }
+        return trace;
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    private static final class Entry {
+        private final int[] edges;
+        private final MstTrace trace;   // null when computed without one
+
+        Entry(int[] edges, MstTrace trace) {
+            this.edges = edges;
+            this.trace = trace;
+        }
+    }
+
+    private static final class Key {
+        private final long revision;
+        private final String engine;
+        private final int source;
+
+        Key(long revision, String engine, int source) {
+            this.revision = revision;
+            this.engine = engine;
+            this.source = source;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) return false;
+            Key k = (Key) o;
+            return revision == k.revision && source == k.source && engine.equals(k.engine);
+        }
+
+        @Override
+        public int hashCode() {
+            return (Long.hashCode(revision) * 31 + engine.hashCode()) * 31 + source;
+        }
+    }
+}
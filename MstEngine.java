@@ -0,0 +1,94 @@
+import java.util.List;
+
+/**
+ * A minimum spanning tree algorithm that runs on the headless {@link Graph}.
+ * The controller and the animation pick one of these instead of calling {@link PrimMST} directly.
+ */
+public interface MstEngine {
+
+    MstEngine PRIM = new MstEngine() {
+        @Override
+        public String getName() {
+            return "Prim";
+        }
+
+        @Override
+        public int[] run(Graph graph, int source) {
+            return PrimMST.runPrim(graph, source);
+        }
+
+        @Override
+        public int[] run(Graph graph, int source, MstTrace trace) {
+            return PrimMST.runPrim(graph, source, trace);
+        }
+    };
+
+    MstEngine DENSE_PRIM = new DensePrimMST();
+
+    MstEngine KRUSKAL = new KruskalMST();
+
+    MstEngine BORUVKA = new BoruvkaMST();
+
+    // Picks Prim, dense Prim or Kruskal per graph
+    MstEngine AUTO = new AdaptiveMstEngine();
+
+    // Engines offered in the UI, in display order
+    static List<MstEngine> all() {
+        return List.of(AUTO, PRIM, DENSE_PRIM, KRUSKAL, BORUVKA);
+    }
+
+    // Look up an engine by its display name
+    static MstEngine byName(String name) {
+        for (MstEngine engine : all()) {
+            if (engine.getName().equals(name)) return engine;
+        }
+        throw new IllegalArgumentException("Unknown MST engine: " + name);
+    }
+
+    // Look up an engine by its command-line key: prim, dense, kruskal, boruvka or auto
+    static MstEngine byKey(String key) {
+        return switch (key) {
+            case "prim" -> PRIM;
+            case "dense" -> DENSE_PRIM;
+            case "kruskal" -> KRUSKAL;
+            case "boruvka" -> BORUVKA;
+            case "auto" -> AUTO;
+            default -> throw new IllegalArgumentException("Unknown MST engine: " + key);
+        };
+    }
+
+    // Display name, e.g. for the algorithm dropdown and log messages
+    String getName();
+
+    // Engine that actually runs on graph: this one, unless it chooses between others
+    default MstEngine selectFor(Graph graph) {
+        return this;
+    }
+
+    // Whether the result depends on the source vertex (false for engines that ignore it)
+    default boolean usesSource() {
+        return true;
+    }
+
+    /**
+     * Compute the MST of a connected graph.
+     * @param source starting vertex; engines that don't grow the tree from a vertex ignore it
+     * @return ids of the MST edges, in the order the engine accepted them
+     * @throws IllegalArgumentException if the source is invalid or the graph is disconnected
+     */
+    int[] run(Graph graph, int source);
+
+    /**
+     * Compute the MST and record the steps into trace, for animation.
+     * Engines that can't report their steps record each tree edge as accepted, in result order.
+     */
+    default int[] run(Graph graph, int source, MstTrace trace) {
+        int[] mstEdges = run(graph, source);
+        boolean[] visited = new boolean[graph.vertexCount()];
+        for (int e : mstEdges) {
+            trace.visitEndpoints(graph, e, visited);
+            trace.accept(e);
+        }
+        return mstEdges;
+    }
+}
@@ -0,0 +1,77 @@
+import java.util.Arrays;
+
+/**
+ * Step-by-step record of an MST run, in the order the algorithm did the work, for animation
+ * playback. Each step is one int: the event type in the top two bits and an edge or vertex
+ * id in the rest, so a trace costs four bytes per step however large the graph.
+ */
+public class MstTrace {
+
+    public static final int EVALUATE = 0;   // edge considered (a candidate in Prim)
+    public static final int ACCEPT = 1;     // edge added to the tree
+    public static final int DISCARD = 2;    // edge rejected or superseded
+    public static final int VISIT = 3;      // vertex joined the tree
+
+    private static final int TYPE_SHIFT = 30;
+    private static final int ID_MASK = (1 << TYPE_SHIFT) - 1;
+
+    private int[] events = new int[64];
+    private int size = 0;
+
+    public void evaluate(int edge) { add(EVALUATE, edge); }
+    public void accept(int edge) { add(ACCEPT, edge); }
+    public void discard(int edge) { add(DISCARD, edge); }
+    public void visit(int vertex) { add(VISIT, vertex); }
+
+    private void add(int type, int id) {
+        if (id < 0 || id > ID_MASK) {
+            throw new IllegalArgumentException("Id out of range for a trace: " + id);
+        }
+        if (size == events.length) {
+            events = Arrays.copyOf(events, size * 2);
+        }
+        events[size++] = (type << TYPE_SHIFT) | id;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int type(int step) {
+        return events[step] >>> TYPE_SHIFT;
+    }
+
+    // Edge id, or vertex id for VISIT steps
+    public int id(int step) {
+        return events[step] & ID_MASK;
+    }
+
+    /**
+     * Ids of the accepted edges, in the order they were accepted.
+     */
+    public int[] acceptedEdges() {
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (type(i) == ACCEPT) count++;
+        }
+        int[] accepted = new int[count];
+        for (int i = 0, j = 0; i < size; i++) {
+            if (type(i) == ACCEPT) accepted[j++] = id(i);
+        }
+        return accepted;
+    }
+
+    // Visit the endpoints of an edge that aren't visited yet
+    void visitEndpoints(Graph graph, int edge, boolean[] visited) {
+        int u = graph.edgeFrom(edge);
+        int v = graph.edgeTo(edge);
+        if (!visited[u]) {
+            visited[u] = true;
+            visit(u);
+        }
+        if (!visited[v]) {
+            visited[v] = true;
+            visit(v);
+        }
+    }
+}
@@ -1,92 +1,146 @@
-import java.util.*;
-
 public class PrimMST {
 
-    public static boolean isConnected(Map<String, Vertex> vertices, List<Edge> edges) {
-        if (vertices.isEmpty()) return true;
+    private static final int CHECK_INTERVAL = 1024;   // vertices between cancellation checks
 
-        Set<String> visited = new HashSet<>();
-        String startNode = vertices.keySet().iterator().next();
-        dfs(vertices.get(startNode), edges, visited);
+    /**
+     * Checks if every vertex of the graph can be reached from vertex 0.
+     */
+    public static boolean isConnected(Graph graph) {
+        if (graph.vertexCount() == 0) return true;
 
-        return visited.size() == vertices.size();
+        boolean[] visited = reachableFrom(graph, 0);
+        for (boolean v : visited) {
+            if (!v) return false;
+        }
+        return true;
     }
 
-    private static void dfs(Vertex current, List<Edge> edges, Set<String> visited) {
-        if (current == null || visited.contains(current.getLabel())) return;
-
-        visited.add(current.getLabel());
-
-        for (Edge edge : edges) {
-            Vertex neighbor = null;
-
-            if (edge.getStart().equals(current)) {
-                neighbor = edge.getEnd();
-            } else if (edge.getEnd().equals(current)) {
-                neighbor = edge.getStart();
-            }
-
-            if (neighbor != null && !visited.contains(neighbor.getLabel())) {
-                dfs(neighbor, edges, visited);
+    /**
+     * Iterative depth-first search over the adjacency arrays.
+     * @return visited[v] is true when v can be reached from source
+     */
+    public static boolean[] reachableFrom(Graph graph, int source) {
+        boolean[] visited = new boolean[graph.vertexCount()];
+        int[] stack = new int[graph.vertexCount()];
+        int top = 0;
+
+        ProgressMonitor monitor = ProgressMonitor.current();
+        long started = Metrics.start();
+        int maxDepth = 1;
+        visited[source] = true;
+        stack[top++] = source;
+
+        for (int popped = 0; top > 0; popped++) {
+            if (popped % CHECK_INTERVAL == 0) monitor.checkCancelled();
+            int current = stack[--top];
+            for (int s = graph.adjStart(current); s < graph.adjEnd(current); s++) {
+                int neighbor = graph.target(s);
+                if (!visited[neighbor]) {
+                    visited[neighbor] = true;
+                    stack[top++] = neighbor;
+                }
             }
+            maxDepth = Math.max(maxDepth, top);
         }
+
+        Metrics.add(Metrics.Counter.DFS_MAX_DEPTH, maxDepth);
+        Metrics.add(Metrics.Counter.EDGES_SCANNED, 2L * graph.edgeCount());
+        Metrics.stop(Metrics.Phase.CONNECTIVITY, started);
+        return visited;
     }
 
-    public static List<Edge> runPrim(Map<String, Vertex> vertices, List<Edge> edges, String sourceLabel) {
-        if (!vertices.containsKey(sourceLabel)) {
-            throw new IllegalArgumentException("Invalid source node: " + sourceLabel);
+    /**
+     * Runs eager Prim's algorithm on the headless graph in O(E log V).
+     * Each vertex outside the tree sits in an indexed heap at most once, keyed by its
+     * cheapest known edge into the tree; a cheaper edge lowers that key in place.
+     * @return ids of the MST edges, in the order they were added to the tree
+     */
+    public static int[] runPrim(Graph graph, int source) {
+        return runPrim(graph, source, null);
+    }
+
+    /**
+     * Prim's algorithm that also records its steps into trace (when not null): every edge
+     * it examines, candidates that get superseded, and each vertex as it joins the tree.
+     */
+    public static int[] runPrim(Graph graph, int source, MstTrace trace) {
+        int n = graph.vertexCount();
+        if (source < 0 || source >= n) {
+            throw new IllegalArgumentException("Invalid source node: " + source);
         }
 
-        if (!isConnected(vertices, edges)) {
+        if (!isConnected(graph)) {
             throw new IllegalArgumentException("Graph is disconnected. MST cannot be run.");
         }
 
-        // Clear any previous MST state (if stored externally, handle it there too)
-
-        List<Edge> mstEdges = new ArrayList<>();
-        Set<String> inMST = new HashSet<>();
-        PriorityQueue<Edge> edgeQueue = new PriorityQueue<>(Comparator.comparingDouble(Edge::getWeight));
+        int[] mstEdges = new int[Math.max(n - 1, 0)];
+        int mstSize = 0;
+        boolean[] inMST = new boolean[n];
+        int[] bestEdge = new int[n];   // cheapest known edge from each vertex into the tree
+        IndexedMinHeap heap = new IndexedMinHeap(n);
 
         // Always start fresh from the new source
-        inMST.add(sourceLabel);
-
-        for (Edge edge : edges) {
-            if (edge.getStart().getLabel().equals(sourceLabel) ||
-                    edge.getEnd().getLabel().equals(sourceLabel)) {
-                edgeQueue.add(edge);
-            }
-        }
-
-        while (!edgeQueue.isEmpty() && inMST.size() < vertices.size()) {
-            Edge edge = edgeQueue.poll();
-
-            String u = edge.getStart().getLabel();
-            String v = edge.getEnd().getLabel();
-
-            String next = null;
-
-            if (inMST.contains(u) && !inMST.contains(v)) {
-                next = v;
-            } else if (inMST.contains(v) && !inMST.contains(u)) {
-                next = u;
-            } else {
-                continue;
+        heap.insert(source, 0.0);
+        bestEdge[source] = -1;
+
+        ProgressMonitor monitor = ProgressMonitor.current();
+        long started = Metrics.start();
+        long offered = 0;    // offers to a neighbour outside the tree
+        long improved = 0;   // ... that lowered its key (or inserted it)
+        while (!heap.isEmpty()) {
+            if (mstSize % CHECK_INTERVAL == 0) monitor.step(mstSize, n);
+            int next = heap.pollMin();
+            inMST[next] = true;
+            if (bestEdge[next] >= 0) {
+                mstEdges[mstSize++] = bestEdge[next];
+                if (trace != null) trace.accept(bestEdge[next]);
             }
+            if (trace != null) trace.visit(next);
+
+            // Only the edges incident to the new vertex can improve a key
+            for (int s = graph.adjStart(next); s < graph.adjEnd(next); s++) {
+                int neighbor = graph.target(s);
+                if (inMST[neighbor]) continue;
+
+                offered++;
+                if (trace == null) {
+                    if (heap.offer(neighbor, graph.weight(s))) {
+                        bestEdge[neighbor] = graph.slotEdge(s);
+                        improved++;
+                    }
+                    continue;
+                }
 
-            mstEdges.add(edge);
-            inMST.add(next);
-
-            for (Edge e : edges) {
-                String start = e.getStart().getLabel();
-                String end = e.getEnd().getLabel();
-
-                if ((start.equals(next) && !inMST.contains(end)) ||
-                        (end.equals(next) && !inMST.contains(start))) {
-                    edgeQueue.add(e);
+                // Traced: the edge becomes the neighbour's candidate, superseding the old one,
+                // or is discarded straight away
+                int edge = graph.slotEdge(s);
+                int previous = heap.contains(neighbor) ? bestEdge[neighbor] : -1;
+                trace.evaluate(edge);
+                if (heap.offer(neighbor, graph.weight(s))) {
+                    bestEdge[neighbor] = edge;
+                    improved++;
+                    if (previous >= 0) trace.discard(previous);
+                } else {
+                    trace.discard(edge);
                 }
             }
         }
 
+        recordHeapMetrics(n, n, offered, improved);
+        Metrics.add(Metrics.Counter.EDGES_SCANNED, 2L * graph.edgeCount());
+        Metrics.stop(Metrics.Phase.PRIM, started);
         return mstEdges;
     }
+
+    /**
+     * Heap metrics of a run that inserted each vertex once and then only lowered keys:
+     * every successful offer after a vertex's first one was a decrease-key.
+     */
+    static void recordHeapMetrics(long pushes, long pops, long offered, long improved) {
+        Metrics.add(Metrics.Counter.HEAP_PUSHES, pushes);
+        Metrics.add(Metrics.Counter.HEAP_POPS, pops);
+        // The source is pushed without an offer
+        Metrics.add(Metrics.Counter.HEAP_DECREASE_KEYS, improved - (pushes - 1));
+        Metrics.add(Metrics.Counter.HEAP_REJECTED_OFFERS, offered - improved);
+    }
 }
\ No newline at end of file
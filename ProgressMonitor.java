@@ -0,0 +1,95 @@
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Progress and cooperative cancellation for a long computation. The algorithms call
+ * {@link #checkpoint} (or {@link #step} on a captured monitor) every so many iterations of
+ * their main loop; that throws {@link CancellationException} once the computation has been
+ * cancelled or its thread interrupted, and records how far along it is.
+ * <p>
+ * A monitor is installed for the calling thread by {@link #call}. Code with no monitor
+ * installed gets a shared one that is never cancelled, so the checks cost a volatile read
+ * and an interrupt check. Parallel algorithms capture {@link #current()} in the calling
+ * thread and check it from their workers, or give each worker a child monitor.
+ */
+public class ProgressMonitor {
+
+    private static final ThreadLocal<ProgressMonitor> CURRENT = new ThreadLocal<>();
+    private static final ProgressMonitor NONE = new ProgressMonitor();
+
+    private final ProgressMonitor parent;      // cancels this one too; null at the top
+    private volatile boolean cancelled = false;
+    private volatile double fraction = -1.0;   // -1 until the computation reports how far along it is
+
+    public ProgressMonitor() {
+        this(null);
+    }
+
+    /**
+     * A monitor with its own progress that is also cancelled when parent is, for one part
+     * of a parallel computation (e.g. installed with {@link #call} on a pool thread).
+     */
+    public ProgressMonitor(ProgressMonitor parent) {
+        this.parent = parent;
+    }
+
+    // Monitor installed for this thread, or one that is never cancelled
+    public static ProgressMonitor current() {
+        ProgressMonitor monitor = CURRENT.get();
+        return monitor != null ? monitor : NONE;
+    }
+
+    /**
+     * Report progress to the current thread's monitor and stop if it was cancelled.
+     * @throws CancellationException if the computation was cancelled
+     */
+    public static void checkpoint(long done, long total) {
+        current().step(done, total);
+    }
+
+    /**
+     * Run work with this monitor installed for the current thread.
+     */
+    public <T> T call(Callable<T> work) throws Exception {
+        ProgressMonitor previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            return work.call();
+        } finally {
+            if (previous != null) CURRENT.set(previous); else CURRENT.remove();
+        }
+    }
+
+    /**
+     * Record that done out of total units of work are finished, and stop if cancelled.
+     * @throws CancellationException if the computation was cancelled
+     */
+    public void step(long done, long total) {
+        checkCancelled();
+        if (this != NONE && total > 0) {
+            fraction = Math.min(1.0, (double) done / total);
+        }
+    }
+
+    /**
+     * @throws CancellationException if the computation was cancelled or this thread interrupted
+     */
+    public void checkCancelled() {
+        if (isCancelled() || Thread.currentThread().isInterrupted()) {
+            throw new CancellationException("Computation cancelled");
+        }
+    }
+
+    public void cancel() {
+        if (this != NONE) cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled || (parent != null && parent.isCancelled());
+    }
+
+    // Fraction of the work done (0 to 1), or -1 if not known yet
+    public double getFraction() {
+        return fraction;
+    }
+}
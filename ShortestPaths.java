@@ -0,0 +1,218 @@
+import java.util.Arrays;
+
+/**
+ * Single-source shortest paths on a {@link Graph}: Dijkstra on an {@link IndexedMinHeap},
+ * with early exit for point-to-point queries, and A* guided by the vertex coordinates.
+ * <p>
+ * An instance is bound to one graph and keeps its arrays and heap between queries. Each query
+ * only resets the vertices the previous one touched, so a short route costs time proportional
+ * to the part of the graph it explores, not to V. Not thread-safe: use one instance per thread.
+ * <p>
+ * The A* heuristic is the straight-line distance to the target times the smallest
+ * weight-per-unit-length of any edge. That never overestimates, even when weights are not
+ * distances, so A* returns the same distance as Dijkstra.
+ */
+public class ShortestPaths {
+
+    private static final int CHECK_INTERVAL = 1024;   // settled vertices between cancellation checks
+
+    private final Graph graph;
+    private final double heuristicScale;   // 0 when the coordinates give no usable bound
+
+    private final double[] distance;       // tentative distance from the source
+    private final int[] parentEdge;        // edge used to reach each vertex, -1 at the source
+    private final boolean[] settled;
+    private final int[] settleOrder;       // vertices in the order the last query settled them
+    private final IndexedMinHeap heap;
+
+    private int[] touched;                 // vertices whose state must be reset before the next query
+    private int touchedCount = 0;
+    private int source = -1;
+    private int settledCount = 0;
+
+    public ShortestPaths(Graph graph) {
+        for (int e = 0; e < graph.edgeCount(); e++) {
+            if (graph.edgeWeight(e) < 0) {
+                throw new IllegalArgumentException("Shortest paths need non-negative weights, edge " + e
+                        + " has " + graph.edgeWeight(e));
+            }
+        }
+        int n = graph.vertexCount();
+        this.graph = graph;
+        this.heuristicScale = heuristicScale(graph);
+        this.distance = new double[n];
+        this.parentEdge = new int[n];
+        this.settled = new boolean[n];
+        this.settleOrder = new int[n];
+        this.heap = new IndexedMinHeap(n);
+        this.touched = new int[Math.max(n, 1)];
+        Arrays.fill(distance, Double.POSITIVE_INFINITY);
+        Arrays.fill(parentEdge, -1);
+    }
+
+    public Graph getGraph() {
+        return graph;
+    }
+
+    /**
+     * Shortest-path tree from source to every reachable vertex.
+     */
+    public void computeTree(int source) {
+        search(source, -1, false);
+    }
+
+    /**
+     * Dijkstra from source that stops as soon as target is settled.
+     * @return the distance, or +infinity if target is unreachable
+     */
+    public double route(int source, int target) {
+        checkVertex(target);
+        search(source, target, false);
+        return distance[target];
+    }
+
+    /**
+     * A* from source to target using the coordinate heuristic.
+     * @return the distance, or +infinity if target is unreachable
+     */
+    public double routeAStar(int source, int target) {
+        checkVertex(target);
+        search(source, target, true);
+        return distance[target];
+    }
+
+    // Distance found by the last query (+infinity if not reached)
+    public double distance(int v) {
+        return distance[v];
+    }
+
+    // Edge used to reach v in the last query, or -1
+    public int parentEdge(int v) {
+        return parentEdge[v];
+    }
+
+    // Vertices settled by the last query, a measure of how much of the graph it explored
+    public int settledCount() {
+        return settledCount;
+    }
+
+    // i-th vertex settled by the last query; every vertex comes after its parent
+    public int settledVertex(int i) {
+        if (i < 0 || i >= settledCount) {
+            throw new IllegalArgumentException("Invalid settle index: " + i);
+        }
+        return settleOrder[i];
+    }
+
+    /**
+     * Edge ids on the path from the last query's source to target, in travel order.
+     * @return empty if target was not reached
+     */
+    public int[] pathEdges(int target) {
+        checkVertex(target);
+        if (distance[target] == Double.POSITIVE_INFINITY) return new int[0];
+        int length = 0;
+        for (int v = target; v != source; v = graph.other(parentEdge[v], v)) {
+            length++;
+        }
+        int[] path = new int[length];
+        for (int v = target; v != source; v = graph.other(parentEdge[v], v)) {
+            path[--length] = parentEdge[v];
+        }
+        return path;
+    }
+
+    private void search(int source, int target, boolean useHeuristic) {
+        checkVertex(source);
+        reset();
+        this.source = source;
+
+        double tx = target >= 0 ? graph.x(target) : 0;
+        double ty = target >= 0 ? graph.y(target) : 0;
+        boolean guided = useHeuristic && target >= 0 && heuristicScale > 0;
+
+        touch(source);
+        distance[source] = 0.0;
+        heap.insert(source, guided ? heuristic(source, tx, ty) : 0.0);
+
+        ProgressMonitor monitor = ProgressMonitor.current();
+        long started = Metrics.start();
+        long scanned = 0;
+        long offered = 0;
+        long improved = 0;
+        while (!heap.isEmpty()) {
+            if (settledCount % CHECK_INTERVAL == CHECK_INTERVAL - 1) monitor.checkCancelled();
+            int u = heap.pollMin();
+            settled[u] = true;
+            settleOrder[settledCount++] = u;
+            if (u == target) break;
+
+            double du = distance[u];
+            scanned += graph.adjEnd(u) - graph.adjStart(u);
+            for (int s = graph.adjStart(u); s < graph.adjEnd(u); s++) {
+                int v = graph.target(s);
+                if (settled[v]) continue;
+                double dv = du + graph.weight(s);
+                offered++;
+                if (dv < distance[v]) {
+                    improved++;
+                    if (distance[v] == Double.POSITIVE_INFINITY) touch(v);
+                    distance[v] = dv;
+                    parentEdge[v] = graph.slotEdge(s);
+                    heap.offer(v, guided ? dv + heuristic(v, tx, ty) : dv);
+                }
+            }
+        }
+
+        PrimMST.recordHeapMetrics(touchedCount, settledCount, offered, improved);
+        Metrics.add(Metrics.Counter.EDGES_SCANNED, scanned);
+        Metrics.add(Metrics.Counter.VERTICES_SETTLED, settledCount);
+        Metrics.stop(Metrics.Phase.SHORTEST_PATH, started);
+    }
+
+    private double heuristic(int v, double tx, double ty) {
+        double dx = graph.x(v) - tx;
+        double dy = graph.y(v) - ty;
+        return heuristicScale * Math.sqrt(dx * dx + dy * dy);
+    }
+
+    // Undo the previous query on the vertices it touched only
+    private void reset() {
+        for (int i = 0; i < touchedCount; i++) {
+            int v = touched[i];
+            distance[v] = Double.POSITIVE_INFINITY;
+            parentEdge[v] = -1;
+            settled[v] = false;
+        }
+        touchedCount = 0;
+        settledCount = 0;
+        heap.clear();
+    }
+
+    private void touch(int v) {
+        touched[touchedCount++] = v;
+    }
+
+    // Smallest weight per unit of straight-line length over all edges
+    private static double heuristicScale(Graph graph) {
+        double scale = Double.POSITIVE_INFINITY;
+        for (int e = 0; e < graph.edgeCount(); e++) {
+            int u = graph.edgeFrom(e);
+            int v = graph.edgeTo(e);
+            double dx = graph.x(u) - graph.x(v);
+            double dy = graph.y(u) - graph.y(v);
+            double length = Math.sqrt(dx * dx + dy * dy);
+            if (length > 0) {
+                scale = Math.min(scale, graph.edgeWeight(e) / length);
+            }
+        }
+        // Slightly under the bound so rounding can't make the heuristic overestimate
+        return scale == Double.POSITIVE_INFINITY ? 0.0 : scale * (1 - 1e-9);
+    }
+
+    private void checkVertex(int v) {
+        if (v < 0 || v >= graph.vertexCount()) {
+            throw new IllegalArgumentException("Invalid vertex: " + v);
+        }
+    }
+}
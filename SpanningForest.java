@@ -0,0 +1,312 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Minimum spanning forest: one minimum spanning tree per connected component ("island"),
+ * for graphs the MST engines reject as disconnected.
+ * <ol>
+ *   <li>One linear pass labels the components (iterative DFS over the adjacency arrays),
+ *       numbered in order of their smallest vertex.</li>
+ *   <li>Two counting sorts group the vertices and edges by component, keeping id order,
+ *       so each component becomes its own small {@link Graph} with the same tie-breaking.</li>
+ *   <li>The components are solved concurrently on a {@link ForkJoinPool}: the range of
+ *       components is split until each task holds about {@link #GRAIN} units of work or a
+ *       single component, and idle workers steal the rest. Any {@link MstEngine} can solve
+ *       them; {@link MstEngine#AUTO} picks one per component.</li>
+ * </ol>
+ * Each worker runs its component under a child of the caller's {@link ProgressMonitor}, so
+ * cancelling the caller stops the engines inside the pool as well.
+ * <p>
+ * A forest that is already known, such as the one {@link DynamicMST} keeps while editing, can be
+ * split into its trees with {@link #of(Graph, int[])} without running an engine.
+ */
+public final class SpanningForest {
+
+    private static final int GRAIN = 1 << 14;           // vertices + edges per task
+    private static final int CHECK_INTERVAL = 1024;     // vertices between cancellation checks
+
+    /**
+     * The minimum spanning tree of one component.
+     * @param vertices the component's vertex ids, ascending
+     * @param edges ids of its tree edges in the original graph, in the engine's order
+     * @param cost total weight of the tree edges
+     */
+    public record Tree(int[] vertices, int[] edges, double cost) {
+        public int size() {
+            return vertices.length;
+        }
+    }
+
+    private final int[] componentOf;
+    private final List<Tree> trees;
+    private final double totalCost;
+    private final int edgeCount;
+
+    private SpanningForest(int[] componentOf, List<Tree> trees) {
+        this.componentOf = componentOf;
+        this.trees = Collections.unmodifiableList(trees);
+        double cost = 0;
+        int edges = 0;
+        for (Tree tree : trees) {
+            cost += tree.cost();
+            edges += tree.edges().length;
+        }
+        this.totalCost = cost;
+        this.edgeCount = edges;
+    }
+
+    public static SpanningForest compute(Graph graph, MstEngine engine) {
+        return compute(graph, engine, ForkJoinPool.commonPool());
+    }
+
+    public static SpanningForest compute(Graph graph, MstEngine engine, ForkJoinPool pool) {
+        long started = Metrics.start();
+        ProgressMonitor monitor = ProgressMonitor.current();
+        int n = graph.vertexCount();
+        int[] componentOf = new int[n];
+        int components = labelComponents(graph, componentOf, monitor);
+
+        // Group vertices and edges by component, in id order
+        int[] vertexStart = new int[components + 1];
+        int[] edgeStart = new int[components + 1];
+        for (int v = 0; v < n; v++) vertexStart[componentOf[v] + 1]++;
+        for (int e = 0; e < graph.edgeCount(); e++) edgeStart[componentOf[graph.edgeFrom(e)] + 1]++;
+        for (int c = 0; c < components; c++) {
+            vertexStart[c + 1] += vertexStart[c];
+            edgeStart[c + 1] += edgeStart[c];
+        }
+        int[] vertexOrder = new int[n];
+        int[] localId = new int[n];   // index of a vertex within its component
+        int[] fill = vertexStart.clone();
+        for (int v = 0; v < n; v++) {
+            int c = componentOf[v];
+            localId[v] = fill[c] - vertexStart[c];
+            vertexOrder[fill[c]++] = v;
+        }
+        int[] edgeOrder = new int[graph.edgeCount()];
+        fill = edgeStart.clone();
+        for (int e = 0; e < graph.edgeCount(); e++) {
+            edgeOrder[fill[componentOf[graph.edgeFrom(e)]]++] = e;
+        }
+
+        Tree[] trees = new Tree[components];
+        Solver solver = new Solver(graph, engine, monitor, vertexStart, edgeStart, vertexOrder, edgeOrder,
+                localId, trees, (long) n + graph.edgeCount());
+        if ((long) n + graph.edgeCount() <= GRAIN) {
+            solver.solve(0, components);
+        } else {
+            pool.invoke(solver.task(0, components));
+        }
+
+        List<Tree> list = new ArrayList<>(components);
+        Collections.addAll(list, trees);
+        Metrics.add(Metrics.Counter.FOREST_COMPONENTS, components);
+        Metrics.stop(Metrics.Phase.FOREST, started);
+        return new SpanningForest(componentOf, list);
+    }
+
+    /**
+     * Split a known spanning forest of graph (edge ids, any order) into one tree per component.
+     * Only the components are labelled; the edges are taken as they are.
+     */
+    public static SpanningForest of(Graph graph, int[] forestEdges) {
+        int n = graph.vertexCount();
+        int[] componentOf = new int[n];
+        int components = labelComponents(graph, componentOf, ProgressMonitor.current());
+        if (forestEdges.length != n - components) {
+            throw new IllegalArgumentException("Not a spanning forest: " + forestEdges.length + " edges for "
+                    + n + " vertices in " + components + " components");
+        }
+
+        int[] vertexCount = new int[components];
+        int[] edgeCount = new int[components];
+        for (int v = 0; v < n; v++) vertexCount[componentOf[v]]++;
+        for (int e : forestEdges) edgeCount[componentOf[graph.edgeFrom(e)]]++;
+        int[][] vertices = new int[components][];
+        int[][] edges = new int[components][];
+        double[] cost = new double[components];
+        for (int c = 0; c < components; c++) {
+            vertices[c] = new int[vertexCount[c]];
+            edges[c] = new int[edgeCount[c]];
+        }
+        Arrays.fill(vertexCount, 0);
+        Arrays.fill(edgeCount, 0);
+        for (int v = 0; v < n; v++) {
+            int c = componentOf[v];
+            vertices[c][vertexCount[c]++] = v;
+        }
+        for (int e : forestEdges) {
+            int c = componentOf[graph.edgeFrom(e)];
+            edges[c][edgeCount[c]++] = e;
+            cost[c] += graph.edgeWeight(e);
+        }
+
+        List<Tree> trees = new ArrayList<>(components);
+        for (int c = 0; c < components; c++) {
+            trees.add(new Tree(vertices[c], edges[c], cost[c]));
+        }
+        Metrics.add(Metrics.Counter.FOREST_COMPONENTS, components);
+        return new SpanningForest(componentOf, trees);
+    }
+
+    // Number the components 0, 1, ... by their smallest vertex; returns how many there are
+    private static int labelComponents(Graph graph, int[] componentOf, ProgressMonitor monitor) {
+        int n = graph.vertexCount();
+        Arrays.fill(componentOf, -1);
+        int[] stack = new int[n];
+        int components = 0;
+        int popped = 0;
+        for (int root = 0; root < n; root++) {
+            if (componentOf[root] >= 0) continue;
+            int c = components++;
+            componentOf[root] = c;
+            int top = 0;
+            stack[top++] = root;
+            while (top > 0) {
+                if (++popped % CHECK_INTERVAL == 0) monitor.step(popped, 2L * n);
+                int current = stack[--top];
+                for (int s = graph.adjStart(current); s < graph.adjEnd(current); s++) {
+                    int neighbor = graph.target(s);
+                    if (componentOf[neighbor] < 0) {
+                        componentOf[neighbor] = c;
+                        stack[top++] = neighbor;
+                    }
+                }
+            }
+        }
+        Metrics.add(Metrics.Counter.EDGES_SCANNED, 2L * graph.edgeCount());
+        return components;
+    }
+
+    public int getComponentCount() {
+        return trees.size();
+    }
+
+    // Component of vertex v; components are numbered by their smallest vertex
+    public int componentOf(int v) {
+        return componentOf[v];
+    }
+
+    // One tree per component, in component order (single vertices have no edges)
+    public List<Tree> getTrees() {
+        return trees;
+    }
+
+    public Tree getTree(int component) {
+        return trees.get(component);
+    }
+
+    public double getTotalCost() {
+        return totalCost;
+    }
+
+    // All forest edges, component by component
+    public int[] getEdges() {
+        int[] all = new int[edgeCount];
+        int size = 0;
+        for (Tree tree : trees) {
+            System.arraycopy(tree.edges(), 0, all, size, tree.edges().length);
+            size += tree.edges().length;
+        }
+        return all;
+    }
+
+    // Solves a range of components; shared by the tasks of one run
+    private static final class Solver {
+        private final Graph graph;
+        private final MstEngine engine;
+        private final ProgressMonitor monitor;
+        private final int[] vertexStart;
+        private final int[] edgeStart;
+        private final int[] vertexOrder;
+        private final int[] edgeOrder;
+        private final int[] localId;
+        private final Tree[] trees;
+        private final long totalWork;
+        private final AtomicLong doneWork = new AtomicLong();
+
+        Solver(Graph graph, MstEngine engine, ProgressMonitor monitor, int[] vertexStart, int[] edgeStart,
+               int[] vertexOrder, int[] edgeOrder, int[] localId, Tree[] trees, long totalWork) {
+            this.graph = graph;
+            this.engine = engine;
+            this.monitor = monitor;
+            this.vertexStart = vertexStart;
+            this.edgeStart = edgeStart;
+            this.vertexOrder = vertexOrder;
+            this.edgeOrder = edgeOrder;
+            this.localId = localId;
+            this.trees = trees;
+            this.totalWork = totalWork;
+        }
+
+        // Vertices plus edges of components [lo, hi)
+        long work(int lo, int hi) {
+            return (vertexStart[hi] - vertexStart[lo]) + (long) (edgeStart[hi] - edgeStart[lo]);
+        }
+
+        void solve(int lo, int hi) {
+            for (int c = lo; c < hi; c++) {
+                monitor.checkCancelled();
+                trees[c] = solveComponent(c);
+                // Labelling the components was the first half
+                monitor.step(totalWork + doneWork.addAndGet(work(c, c + 1)), 2 * totalWork);
+            }
+        }
+
+        private Tree solveComponent(int c) {
+            int[] vertices = Arrays.copyOfRange(vertexOrder, vertexStart[c], vertexStart[c + 1]);
+            int m = edgeStart[c + 1] - edgeStart[c];
+            if (m == 0 || vertices.length == 1) {
+                return new Tree(vertices, new int[0], 0.0);
+            }
+
+            int[] from = new int[m];
+            int[] to = new int[m];
+            double[] weight = new double[m];
+            for (int i = 0; i < m; i++) {
+                int e = edgeOrder[edgeStart[c] + i];
+                from[i] = localId[graph.edgeFrom(e)];
+                to[i] = localId[graph.edgeTo(e)];
+                weight[i] = graph.edgeWeight(e);
+            }
+            Graph component = Graph.wrap(vertices.length, from, to, weight, null, null);
+
+            // The engines look for the caller's monitor on this (pool) thread
+            int[] local;
+            try {
+                local = new ProgressMonitor(monitor).call(() -> engine.run(component, 0));
+            } catch (RuntimeException ex) {
+                throw ex;
+            } catch (Exception ex) {
+                throw new IllegalStateException(ex);
+            }
+
+            int[] edges = new int[local.length];
+            double cost = 0;
+            for (int i = 0; i < local.length; i++) {
+                edges[i] = edgeOrder[edgeStart[c] + local[i]];
+                cost += graph.edgeWeight(edges[i]);
+            }
+            return new Tree(vertices, edges, cost);
+        }
+
+        RecursiveAction task(int lo, int hi) {
+            return new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    if (hi - lo <= 1 || work(lo, hi) <= GRAIN) {
+                        solve(lo, hi);
+                        return;
+                    }
+                    int mid = (lo + hi) >>> 1;
+                    invokeAll(task(lo, mid), task(mid, hi));
+                }
+            };
+        }
+    }
+}
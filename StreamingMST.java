@@ -0,0 +1,167 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Semi-external Kruskal for edge sets that don't fit in the heap. Only O(V) state stays
+ * resident (the union-find), plus one bounded buffer of edges.
+ * <ol>
+ *   <li>The input graph file is streamed in runs of {@code runEdges} edges; each run is
+ *       radix-sorted in memory and written to a temporary file.</li>
+ *   <li>The sorted runs are merged through an {@link IndexedMinHeap} keyed by weight and fed to
+ *       a union-find; every accepted edge is written to the output file right away.</li>
+ * </ol>
+ * Equal weights are taken in input order, the same tie-breaking as {@link KruskalMST}.
+ * A disconnected input gives a minimum spanning forest.
+ */
+public class StreamingMST {
+
+    public static final int DEFAULT_RUN_EDGES = 8 << 20;
+
+    private final int runEdges;   // edges sorted in memory at once
+    private final Path tempDir;   // where the sorted runs go
+
+    public StreamingMST() {
+        this(DEFAULT_RUN_EDGES, Path.of(System.getProperty("java.io.tmpdir")));
+    }
+
+    public StreamingMST(int runEdges, Path tempDir) {
+        if (runEdges < 1) {
+            throw new IllegalArgumentException("Run size must be at least 1");
+        }
+        this.runEdges = runEdges;
+        this.tempDir = tempDir;
+    }
+
+    /**
+     * Summary of one streaming run.
+     */
+    public static class Result {
+        public final long vertexCount;
+        public final long edgesRead;
+        public final long treeEdges;
+        public final double totalWeight;
+        public final int runs;
+
+        Result(long vertexCount, long edgesRead, long treeEdges, double totalWeight, int runs) {
+            this.vertexCount = vertexCount;
+            this.edgesRead = edgesRead;
+            this.treeEdges = treeEdges;
+            this.totalWeight = totalWeight;
+            this.runs = runs;
+        }
+
+        // True when the tree spans every vertex (the input was connected)
+        public boolean isSpanning() {
+            return treeEdges == Math.max(vertexCount - 1, 0);
+        }
+    }
+
+    /**
+     * Compute the minimum spanning forest of the graph file at input and write its edges,
+     * in the order they were accepted, to a graph file at output.
+     */
+    public Result run(Path input, Path output) throws IOException {
+        List<Path> runFiles = new ArrayList<>();
+        try {
+            long vertexCount;
+            long edgesRead = 0;
+            try (GraphFile.EdgeCursor cursor = new GraphFile.EdgeCursor(input)) {
+                vertexCount = cursor.getHeader().vertexCount;
+                if (vertexCount > Integer.MAX_VALUE) {
+                    throw new IOException("Too many vertices for an in-memory union-find: " + vertexCount);
+                }
+                int capacity = (int) Math.min(runEdges, Math.max(cursor.getHeader().edgeCount, 1));
+                int[] from = new int[capacity];
+                int[] to = new int[capacity];
+                double[] weight = new double[capacity];
+                long[] keys = new long[capacity];
+                int[] order = new int[capacity];
+
+                // Phase 1: sorted runs
+                int size = 0;
+                while (true) {
+                    boolean more = cursor.next();
+                    if (more) {
+                        from[size] = cursor.from();
+                        to[size] = cursor.to();
+                        weight[size] = cursor.weight();
+                        size++;
+                        edgesRead++;
+                    }
+                    if (size == capacity || (!more && size > 0)) {
+                        runFiles.add(writeSortedRun(from, to, weight, keys, order, size));
+                        size = 0;
+                    }
+                    if (!more) break;
+                }
+            }
+
+            // Phase 2: merge the runs into Kruskal
+            return merge(runFiles, (int) vertexCount, edgesRead, output);
+        } finally {
+            for (Path run : runFiles) {
+                Files.deleteIfExists(run);
+            }
+        }
+    }
+
+    private Path writeSortedRun(int[] from, int[] to, double[] weight, long[] keys, int[] order, int size)
+            throws IOException {
+        long[] runKeys = size == keys.length ? keys : new long[size];
+        int[] runOrder = size == order.length ? order : new int[size];
+        for (int i = 0; i < size; i++) {
+            runKeys[i] = EdgeSort.sortableBits(weight[i]);
+            runOrder[i] = i;
+        }
+        EdgeSort.sort(runKeys, runOrder);
+
+        Path run = Files.createTempFile(tempDir, "mst-run", ".rgraph");
+        try (GraphFile.Writer writer = new GraphFile.Writer(run)) {
+            for (int i = 0; i < size; i++) {
+                int e = runOrder[i];
+                writer.addEdge(from[e], to[e], weight[e]);
+            }
+        }
+        return run;
+    }
+
+    private Result merge(List<Path> runFiles, int vertexCount, long edgesRead, Path output) throws IOException {
+        int runs = runFiles.size();
+        GraphFile.EdgeCursor[] cursors = new GraphFile.EdgeCursor[runs];
+        DisjointSet sets = new DisjointSet(vertexCount);
+        long treeEdges = 0;
+        double totalWeight = 0.0;
+
+        try (GraphFile.Writer writer = new GraphFile.Writer(output)) {
+            writer.setVertexCount(vertexCount);
+
+            // Heap of runs keyed by the weight of each run's current edge; ties go to the
+            // earlier run, which holds the earlier input edges
+            IndexedMinHeap heads = new IndexedMinHeap(runs);
+            for (int r = 0; r < runs; r++) {
+                cursors[r] = new GraphFile.EdgeCursor(runFiles.get(r));
+                if (cursors[r].next()) heads.insert(r, cursors[r].weight());
+            }
+
+            long target = Math.max(vertexCount - 1L, 0);
+            while (!heads.isEmpty() && treeEdges < target) {
+                int r = heads.pollMin();
+                GraphFile.EdgeCursor cursor = cursors[r];
+                if (sets.union(cursor.from(), cursor.to())) {
+                    writer.addEdge(cursor.from(), cursor.to(), cursor.weight());
+                    treeEdges++;
+                    totalWeight += cursor.weight();
+                }
+                if (cursor.next()) heads.insert(r, cursor.weight());
+            }
+        } finally {
+            for (GraphFile.EdgeCursor cursor : cursors) {
+                if (cursor != null) cursor.close();
+            }
+        }
+        return new Result(vertexCount, edgesRead, treeEdges, totalWeight, runs);
+    }
+}
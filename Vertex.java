@@ -15,6 +15,11 @@ public class Vertex {
     private Tooltip tooltip;          // Tooltip for additional info
 
     private static final double BASE_RADIUS = 15.0; // Radius of the circle
+    // Fills for the islands of a spanning forest, in turn
+    private static final Color[] ISLAND_FILLS = {
+            Color.web("#1971c2"), Color.web("#e8590c"), Color.web("#2f9e44"), Color.web("#9c36b5"),
+            Color.web("#c2255c"), Color.web("#0c8599"), Color.web("#f08c00"), Color.web("#5c940d")
+    };
     private double dragStartX, dragStartY;          // Offset during dragging
 
     /**
@@ -155,6 +160,13 @@ public class Vertex {
         }
     }
 
+    /**
+     * Fill the vertex with the colour of its island (connected component) in a spanning forest.
+     */
+    public void markIsland(int island) {
+        this.circle.setFill(ISLAND_FILLS[island % ISLAND_FILLS.length]);
+    }
+
     // Getters for various parts
     public String getLabel() {
         return label;
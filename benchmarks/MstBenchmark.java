@@ -0,0 +1,204 @@
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.*;
+
+/**
+ * Benchmark suite for the MST and connectivity hot paths on generated topologies
+ * (Erdős–Rényi, grid, random geometric and complete graphs).
+ * <p>
+ * Each benchmark gets timed warmup iterations and then measurement iterations; for every
+ * measurement it reports throughput (ops/s and edges/s) and the allocation rate, taken from
+ * the JVM's per-thread allocation counters. At the end it prints a scaling table across edge
+ * counts and writes all rows to bench_output.txt as CSV.
+ * <p>
+ * Edges/s is the whole graph per op for the benchmarks that process all of it. Route queries
+ * stop early, so theirs counts the adjacency entries they actually scanned (the
+ * {@code edges.scanned} metric).
+ * <p>
+ * Every benchmark runs on the headless {@link Graph}, so the suite compiles and runs without
+ * JavaFX (see the README for the list of core sources).
+ * <pre>
+ * java -Xmx8g -cp out MstBenchmark [--bench=prim,kruskal] [--topology=GRID] [--edges=1000,100000]
+ *                                  [--warmup=3] [--iterations=5] [--time=2000]
+ * </pre>
+ */
+public class MstBenchmark {
+
+    // A benchmarked operation; the result is consumed so the JIT can't drop the work
+    private interface Workload {
+        Object run(Graph graph);
+    }
+
+    private static final Map<String, Workload> BENCHMARKS = new LinkedHashMap<>();
+
+    // Benchmarks whose edges/s comes from the edges they scanned, not the graph's edge count
+    private static final Set<String> QUERIES = Set.of("routeDijkstra", "routeAStar");
+
+    static {
+        BENCHMARKS.put("prim", graph -> PrimMST.runPrim(graph, 0));
+        BENCHMARKS.put("densePrim", graph -> MstEngine.DENSE_PRIM.run(graph, 0));
+        BENCHMARKS.put("kruskal", graph -> MstEngine.KRUSKAL.run(graph, 0));   // on the pre-sorted edge array
+        BENCHMARKS.put("boruvka", graph -> MstEngine.BORUVKA.run(graph, 0));
+        BENCHMARKS.put("sortEdges", EdgeSort::byWeight);
+        BENCHMARKS.put("isConnected", PrimMST::isConnected);
+        // Replays every edge into the tracker the way the controller does while editing
+        BENCHMARKS.put("connectivityTracker", graph -> {
+            ConnectivityTracker tracker = new ConnectivityTracker();
+            for (int v = 0; v < graph.vertexCount(); v++) {
+                tracker.addVertex();
+            }
+            for (int e = 0; e < graph.edgeCount(); e++) {
+                tracker.addEdge(graph.edgeFrom(e), graph.edgeTo(e));
+            }
+            return tracker.isConnected();
+        });
+        // Point-to-point queries between pseudo-random pairs, reusing one router per graph
+        BENCHMARKS.put("routeDijkstra", graph -> {
+            int[] pair = nextPair(graph);
+            return router(graph).route(pair[0], pair[1]);
+        });
+        BENCHMARKS.put("routeAStar", graph -> {
+            int[] pair = nextPair(graph);
+            return router(graph).routeAStar(pair[0], pair[1]);
+        });
+    }
+
+    private static ShortestPaths router;
+    private static long query = 0;
+
+    private static ShortestPaths router(Graph graph) {
+        if (router == null || router.getGraph() != graph) {
+            router = new ShortestPaths(graph);
+        }
+        return router;
+    }
+
+    private static int[] nextPair(Graph graph) {
+        query++;
+        int n = graph.vertexCount();
+        return new int[] { (int) (query * 7919 % n), (int) ((query * 104729 + n / 2) % n) };
+    }
+
+    private static volatile int sink;   // results are folded in here
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = parseOptions(args);
+        List<String> benchmarks = split(options.getOrDefault("bench", String.join(",", BENCHMARKS.keySet())));
+        List<String> topologies = split(options.getOrDefault("topology", "ERDOS_RENYI,GRID,GEOMETRIC,COMPLETE"));
+        List<String> edgeCounts = split(options.getOrDefault("edges", "1000,10000,100000,1000000,10000000"));
+        int warmup = Integer.parseInt(options.getOrDefault("warmup", "3"));
+        int iterations = Integer.parseInt(options.getOrDefault("iterations", "5"));
+        long iterationNanos = Long.parseLong(options.getOrDefault("time", "2000")) * 1_000_000L;
+        Metrics.setEnabled(true);   // the route benchmarks count scanned edges through it
+
+        List<String> rows = new ArrayList<>();
+        rows.add("benchmark,topology,edges,ops_per_s,edges_per_s,alloc_bytes_per_op,alloc_mb_per_s");
+        // benchmark / topology -> edges -> edges per second
+        Map<String, SortedMap<Long, Double>> scaling = new TreeMap<>();
+
+        for (String topologyName : topologies) {
+            GraphGenerators.Topology topology = GraphGenerators.Topology.valueOf(topologyName);
+            for (String edgeCount : edgeCounts) {
+                Graph graph = GraphGenerators.generate(topology, Long.parseLong(edgeCount), 42L);
+                graph.edgesByWeight();   // sort once up front, as the cached Kruskal path expects
+                System.out.printf("%n%s, %,d vertices, %,d edges%n", topology, graph.vertexCount(), graph.edgeCount());
+
+                for (String name : benchmarks) {
+                    Workload workload = BENCHMARKS.get(name);
+                    if (workload == null) {
+                        throw new IllegalArgumentException("Unknown benchmark: " + name);
+                    }
+
+                    for (int i = 0; i < warmup; i++) {
+                        measure(workload, graph, iterationNanos);
+                    }
+                    double[] best = null;
+                    for (int i = 0; i < iterations; i++) {
+                        double[] m = measure(workload, graph, iterationNanos);
+                        if (best == null || m[0] > best[0]) best = m;
+                    }
+
+                    double opsPerSecond = best[0];
+                    double edgesPerSecond = QUERIES.contains(name) ? best[2] : opsPerSecond * graph.edgeCount();
+                    double bytesPerOp = best[1];
+                    double allocRate = bytesPerOp * opsPerSecond / (1024 * 1024);
+                    System.out.printf("  %-20s %12.3f ops/s %14.3e edges/s %14.0f B/op %10.1f MB/s%n",
+                            name, opsPerSecond, edgesPerSecond, bytesPerOp, allocRate);
+
+                    rows.add(String.format(Locale.ROOT, "%s,%s,%d,%.4f,%.1f,%.0f,%.2f", name, topology,
+                            graph.edgeCount(), opsPerSecond, edgesPerSecond, bytesPerOp, allocRate));
+                    scaling.computeIfAbsent(name + " / " + topology, k -> new TreeMap<>())
+                            .put((long) graph.edgeCount(), edgesPerSecond);
+                }
+            }
+        }
+
+        System.out.println();
+        System.out.println("Scaling (edges per second)");
+        for (Map.Entry<String, SortedMap<Long, Double>> row : scaling.entrySet()) {
+            StringBuilder line = new StringBuilder(String.format("%-34s", row.getKey()));
+            for (Map.Entry<Long, Double> cell : row.getValue().entrySet()) {
+                line.append(String.format("  %,d: %.3e", cell.getKey(), cell.getValue()));
+            }
+            System.out.println(line);
+        }
+
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(Paths.get("bench_output.txt")))) {
+            rows.forEach(out::println);
+        }
+    }
+
+    /**
+     * Run the workload repeatedly for about the given time.
+     * @return {ops per second, allocated bytes per op, edges scanned per second}
+     */
+    private static double[] measure(Workload workload, Graph graph, long nanos) {
+        long scannedBefore = Metrics.snapshot().get(Metrics.Counter.EDGES_SCANNED);
+        long allocatedBefore = allocatedBytes();
+        long start = System.nanoTime();
+        long ops = 0;
+        long elapsed;
+        do {
+            sink ^= System.identityHashCode(workload.run(graph));
+            ops++;
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < nanos);
+        long allocated = allocatedBytes() - allocatedBefore;
+        long scanned = Metrics.snapshot().get(Metrics.Counter.EDGES_SCANNED) - scannedBefore;
+        return new double[] { ops * 1e9 / elapsed, (double) allocated / ops, scanned * 1e9 / elapsed };
+    }
+
+    // Bytes allocated so far by all live threads (includes the Borůvka pool workers)
+    private static long allocatedBytes() {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long total = 0;
+        for (long bytes : threads.getThreadAllocatedBytes(threads.getAllThreadIds())) {
+            if (bytes > 0) total += bytes;
+        }
+        return total;
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value, got: " + arg);
+            }
+            int eq = arg.indexOf('=');
+            options.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+        return options;
+    }
+
+    private static List<String> split(String list) {
+        List<String> result = new ArrayList<>();
+        for (String item : list.split(",")) {
+            if (!item.isBlank()) result.add(item.trim());
+        }
+        return result;
+    }
+}